@@ -0,0 +1,271 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.domain.Customer;
+import com.recup.backend.domain.Invoice;
+import com.recup.backend.domain.InvoiceItem;
+import com.recup.backend.domain.Track;
+import com.recup.backend.infra.CsvPlaylistLoader;
+import com.recup.backend.infra.CsvTokenizer;
+import com.recup.backend.infra.DataSourceProvider;
+import com.recup.backend.infra.DbInitializer;
+import com.recup.backend.infra.EmployeeClosure;
+import com.recup.backend.infra.ImportMode;
+import com.recup.backend.infra.InvoiceBulkIngestor;
+import com.recup.backend.infra.JdbcBulkPlaylistLoader;
+import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.infra.ParallelCsvPlaylistLoader;
+import com.recup.backend.infra.SequenceBlockAllocator;
+import com.recup.backend.infra.StagingPlaylistLoader;
+import jakarta.persistence.EntityManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Utilidades compartidas por los benchmarks: base H2 limpia, importación con cada motor y
+ * copias escaladas de playlists.csv, facturas y organigramas generados al azar.
+ */
+final class BenchmarkDatabase {
+
+    static final String SAMPLE = "sample-data/playlists.csv";
+
+    private static final PrintStream STDOUT = System.out;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Borra todo el esquema y lo vuelve a crear con {@link DbInitializer}. La EntityManagerFactory
+     * se recrea también: sus optimizadores de secuencia guardan bloques de IDs de la base anterior.
+     */
+    static void reset() {
+        LocalEntityManagerProvider.close();
+        try (Connection conn = DataSourceProvider.getDataSource().getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        } catch (Exception e) {
+            throw new RuntimeException("No se pudo limpiar la base", e);
+        }
+        DbInitializer.initDatabase();
+        LocalEntityManagerProvider.getEntityManager().close(); // arranque de Hibernate fuera de la medición
+    }
+
+    /** Importa {@code source} con el motor indicado (misma selección que App). */
+    static void importFile(ImportMode mode, String source) {
+        EntityManager em = LocalEntityManagerProvider.getEntityManager();
+        try {
+            switch (mode) {
+                case INCREMENTAL -> CsvPlaylistLoader.loadIncremental(em, source);
+                case PARALLEL -> ParallelCsvPlaylistLoader.load(em, source);
+                case JDBC -> JdbcBulkPlaylistLoader.load(em, source);
+                case STAGING -> StagingPlaylistLoader.load(em, source);
+                default -> CsvPlaylistLoader.load(em, source);
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Devuelve el origen a importar para la escala pedida: el recurso incluido para 1x o un archivo
+     * en target/bench-data con {@code scale} copias del sample (se genera una sola vez).
+     */
+    static String scaledSample(int scale) throws IOException {
+        if (scale <= 1) {
+            return SAMPLE;
+        }
+        Path dir = Path.of(System.getProperty("bench.data.dir", "target/bench-data"));
+        Path file = dir.resolve("playlists-" + scale + "x.csv");
+        if (!Files.exists(file)) {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "playlists-", ".tmp");
+            writeScaled(tmp, scale);
+            Files.move(tmp, file);
+        }
+        return file.toString();
+    }
+
+    /**
+     * Escribe {@code scale} copias de los registros del sample. En la copia k (k &gt; 0) el nombre del
+     * track lleva el sufijo " #k": cada copia agrega tracks nuevos a las mismas playlists, álbumes,
+     * artistas y géneros, y los registros incompletos se mantienen (mismo porcentaje de omitidos).
+     */
+    private static void writeScaled(Path target, int scale) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (int k = 0; k < scale; k++) {
+                try (CsvTokenizer csv = CsvTokenizer.openResource(SAMPLE)) {
+                    boolean header = true;
+                    while (csv.nextRecord()) {
+                        if (header) {
+                            header = false;
+                            if (k == 0) writeRecord(out, csv, -1, 0);
+                            continue;
+                        }
+                        writeRecord(out, csv, 1, k); // columna 1 = trackName
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeRecord(BufferedWriter out, CsvTokenizer csv, int suffixField, int copy) throws IOException {
+        for (int i = 0; i < csv.fieldCount(); i++) {
+            if (i > 0) out.write(',');
+            String value = csv.string(i);
+            if (i == suffixField && copy > 0 && !value.isEmpty()) {
+                value = value + " #" + copy;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                value = '"' + value.replace("\"", "\"\"") + '"';
+            }
+            out.write(value);
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Agrega {@code invoices} facturas al azar (semilla fija) sobre los tracks importados, con
+     * {@link InvoiceBulkIngestor}.
+     * @return líneas insertadas
+     */
+    static long generateInvoices(int invoices, long seed) {
+        try {
+            return InvoiceBulkIngestor.ingest(randomInvoices(invoices, seed)).lines();
+        } catch (SQLException e) {
+            throw new RuntimeException("No se pudieron generar las facturas", e);
+        }
+    }
+
+    /**
+     * {@code invoices} facturas nuevas al azar (semilla fija): de 1 a 10 líneas de 1 a 3 unidades al precio
+     * del track, fechas en 2020-2023, uno de 8 clientes (uno por país; se crean la primera vez, con IDs de
+     * SEQ_CUSTOMER_ID) y TOTAL igual a la suma de las líneas. Las facturas se arman a medida que se consumen.
+     */
+    static Stream<Invoice> randomInvoices(int invoices, long seed) throws SQLException {
+        String[] countries = {"Argentina", "Brazil", "Canada", "France", "Germany", "India", "Portugal", "USA"};
+        Customer[] customers = new Customer[countries.length];
+        List<Track> tracks = new ArrayList<>();
+        try (Connection conn = DataSourceProvider.getDataSource().getConnection();
+             Statement st = conn.createStatement();
+             PreparedStatement find = conn.prepareStatement("SELECT CUSTOMER_ID FROM CUSTOMERS WHERE EMAIL = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO CUSTOMERS (CUSTOMER_ID, FIRST_NAME, LAST_NAME, EMAIL, COUNTRY) VALUES (?, 'Cliente', ?, ?, ?)")) {
+            // IDs de SEQ_CUSTOMER_ID, como los clientes de generateOrgChart y los de JPA: no se pisan filas
+            SequenceBlockAllocator customerIds = new SequenceBlockAllocator(conn, "SEQ_CUSTOMER_ID");
+            for (int c = 0; c < countries.length; c++) {
+                String email = "cliente" + (c + 1) + "@example.com";
+                customers[c] = new Customer();
+                customers[c].setId(customerId(find, email));
+                customers[c].setCountry(countries[c]);
+                if (customers[c].getId() == null) {
+                    customers[c].setId(customerIds.next());
+                    insert.setLong(1, customers[c].getId());
+                    insert.setString(2, countries[c]);
+                    insert.setString(3, email);
+                    insert.setString(4, countries[c]);
+                    insert.executeUpdate();
+                }
+            }
+            try (ResultSet rs = st.executeQuery("SELECT TRACK_ID, COALESCE(UNIT_PRICE, 0) FROM TRACKS")) {
+                while (rs.next()) {
+                    Track track = new Track();
+                    track.setId(rs.getLong(1));
+                    track.setUnitPrice(rs.getBigDecimal(2));
+                    tracks.add(track);
+                }
+            }
+        }
+        Random random = new Random(seed);
+        return Stream.generate(() -> {
+            Customer customer = customers[random.nextInt(customers.length)];
+            Invoice invoice = new Invoice();
+            invoice.setCustomer(customer);
+            invoice.setInvoiceDate(LocalDate.of(2020 + random.nextInt(4), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            invoice.setBillingCountry(customer.getCountry());
+            List<InvoiceItem> items = new ArrayList<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (int n = 1 + random.nextInt(10); n > 0; n--) {
+                InvoiceItem item = new InvoiceItem();
+                item.setTrack(tracks.get(random.nextInt(tracks.size())));
+                item.setUnitPrice(item.getTrack().getUnitPrice());
+                item.setQuantity(1 + random.nextInt(3));
+                total = total.add(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+                items.add(item);
+            }
+            invoice.setItems(items);
+            invoice.setTotal(total);
+            return invoice;
+        }).limit(invoices);
+    }
+
+    /** ID del cliente con ese email, o null si no existe. */
+    private static Long customerId(PreparedStatement find, String email) throws SQLException {
+        find.setString(1, email);
+        try (ResultSet rs = find.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : null;
+        }
+    }
+
+    /**
+     * Organigrama al azar (semilla fija): {@code employees} empleados, cada uno a cargo de uno anterior
+     * elegido al azar (el primero sin jefe; ~ln(n) niveles), y {@code customersPerEmployee} clientes por
+     * empleado. IDs de las secuencias; EMPLOYEE_HIERARCHY se reconstruye al final.
+     * @return IDs de los empleados, en orden de alta
+     */
+    static long[] generateOrgChart(int employees, int customersPerEmployee, long seed) {
+        Random random = new Random(seed);
+        long[] ids = new long[employees];
+        try (Connection conn = DataSourceProvider.getDataSource().getConnection();
+             PreparedStatement employee = conn.prepareStatement(
+                     "INSERT INTO EMPLOYEES (EMPLOYEE_ID, LAST_NAME, FIRST_NAME, REPORTS_TO) VALUES (?, ?, 'Empleado', ?)");
+             PreparedStatement customer = conn.prepareStatement(
+                     "INSERT INTO CUSTOMERS (CUSTOMER_ID, LAST_NAME, FIRST_NAME, SUPPORT_REP_ID) VALUES (?, ?, 'Cliente', ?)")) {
+            SequenceBlockAllocator employeeIds = new SequenceBlockAllocator(conn, "SEQ_EMPLOYEE_ID");
+            SequenceBlockAllocator customerIds = new SequenceBlockAllocator(conn, "SEQ_CUSTOMER_ID");
+            for (int e = 0; e < employees; e++) {
+                ids[e] = employeeIds.next();
+                employee.setLong(1, ids[e]);
+                employee.setString(2, "E" + e);
+                employee.setObject(3, e == 0 ? null : ids[random.nextInt(e)], Types.INTEGER);
+                employee.executeUpdate();
+                for (int c = 0; c < customersPerEmployee; c++) {
+                    customer.setLong(1, customerIds.next());
+                    customer.setString(2, "C" + e + "-" + c);
+                    customer.setLong(3, ids[e]);
+                    customer.addBatch();
+                }
+                customer.executeBatch();
+            }
+            EmployeeClosure.rebuild(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("No se pudo generar el organigrama", e);
+        }
+        return ids;
+    }
+
+    /** Silencia System.out (los loaders informan cada lote) para no medir la consola. */
+    static void mute() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    static void unmute() {
+        System.setOut(STDOUT);
+    }
+}
@@ -0,0 +1,68 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.infra.CsvTokenizer;
+import com.recup.backend.infra.PlaylistCsvRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parseo de filas de playlists.csv (en memoria, sin base): tokenizar + validar sobre los slices
+ * contra crear el {@link PlaylistCsvRow} con sus Strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvParsingBenchmark {
+
+    private byte[] sample;
+
+    @Setup
+    public void load() throws IOException {
+        try (InputStream in = CsvParsingBenchmark.class.getClassLoader().getResourceAsStream(BenchmarkDatabase.SAMPLE)) {
+            if (in == null) {
+                throw new IOException("No se encontró " + BenchmarkDatabase.SAMPLE);
+            }
+            sample = in.readAllBytes();
+        }
+    }
+
+    /** Registros completos, validados sin crear Strings (camino del loader JDBC). */
+    @Benchmark
+    public int tokenizeAndValidate() throws IOException {
+        int complete = 0;
+        try (CsvTokenizer csv = CsvTokenizer.of(sample)) {
+            csv.nextRecord(); // encabezado
+            while (csv.nextRecord()) {
+                if (PlaylistCsvRow.isComplete(csv)) complete++;
+            }
+        }
+        return complete;
+    }
+
+    /** Registros convertidos a {@link PlaylistCsvRow} (camino de los loaders JPA). */
+    @Benchmark
+    public void parseRows(Blackhole bh) throws IOException {
+        try (CsvTokenizer csv = CsvTokenizer.of(sample)) {
+            csv.nextRecord();
+            while (csv.nextRecord()) {
+                bh.consume(PlaylistCsvRow.from(csv));
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.domain.Album;
+import com.recup.backend.domain.Artist;
+import com.recup.backend.domain.Genre;
+import com.recup.backend.domain.MediaType;
+import com.recup.backend.domain.Track;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de usar entidades como clave de un cache de importación (HashMap track → ID de la base): llenar
+ * el mapa con todos los tracks y volver a buscar cada uno con otra instancia de la misma fila (lo que
+ * devuelve un EntityManager distinto).
+ *
+ * - {@code legacyData}: copias de las entidades con el {@code @Data} de Lombok que tenían antes; hashCode
+ *   y equals recorren todos los campos, incluyendo álbum → artista, género y tipo de medio.
+ * - {@code identity}: las entidades actuales, con igualdad por ID.
+ *
+ * El volumen reproduce el sample ({@code scale} = 1: 2525 tracks, 277 álbumes) o sus copias escaladas.
+ * Las colecciones inversas quedan en null como en la importación: con {@code @Data} y una colección
+ * inversa cargada (álbum → tracks → álbum) hashCode no termina (StackOverflowError).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class EntityHashingBenchmark {
+
+    private static final int TRACKS = 2525;
+    private static final int ALBUMS = 277;
+    private static final int ARTISTS = 204;
+    private static final int GENRES = 25;
+    private static final int MEDIA_TYPES = 5;
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private LegacyTrack[] legacy;
+    private LegacyTrack[] legacyCopies;
+    private Track[] tracks;
+    private Track[] trackCopies;
+
+    @Setup(Level.Trial)
+    public void buildCatalog() {
+        int n = TRACKS * scale;
+        legacy = legacyCatalog(n, new Random(42));
+        legacyCopies = legacyCatalog(n, new Random(42));
+        tracks = catalog(n, new Random(42));
+        trackCopies = catalog(n, new Random(42));
+    }
+
+    @Benchmark
+    public void legacyData(Blackhole bh) {
+        Map<LegacyTrack, Long> cache = new HashMap<>(legacy.length * 2);
+        for (LegacyTrack t : legacy) {
+            cache.put(t, t.getId());
+        }
+        for (LegacyTrack t : legacyCopies) {
+            bh.consume(cache.get(t));
+        }
+    }
+
+    @Benchmark
+    public void identity(Blackhole bh) {
+        Map<Track, Long> cache = new HashMap<>(tracks.length * 2);
+        for (Track t : tracks) {
+            cache.put(t, t.getId());
+        }
+        for (Track t : trackCopies) {
+            bh.consume(cache.get(t));
+        }
+    }
+
+    // ───────────────────────── Catálogos (misma semilla = mismos valores) ─────────────────────────
+
+    private static Track[] catalog(int n, Random random) {
+        MediaType[] mediaTypes = new MediaType[MEDIA_TYPES];
+        for (int i = 0; i < MEDIA_TYPES; i++) {
+            mediaTypes[i] = new MediaType((long) i + 1, "Media type " + i, null);
+        }
+        Genre[] genres = new Genre[GENRES];
+        for (int i = 0; i < GENRES; i++) {
+            genres[i] = new Genre((long) i + 1, "Genre " + i, null);
+        }
+        Artist[] artists = new Artist[ARTISTS];
+        for (int i = 0; i < ARTISTS; i++) {
+            artists[i] = new Artist((long) i + 1, "Artist name " + i, null);
+        }
+        Album[] albums = new Album[ALBUMS];
+        for (int i = 0; i < ALBUMS; i++) {
+            albums[i] = new Album((long) i + 1, "Album title number " + i, artists[random.nextInt(ARTISTS)], null);
+        }
+        Track[] result = new Track[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = new Track((long) i + 1, "Track name " + i, albums[random.nextInt(ALBUMS)],
+                    mediaTypes[random.nextInt(MEDIA_TYPES)], genres[random.nextInt(GENRES)], "Composer " + random.nextInt(500),
+                    180_000 + random.nextInt(240_000), 5_000_000 + random.nextInt(5_000_000), new BigDecimal("0.99"), null);
+        }
+        return result;
+    }
+
+    private static LegacyTrack[] legacyCatalog(int n, Random random) {
+        LegacyMediaType[] mediaTypes = new LegacyMediaType[MEDIA_TYPES];
+        for (int i = 0; i < MEDIA_TYPES; i++) {
+            mediaTypes[i] = new LegacyMediaType((long) i + 1, "Media type " + i, null);
+        }
+        LegacyGenre[] genres = new LegacyGenre[GENRES];
+        for (int i = 0; i < GENRES; i++) {
+            genres[i] = new LegacyGenre((long) i + 1, "Genre " + i, null);
+        }
+        LegacyArtist[] artists = new LegacyArtist[ARTISTS];
+        for (int i = 0; i < ARTISTS; i++) {
+            artists[i] = new LegacyArtist((long) i + 1, "Artist name " + i, null);
+        }
+        LegacyAlbum[] albums = new LegacyAlbum[ALBUMS];
+        for (int i = 0; i < ALBUMS; i++) {
+            albums[i] = new LegacyAlbum((long) i + 1, "Album title number " + i, artists[random.nextInt(ARTISTS)], null);
+        }
+        LegacyTrack[] result = new LegacyTrack[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = new LegacyTrack((long) i + 1, "Track name " + i, albums[random.nextInt(ALBUMS)],
+                    mediaTypes[random.nextInt(MEDIA_TYPES)], genres[random.nextInt(GENRES)], "Composer " + random.nextInt(500),
+                    180_000 + random.nextInt(240_000), 5_000_000 + random.nextInt(5_000_000), new BigDecimal("0.99"), null);
+        }
+        return result;
+    }
+
+    // ───────────────────────── Entidades como estaban (Lombok @Data) ─────────────────────────
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class LegacyTrack {
+        private Long id;
+        private String name;
+        private LegacyAlbum album;
+        private LegacyMediaType mediaType;
+        private LegacyGenre genre;
+        private String composer;
+        private Integer milliseconds;
+        private Integer bytes;
+        private BigDecimal unitPrice;
+        private List<Object> playlistTracks;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class LegacyAlbum {
+        private Long id;
+        private String title;
+        private LegacyArtist artist;
+        private List<LegacyTrack> tracks;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class LegacyArtist {
+        private Long id;
+        private String name;
+        private List<LegacyAlbum> albums;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class LegacyGenre {
+        private Long id;
+        private String name;
+        private List<LegacyTrack> tracks;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class LegacyMediaType {
+        private Long id;
+        private String name;
+        private List<LegacyTrack> tracks;
+    }
+}
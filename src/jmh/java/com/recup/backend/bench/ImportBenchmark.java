@@ -0,0 +1,61 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.infra.ImportMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación completa de playlists.csv (1x, 10x y 100x) con cada motor, sobre una base vacía en
+ * cada iteración. Incluye el resumen y los reportes finales, igual que una corrida de App.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-Dhibernate.show_sql=false"})
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    @Param({"SERIAL", "PARALLEL", "JDBC", "STAGING"})
+    public ImportMode mode;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        source = BenchmarkDatabase.scaledSample(scale);
+        BenchmarkDatabase.mute();
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyDatabase() {
+        BenchmarkDatabase.reset();
+    }
+
+    @Benchmark
+    public void importPlaylists() {
+        BenchmarkDatabase.importFile(mode, source);
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOutput() {
+        BenchmarkDatabase.unmute();
+    }
+}
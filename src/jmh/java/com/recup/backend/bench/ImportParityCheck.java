@@ -0,0 +1,133 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.infra.DataSourceProvider;
+import com.recup.backend.infra.ImportMode;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara el contenido que deja cada modo de importación contra el modo serial (JPA), tabla por tabla y
+ * por claves naturales (los IDs pueden diferir entre modos): precios, duraciones, relaciones, agregados
+ * e índice de búsqueda. Termina con código 1 si algún modo difiere.
+ *
+ * <pre>mvn -Pbenchmarks compile exec:exec@import-parity [-Dparity.args=ruta/al.csv]</pre>
+ */
+public final class ImportParityCheck {
+
+    /** Filas distintas que se muestran por tabla. */
+    private static final int MAX_SHOWN = 5;
+
+    private static final Map<String, String> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put("ARTISTS", "SELECT NAME FROM ARTISTS ORDER BY NAME");
+        TABLES.put("GENRES", "SELECT NAME FROM GENRES ORDER BY NAME");
+        TABLES.put("MEDIA_TYPES", "SELECT NAME FROM MEDIA_TYPES ORDER BY NAME");
+        TABLES.put("PLAYLISTS", "SELECT NAME FROM PLAYLISTS ORDER BY NAME");
+        TABLES.put("ALBUMS", "SELECT al.TITLE, ar.NAME FROM ALBUMS al JOIN ARTISTS ar ON ar.ARTIST_ID = al.ARTIST_ID "
+                + "ORDER BY 1, 2");
+        TABLES.put("TRACKS", "SELECT t.NAME, al.TITLE, g.NAME, m.NAME, t.COMPOSER, t.MILLISECONDS, t.BYTES, "
+                + "t.UNIT_PRICE FROM TRACKS t LEFT JOIN ALBUMS al ON al.ALBUM_ID = t.ALBUM_ID "
+                + "LEFT JOIN GENRES g ON g.GENRE_ID = t.GENRE_ID JOIN MEDIA_TYPES m ON m.MEDIA_TYPE_ID = t.MEDIA_TYPE_ID "
+                + "ORDER BY 1, 2");
+        TABLES.put("PLAYLIST_TRACK", "SELECT p.NAME, t.NAME, al.TITLE FROM PLAYLIST_TRACK pt "
+                + "JOIN PLAYLISTS p ON p.PLAYLIST_ID = pt.PLAYLIST_ID JOIN TRACKS t ON t.TRACK_ID = pt.TRACK_ID "
+                + "LEFT JOIN ALBUMS al ON al.ALBUM_ID = t.ALBUM_ID ORDER BY 1, 2, 3");
+        TABLES.put("PLAYLIST_STATS", "SELECT p.NAME, s.TRACK_COUNT, s.TOTAL_PRICE, s.TOTAL_MILLISECONDS, "
+                + "s.COST_PER_MINUTE FROM PLAYLIST_STATS s JOIN PLAYLISTS p ON p.PLAYLIST_ID = s.PLAYLIST_ID ORDER BY 1");
+        TABLES.put("PLAYLIST_GENRE_STATS", "SELECT p.NAME, g.NAME, s.TRACK_COUNT FROM PLAYLIST_GENRE_STATS s "
+                + "JOIN PLAYLISTS p ON p.PLAYLIST_ID = s.PLAYLIST_ID JOIN GENRES g ON g.GENRE_ID = s.GENRE_ID "
+                + "ORDER BY 1, 2");
+        TABLES.put("TRACK_SEARCH", "SELECT s.TERM, t.NAME, al.TITLE, s.WEIGHT FROM TRACK_SEARCH s "
+                + "JOIN TRACKS t ON t.TRACK_ID = s.TRACK_ID LEFT JOIN ALBUMS al ON al.ALBUM_ID = t.ALBUM_ID "
+                + "ORDER BY 1, 2, 3");
+    }
+
+    private ImportParityCheck() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        String source = args.length > 0 ? args[0] : BenchmarkDatabase.SAMPLE;
+        Map<String, List<String>> expected = importAndRead(ImportMode.SERIAL, source);
+        System.out.println("SERIAL: " + sizes(expected));
+
+        boolean ok = true;
+        for (ImportMode mode : ImportMode.values()) {
+            if (mode == ImportMode.SERIAL) {
+                continue;
+            }
+            Map<String, List<String>> actual = importAndRead(mode, source);
+            boolean same = true;
+            for (String table : TABLES.keySet()) {
+                same &= compare(mode, table, expected.get(table), actual.get(table));
+            }
+            System.out.println(mode + ": " + (same ? "igual a SERIAL" : "DISTINTO de SERIAL"));
+            ok &= same;
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static Map<String, List<String>> importAndRead(ImportMode mode, String source) throws SQLException {
+        BenchmarkDatabase.mute();
+        try {
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.importFile(mode, source);
+        } finally {
+            BenchmarkDatabase.unmute();
+        }
+        Map<String, List<String>> content = new LinkedHashMap<>();
+        try (Connection conn = DataSourceProvider.getDataSource().getConnection();
+             Statement st = conn.createStatement()) {
+            for (Map.Entry<String, String> table : TABLES.entrySet()) {
+                content.put(table.getKey(), rows(st, table.getValue()));
+            }
+        }
+        return content;
+    }
+
+    private static List<String> rows(Statement st, String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int c = 1; c <= columns; c++) {
+                    row.append(c > 1 ? " | " : "").append(rs.getString(c));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    private static boolean compare(ImportMode mode, String table, List<String> expected, List<String> actual) {
+        if (expected.equals(actual)) {
+            return true;
+        }
+        System.out.printf("  %s %s: %d filas contra %d de SERIAL%n", mode, table, actual.size(), expected.size());
+        int shown = 0;
+        for (int i = 0; i < Math.max(expected.size(), actual.size()) && shown < MAX_SHOWN; i++) {
+            String e = i < expected.size() ? expected.get(i) : null;
+            String a = i < actual.size() ? actual.get(i) : null;
+            if (e == null || !e.equals(a)) {
+                System.out.println("    SERIAL: " + e);
+                System.out.println("    " + mode + ": " + a);
+                shown++;
+            }
+        }
+        return false;
+    }
+
+    private static String sizes(Map<String, List<String>> content) {
+        StringBuilder out = new StringBuilder();
+        content.forEach((table, rows) -> out.append(out.length() > 0 ? ", " : "").append(table).append('=').append(rows.size()));
+        return out.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.domain.Customer;
+import com.recup.backend.domain.Invoice;
+import com.recup.backend.domain.InvoiceItem;
+import com.recup.backend.domain.Track;
+import com.recup.backend.infra.ImportMode;
+import com.recup.backend.infra.InvoiceBulkIngestor;
+import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.repo.InvoiceRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alta de {@code invoices} facturas al azar (de 1 a 10 líneas cada una) sobre los tracks de playlists.csv:
+ * con {@link InvoiceBulkIngestor} y con {@link InvoiceRepository#save} (persist en cascada, una transacción
+ * cada {@link InvoiceBulkIngestor#DEFAULT_BATCH_SIZE} facturas), como referencia.
+ *
+ * Las facturas se arman en cada iteración: los dos caminos les asignan ID.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dhibernate.show_sql=false"})
+@State(Scope.Benchmark)
+public class InvoiceIngestBenchmark {
+
+    @Param({"20000"})
+    public int invoices;
+
+    private List<Invoice> batch;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void importTracks() {
+        BenchmarkDatabase.mute();
+        try {
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.importFile(ImportMode.JDBC, BenchmarkDatabase.SAMPLE);
+        } finally {
+            BenchmarkDatabase.unmute();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void buildInvoices() throws SQLException {
+        batch = BenchmarkDatabase.randomInvoices(invoices, ++seed).toList();
+    }
+
+    @Benchmark
+    public long bulk() throws SQLException {
+        return InvoiceBulkIngestor.ingest(batch.stream()).accepted();
+    }
+
+    @Benchmark
+    public long jpa() {
+        EntityManager em = LocalEntityManagerProvider.getEntityManager();
+        try {
+            InvoiceRepository repository = new InvoiceRepository(em);
+            em.getTransaction().begin();
+            long saved = 0;
+            for (Invoice invoice : batch) {
+                invoice.setCustomer(em.getReference(Customer.class, invoice.getCustomer().getId()));
+                for (InvoiceItem item : invoice.getItems()) {
+                    item.setTrack(em.getReference(Track.class, item.getTrack().getId()));
+                    item.setInvoice(invoice);
+                }
+                repository.save(invoice);
+                if (++saved % InvoiceBulkIngestor.DEFAULT_BATCH_SIZE == 0) {
+                    em.getTransaction().commit();
+                    em.clear();
+                    em.getTransaction().begin();
+                }
+            }
+            em.getTransaction().commit();
+            return saved;
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        LocalEntityManagerProvider.close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.domain.Customer;
+import com.recup.backend.domain.Employee;
+import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.repo.CustomerRepository;
+import com.recup.backend.repo.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas sobre el organigrama (EMPLOYEES.REPORTS_TO) con {@code employees} empleados al azar y 5
+ * clientes por empleado:
+ * - clientes atendidos por el subárbol de un jefe: {@link CustomerRepository#findBySupportRepSubtree}
+ *   (join con EMPLOYEE_HIERARCHY) contra leer los clientes con su empleado y subir por {@code reportsTo}
+ *   de a una entidad, como referencia;
+ * - mover un empleado (con su subárbol) de un jefe a otro y volver, con {@link EmployeeRepository#save}.
+ *
+ * Los jefes consultados rotan entre los reportes directos del primer empleado; cada llamada empieza con el
+ * contexto de persistencia vacío.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dhibernate.show_sql=false"})
+@State(Scope.Thread)
+public class OrgChartBenchmark {
+
+    @Param({"1000", "5000"})
+    public int employees;
+
+    private EntityManager em;
+    private EmployeeRepository employeeRepo;
+    private CustomerRepository customerRepo;
+    private List<Long> managers;
+    private int next;
+    private Long moved;
+    private Long[] parents;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        BenchmarkDatabase.mute();
+        try {
+            BenchmarkDatabase.reset();
+        } finally {
+            BenchmarkDatabase.unmute();
+        }
+        long[] ids = BenchmarkDatabase.generateOrgChart(employees, 5, 42);
+        em = LocalEntityManagerProvider.getEntityManager();
+        employeeRepo = new EmployeeRepository(em);
+        customerRepo = new CustomerRepository(em);
+        managers = employeeRepo.findSubordinates(ids[0], 1).stream().map(Employee::getId).toList();
+        // Se mueve un reporte directo del primer jefe (con su subárbol) entre éste y el segundo jefe
+        moved = employeeRepo.findSubordinates(managers.get(0)).get(0).getId();
+        parents = new Long[]{managers.get(0), managers.get(1)};
+        em.clear();
+    }
+
+    @Benchmark
+    public int subtreeCustomers() {
+        int count = customerRepo.findBySupportRepSubtree(nextManager()).size();
+        em.clear();
+        return count;
+    }
+
+    @Benchmark
+    public int subtreeCustomersWalk() {
+        Long manager = nextManager();
+        int count = 0;
+        for (Customer customer : customerRepo.findAll(CustomerRepository.WITH_SUPPORT_REP)) {
+            for (Employee e = customer.getSupportRep(); e != null; e = e.getReportsTo()) {
+                if (e.getId().equals(manager)) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        em.clear();
+        return count;
+    }
+
+    @Benchmark
+    public long reparent() {
+        em.getTransaction().begin();
+        Employee employee = em.find(Employee.class, moved);
+        Long to = parents[0].equals(employee.getReportsTo().getId()) ? parents[1] : parents[0];
+        employee.setReportsTo(em.getReference(Employee.class, to));
+        employeeRepo.save(employee);
+        em.getTransaction().commit();
+        em.clear();
+        return to;
+    }
+
+    private Long nextManager() {
+        return managers.get(next++ % managers.size());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+        LocalEntityManagerProvider.close();
+    }
+}
@@ -0,0 +1,139 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.domain.PlaylistStats;
+import com.recup.backend.domain.Track;
+import com.recup.backend.infra.ImportMode;
+import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.repo.CatalogReports;
+import com.recup.backend.repo.PlaylistRepository;
+import com.recup.backend.repo.PlaylistStatsRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Los dos reportes de mostrarResultados: top 5 de playlists por costo/minuto y cantidad de playlists
+ * con un único género (Jazz). Cada uno se mide desde los agregados (PLAYLIST_STATS /
+ * PLAYLIST_GENRE_STATS) y con la consulta original sobre PLAYLIST_TRACK, como referencia.
+ *
+ * Los *Dto usan {@link CatalogReports} (records en una StatelessSession) en lugar de entidades en el
+ * EntityManager; tracksPage / tracksPageDto comparan lo mismo con una página de 1000 tracks. Con
+ * {@code -prof gc} se ve la diferencia en bytes asignados por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dhibernate.show_sql=false"})
+@State(Scope.Thread)
+public class ReportBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private EntityManager em;
+    private PlaylistStatsRepository statsRepo;
+    private PlaylistRepository playlistRepo;
+    private CatalogReports reports;
+    private Long jazzGenreId;
+
+    @Setup(Level.Trial)
+    public void importSample() throws IOException {
+        String source = BenchmarkDatabase.scaledSample(scale);
+        BenchmarkDatabase.mute();
+        try {
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.importFile(ImportMode.JDBC, source);
+        } finally {
+            BenchmarkDatabase.unmute();
+        }
+        em = LocalEntityManagerProvider.getEntityManager();
+        statsRepo = new PlaylistStatsRepository(em);
+        playlistRepo = new PlaylistRepository(em);
+        reports = new CatalogReports(LocalEntityManagerProvider.getEntityManagerFactory());
+        jazzGenreId = em.createQuery("SELECT g.id FROM Genre g WHERE LOWER(g.name) = 'jazz'", Long.class)
+                .getSingleResult();
+    }
+
+    @Benchmark
+    public List<PlaylistStats> topCostPerMinute() {
+        List<PlaylistStats> top = statsRepo.findTopByCostPerMinute(5);
+        em.clear(); // cada llamada vuelve a leer las playlists, como en un EntityManager nuevo
+        return top;
+    }
+
+    @Benchmark
+    public List<CatalogReports.PlaylistCost> topCostPerMinuteDto() {
+        return reports.topByCostPerMinute(5);
+    }
+
+    @Benchmark
+    public List<Object[]> topCostPerMinuteJoin() {
+        return em.createQuery(
+                        "SELECT p.name, SUM(t.unitPrice) / (SUM(t.milliseconds) / 60000.0) as costoMinuto "
+                                + "FROM Playlist p JOIN p.playlistTracks pt JOIN pt.track t "
+                                + "GROUP BY p.id, p.name HAVING SUM(t.milliseconds) > 0 ORDER BY costoMinuto DESC",
+                        Object[].class)
+                .setMaxResults(5)
+                .getResultList();
+    }
+
+    @Benchmark
+    public long onlyGenreCount() {
+        return playlistRepo.countWithOnlyGenre(jazzGenreId);
+    }
+
+    @Benchmark
+    public long onlyGenreCountStateless() {
+        return reports.countPlaylistsWithOnlyGenre(jazzGenreId);
+    }
+
+    @Benchmark
+    public Long onlyGenreCountNotExists() {
+        return em.createQuery(
+                        "SELECT COUNT(DISTINCT p.id) FROM Playlist p "
+                                + "WHERE EXISTS (SELECT 1 FROM PlaylistTrack pt1 WHERE pt1.playlist = p) "
+                                + "AND NOT EXISTS (SELECT 1 FROM PlaylistTrack pt2 JOIN pt2.track t2 "
+                                + "WHERE pt2.playlist = p AND (t2.genre IS NULL OR t2.genre.id <> :genreId))",
+                        Long.class)
+                .setParameter("genreId", jazzGenreId)
+                .getSingleResult();
+    }
+
+    @Benchmark
+    public List<Track> tracksPage() {
+        List<Track> page = em.createQuery(
+                        "SELECT t FROM Track t LEFT JOIN FETCH t.album al LEFT JOIN FETCH al.artist "
+                                + "LEFT JOIN FETCH t.genre ORDER BY t.id", Track.class)
+                .setMaxResults(1000)
+                .getResultList();
+        em.clear();
+        return page;
+    }
+
+    @Benchmark
+    public List<CatalogReports.TrackRow> tracksPageDto() {
+        return reports.findTracks(null, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+        LocalEntityManagerProvider.close();
+    }
+}
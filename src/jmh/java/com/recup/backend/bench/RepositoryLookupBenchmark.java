@@ -0,0 +1,107 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.domain.Track;
+import com.recup.backend.infra.ImportMode;
+import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.repo.PlaylistTrackRepository;
+import com.recup.backend.repo.TrackRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsquedas por clave que usa la importación JPA: track por (nombre, álbum) y existencia de la
+ * relación (playlist, track). Se consulta una muestra fija de {@value #KEYS} claves tomadas de la
+ * base ya importada; el contexto de persistencia se limpia en cada iteración.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dhibernate.show_sql=false"})
+@State(Scope.Thread)
+public class RepositoryLookupBenchmark {
+
+    private static final int KEYS = 1024; // potencia de 2: el índice se recorre con una máscara
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private EntityManager em;
+    private TrackRepository trackRepo;
+    private PlaylistTrackRepository playlistTrackRepo;
+
+    private final String[] trackNames = new String[KEYS];
+    private final Long[] albumIds = new Long[KEYS];
+    private final Long[] trackIds = new Long[KEYS];
+    private final Long[] playlistIds = new Long[KEYS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void importSample() throws IOException {
+        String source = BenchmarkDatabase.scaledSample(scale);
+        BenchmarkDatabase.mute();
+        try {
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.importFile(ImportMode.JDBC, source);
+        } finally {
+            BenchmarkDatabase.unmute();
+        }
+        em = LocalEntityManagerProvider.getEntityManager();
+        trackRepo = new TrackRepository(em);
+        playlistTrackRepo = new PlaylistTrackRepository(em);
+
+        List<Object[]> tracks = em.createQuery(
+                "SELECT t.id, t.name, t.album.id FROM Track t ORDER BY t.id", Object[].class).getResultList();
+        List<Long> playlists = em.createQuery("SELECT p.id FROM Playlist p ORDER BY p.id", Long.class).getResultList();
+        // Muestra repartida sobre todos los tracks; cada uno se cruza con una playlist distinta,
+        // así hay relaciones existentes y ausentes
+        int step = Math.max(1, tracks.size() / KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            Object[] track = tracks.get((i * step) % tracks.size());
+            trackIds[i] = (Long) track[0];
+            trackNames[i] = (String) track[1];
+            albumIds[i] = (Long) track[2];
+            playlistIds[i] = playlists.get(i % playlists.size());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearContext() {
+        em.clear();
+    }
+
+    @Benchmark
+    public Optional<Track> findByNameAndAlbum() {
+        int i = next++ & (KEYS - 1);
+        return trackRepo.findByNameAndAlbum(trackNames[i], albumIds[i]);
+    }
+
+    @Benchmark
+    public boolean existsByPlaylistAndTrack() {
+        int i = next++ & (KEYS - 1);
+        return playlistTrackRepo.existsByPlaylistAndTrack(playlistIds[i], trackIds[i]);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        em.close();
+        LocalEntityManagerProvider.close();
+    }
+}
@@ -0,0 +1,110 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.infra.DataSourceProvider;
+import com.recup.backend.infra.ImportMode;
+import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.infra.SalesAnalytics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Los cinco reportes de ventas (facturación por género, artista, país y mes; top 10 de tracks) sobre
+ * facturas generadas al azar: con {@link SalesAnalytics} (columnas en memoria, fork-join) y con el
+ * GROUP BY equivalente sobre INVOICE_ITEMS ⋈ INVOICES ⋈ TRACKS ⋈ ALBUMS, como referencia.
+ *
+ * {@code invoices} = 2.000 o 20.000 facturas (~11.000 / ~110.000 líneas). Las consultas SQL alternan el
+ * valor de un parámetro neutro: H2 reutiliza el resultado de una consulta repetida si las tablas no cambiaron.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dhibernate.show_sql=false"})
+@State(Scope.Thread)
+public class SalesAnalyticsBenchmark {
+
+    private static final String FROM = " FROM INVOICE_ITEMS ii JOIN INVOICES i ON i.INVOICE_ID = ii.INVOICE_ID "
+            + "JOIN TRACKS t ON t.TRACK_ID = ii.TRACK_ID LEFT JOIN ALBUMS al ON al.ALBUM_ID = t.ALBUM_ID "
+            + "WHERE ii.INVOICE_LINE_ID > ? GROUP BY ";
+    private static final String[] GROUPS = {"t.GENRE_ID", "al.ARTIST_ID", "i.BILLING_COUNTRY",
+            "YEAR(i.INVOICE_DATE), MONTH(i.INVOICE_DATE)", "ii.TRACK_ID"};
+
+    @Param({"2000", "20000"})
+    public int invoices;
+
+    private SalesAnalytics analytics;
+    private Connection conn;
+    private PreparedStatement[] reports;
+    private int salt;
+
+    @Setup(Level.Trial)
+    public void generate() throws SQLException {
+        BenchmarkDatabase.mute();
+        try {
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.importFile(ImportMode.JDBC, BenchmarkDatabase.SAMPLE);
+        } finally {
+            BenchmarkDatabase.unmute();
+        }
+        BenchmarkDatabase.generateInvoices(invoices, 42);
+        analytics = new SalesAnalytics();
+        analytics.refresh();
+
+        conn = DataSourceProvider.getDataSource().getConnection();
+        reports = new PreparedStatement[GROUPS.length];
+        for (int r = 0; r < GROUPS.length; r++) {
+            String select = "SELECT " + GROUPS[r] + ", SUM(ii.UNIT_PRICE * ii.QUANTITY), SUM(ii.QUANTITY), COUNT(*)";
+            String order = r == GROUPS.length - 1 ? " ORDER BY 3 DESC, 2 DESC, 1 LIMIT 10" : "";
+            reports[r] = conn.prepareStatement(select + FROM + GROUPS[r] + order);
+        }
+    }
+
+    @Benchmark
+    public void columnar(Blackhole bh) {
+        bh.consume(analytics.revenueByGenre());
+        bh.consume(analytics.revenueByArtist());
+        bh.consume(analytics.revenueByCountry());
+        bh.consume(analytics.revenueByMonth());
+        bh.consume(analytics.topTracks(10));
+    }
+
+    @Benchmark
+    public void sql(Blackhole bh) throws SQLException {
+        salt = salt == 0 ? -1 : 0; // INVOICE_LINE_ID > 0 o > -1: mismo resultado, sin reutilizar el anterior
+        for (PreparedStatement report : reports) {
+            report.setLong(1, salt);
+            try (ResultSet rs = report.executeQuery()) {
+                while (rs.next()) {
+                    bh.consume(rs.getBigDecimal(2));
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        for (PreparedStatement report : reports) {
+            report.close();
+        }
+        conn.close();
+        LocalEntityManagerProvider.close();
+    }
+}
@@ -0,0 +1,105 @@
+package com.recup.backend.bench;
+
+import com.recup.backend.infra.ImportMode;
+import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.infra.SalesAnalytics;
+import com.recup.backend.repo.SalesReports;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compara los reportes de {@link SalesAnalytics} (columnas en memoria, fork-join) con los de
+ * {@link SalesReports} (GROUP BY en la base) sobre las mismas facturas: grupos, orden (incluidos los
+ * desempates), facturación, unidades y líneas. Termina con código 1 si algún reporte difiere.
+ *
+ * Importa el CSV de ejemplo y agrega facturas al azar en tandas (por defecto 200 y 2.000); después de cada
+ * tanda {@link SalesAnalytics#refresh()} lee solo las líneas nuevas. Con pocas facturas abundan los empates
+ * de facturación entre artistas y tracks.
+ *
+ * <pre>mvn -Pbenchmarks compile exec:exec@sales-parity [-Dsales.args="500 5000"]</pre>
+ */
+public final class SalesParityCheck {
+
+    /** Filas distintas que se muestran por reporte. */
+    private static final int MAX_SHOWN = 5;
+    private static final int TOP_TRACKS = 50;
+    private static final long SEED = 42;
+
+    private SalesParityCheck() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int[] batches = args.length > 0 ? new int[args.length] : new int[]{200, 2000};
+        for (int b = 0; b < args.length; b++) {
+            batches[b] = Integer.parseInt(args[b]);
+        }
+        BenchmarkDatabase.mute();
+        try {
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.importFile(ImportMode.JDBC, BenchmarkDatabase.SAMPLE);
+        } finally {
+            BenchmarkDatabase.unmute();
+        }
+        SalesAnalytics analytics = new SalesAnalytics();
+        SalesReports reports = new SalesReports(LocalEntityManagerProvider.getEntityManagerFactory());
+
+        boolean ok = true;
+        int invoices = 0;
+        for (int b = 0; b < batches.length; b++) {
+            BenchmarkDatabase.generateInvoices(batches[b], SEED + b);
+            invoices += batches[b];
+            analytics.refresh();
+            System.out.printf("%d facturas, %d líneas%n", invoices, analytics.size());
+
+            boolean same = compare("revenueByGenre", rows(analytics.revenueByGenre(), SalesParityCheck::row),
+                    rows(reports.revenueByGenre(), t -> row(t.id(), t.revenue(), t.quantity(), t.lines())));
+            same &= compare("revenueByArtist", rows(analytics.revenueByArtist(), SalesParityCheck::row),
+                    rows(reports.revenueByArtist(), t -> row(t.id(), t.revenue(), t.quantity(), t.lines())));
+            same &= compare("revenueByCountry", rows(analytics.revenueByCountry(), SalesParityCheck::row),
+                    rows(reports.revenueByCountry(), t -> row(t.country(), t.revenue(), t.quantity(), t.lines())));
+            same &= compare("revenueByMonth", rows(analytics.revenueByMonth(), SalesParityCheck::row),
+                    rows(reports.revenueByMonth(), t -> row(t.yearMonth(), t.revenue(), t.quantity(), t.lines())));
+            same &= compare("topTracks", rows(analytics.topTracks(TOP_TRACKS), SalesParityCheck::row),
+                    rows(reports.topTracks(TOP_TRACKS), t -> row(t.id(), t.revenue(), t.quantity(), t.lines())));
+            System.out.println("  " + (same ? "SalesAnalytics igual a SalesReports" : "SalesAnalytics DISTINTO de SalesReports"));
+            ok &= same;
+        }
+        LocalEntityManagerProvider.close();
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static <T> List<String> rows(List<T> totals, Function<T, String> row) {
+        return totals.stream().map(row).toList();
+    }
+
+    private static String row(SalesAnalytics.Total<?> total) {
+        return row(total.key(), total.revenue(), total.quantity(), total.lines());
+    }
+
+    // la facturación de la base puede traer otra escala (ej: 1.980 contra 1.98)
+    private static String row(Object key, BigDecimal revenue, Number quantity, Number lines) {
+        String amount = revenue == null ? "0" : revenue.stripTrailingZeros().toPlainString();
+        return key + " | " + amount + " | " + quantity + " | " + lines;
+    }
+
+    private static boolean compare(String report, List<String> columnar, List<String> sql) {
+        if (columnar.equals(sql)) {
+            return true;
+        }
+        System.out.printf("  %s: %d filas contra %d de SalesReports%n", report, columnar.size(), sql.size());
+        int shown = 0;
+        for (int i = 0; i < Math.max(columnar.size(), sql.size()) && shown < MAX_SHOWN; i++) {
+            String s = i < sql.size() ? sql.get(i) : null;
+            String c = i < columnar.size() ? columnar.get(i) : null;
+            if (s == null || !s.equals(c)) {
+                System.out.println("    SalesReports:   " + s);
+                System.out.println("    SalesAnalytics: " + c);
+                shown++;
+            }
+        }
+        return false;
+    }
+}
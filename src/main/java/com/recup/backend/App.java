@@ -1,8 +1,20 @@
 package com.recup.backend;
 
+import com.recup.backend.domain.Track;
+import com.recup.backend.infra.DataSourceProvider;
 import com.recup.backend.infra.DbInitializer;
 import com.recup.backend.infra.LocalEntityManagerProvider;
+import com.recup.backend.infra.CacheStatistics;
 import com.recup.backend.infra.CsvPlaylistLoader;
+import com.recup.backend.infra.ImportChecksums;
+import com.recup.backend.infra.ImportMode;
+import com.recup.backend.infra.JdbcBulkPlaylistLoader;
+import com.recup.backend.infra.JfrRecording;
+import com.recup.backend.infra.MetricsExporter;
+import com.recup.backend.infra.ParallelCsvPlaylistLoader;
+import com.recup.backend.infra.StagingPlaylistLoader;
+import com.recup.backend.infra.StartupTimings;
+import com.recup.backend.repo.TrackRepository;
 import jakarta.persistence.EntityManager;
 
 /**
@@ -19,27 +31,83 @@ public class App {
             System.out.println("╚═══════════════════════════════════════════════════════════╝");
             System.out.println();
 
-            // 1. Inicializar BD (ejecutar DDL via JDBC)
-            DbInitializer.initDatabase();
+            StartupTimings.start();
+            // Métricas por JMX siempre; -Dmetrics.file / -Dmetrics.port las exportan en formato Prometheus
+            MetricsExporter.start();
+            // -Djfr.file=<ruta>.jfr graba con JFR (configuración incluida: jfr/recup.jfc)
+            JfrRecording.start();
+
+            // 1. Inicializar BD (ejecutar DDL via JDBC; con -Ddb.mode=file se omite si el esquema está al día)
+            boolean schemaCreated = DbInitializer.initDatabase();
 
             // 2. Obtener EntityManager (JPA)
             EntityManager em = LocalEntityManagerProvider.getEntityManager();
+            StartupTimings.phase("EntityManagerFactory (Hibernate)");
             System.out.println("✅ EntityManager JPA listo");
             System.out.println();
 
             // 3. Ejecutar importación y mostrar resultados (sin interacción)
-            System.out.println("📂 Iniciando carga desde playlists.csv ...");
-            CsvPlaylistLoader.load(em, "sample-data/playlists.csv");
+            // -Dimport.file=<ruta> permite importar un archivo en disco en lugar del recurso incluido
+            ImportMode mode = ImportMode.fromSystemProperty();
+            String source = System.getProperty("import.file", "sample-data/playlists.csv");
+            boolean current = !schemaCreated && ImportChecksums.isCurrent(em, source);
+            StartupTimings.phase("Datos: verificación");
+            if (current) {
+                // Base persistente que ya tiene este archivo importado (mismo tamaño y fecha)
+                System.out.println("✅ Datos al día: " + source + " ya está importado, se omite la carga");
+                System.out.println();
+                StartupTimings.print();
+                CsvPlaylistLoader.mostrarResultados(em);
+            } else {
+                System.out.println("📂 Iniciando carga desde " + source + " (modo " + mode + ") ...");
+                boolean imported = switch (mode) {
+                    case INCREMENTAL -> CsvPlaylistLoader.loadIncremental(em, source);
+                    case PARALLEL -> ParallelCsvPlaylistLoader.load(em, source);
+                    case JDBC -> JdbcBulkPlaylistLoader.load(em, source);
+                    case STAGING -> StagingPlaylistLoader.load(em, source);
+                    default -> CsvPlaylistLoader.load(em, source);
+                };
+                // El modo incremental ya guarda sus checksums; los demás se registran para el próximo arranque
+                if (imported && mode != ImportMode.INCREMENTAL && DataSourceProvider.isPersistent()) {
+                    ImportChecksums.record(em, source);
+                }
+                StartupTimings.phase("Importación + reportes");
+                StartupTimings.print();
+            }
+
+            // -Dsearch="texto" muestra además la primera página de la búsqueda de tracks
+            String search = System.getProperty("search");
+            if (search != null) {
+                printSearch(em, search);
+            }
 
             // 4. Cerrar recursos y finalizar
             em.close();
+            CacheStatistics.print(LocalEntityManagerProvider.getEntityManagerFactory());
             LocalEntityManagerProvider.close();
+            System.out.println("🔌 Pool de conexiones: " + DataSourceProvider.pool().stats());
+            DataSourceProvider.close();
+            MetricsExporter.close();
+            JfrRecording.close();
             
         } catch (Exception e) {
             System.err.println("❌ Error fatal: " + e.getMessage());
             e.printStackTrace();
+            MetricsExporter.close();
+            JfrRecording.close();
             System.exit(1);
         }
     }
 
+    private static void printSearch(EntityManager em, String text) {
+        TrackRepository.SearchPage page = new TrackRepository(em).search(text, 0, 10);
+        System.out.println("🔎 Búsqueda \"" + text + "\": " + page.total() + " tracks");
+        for (TrackRepository.SearchHit hit : page.hits()) {
+            Track t = hit.track();
+            System.out.printf("   %6.2f  %s - %s - %s%n", hit.score(), t.getName(),
+                    t.getAlbum() != null ? t.getAlbum().getTitle() : "?",
+                    t.getAlbum() != null && t.getAlbum().getArtist() != null ? t.getAlbum().getArtist().getName() : "?");
+        }
+        System.out.println();
+    }
 }
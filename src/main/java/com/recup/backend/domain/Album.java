@@ -2,7 +2,11 @@ package com.recup.backend.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -10,13 +14,21 @@ import java.util.List;
 
 @Entity
 @Table(name = "ALBUMS")
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "album")
+@NamedEntityGraph(name = Album.GRAPH_ARTIST, attributeNodes = @NamedAttributeNode("artist"))
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Album {
+    /** Entity graph: álbum + artista. */
+    public static final String GRAPH_ARTIST = "Album.withArtist";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "album_seq")
-    @SequenceGenerator(name = "album_seq", sequenceName = "SEQ_ALBUM_ID", allocationSize = 1)
+    @SequenceGenerator(name = "album_seq", sequenceName = "SEQ_ALBUM_ID", allocationSize = 50)
     @Column(name = "ALBUM_ID")
     private Long id;
 
@@ -24,10 +36,23 @@ public class Album {
     @Column(name = "TITLE", length = 160, nullable = false)
     private String title;
 
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "ARTIST_ID")
     private Artist artist;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "album")
     private List<Track> tracks;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Album other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
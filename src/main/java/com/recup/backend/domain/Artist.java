@@ -2,7 +2,11 @@ package com.recup.backend.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -10,13 +14,17 @@ import java.util.List;
 
 @Entity
 @Table(name = "ARTISTS")
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "artist")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Artist {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "artist_seq")
-    @SequenceGenerator(name = "artist_seq", sequenceName = "SEQ_ARTIST_ID", allocationSize = 1)
+    @SequenceGenerator(name = "artist_seq", sequenceName = "SEQ_ARTIST_ID", allocationSize = 50)
     @Column(name = "ARTIST_ID")
     private Long id;
 
@@ -24,6 +32,18 @@ public class Artist {
     @Column(name = "NAME", length = 120, nullable = false)
     private String name;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "artist")
     private List<Album> albums;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Artist other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
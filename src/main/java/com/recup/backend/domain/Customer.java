@@ -1,19 +1,27 @@
 package com.recup.backend.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
 @Table(name = "CUSTOMERS")
-@Data
+@NamedEntityGraph(name = Customer.GRAPH_SUPPORT_REP, attributeNodes = @NamedAttributeNode("supportRep"))
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Customer {
+    /** Entity graph: cliente + empleado de soporte. */
+    public static final String GRAPH_SUPPORT_REP = "Customer.withSupportRep";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
-    @SequenceGenerator(name = "customer_seq", sequenceName = "SEQ_CUSTOMER_ID", allocationSize = 1)
+    @SequenceGenerator(name = "customer_seq", sequenceName = "SEQ_CUSTOMER_ID", allocationSize = 50)
     @Column(name = "CUSTOMER_ID")
     private Long id;
 
@@ -50,7 +58,19 @@ public class Customer {
     @Column(name = "EMAIL", length = 60)
     private String email;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "SUPPORT_REP_ID")
     private Employee supportRep;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Customer other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
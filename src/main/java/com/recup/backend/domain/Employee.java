@@ -1,7 +1,9 @@
 package com.recup.backend.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -10,13 +12,19 @@ import java.util.List;
 
 @Entity
 @Table(name = "EMPLOYEES")
-@Data
+@NamedEntityGraph(name = Employee.GRAPH_REPORTS_TO, attributeNodes = @NamedAttributeNode("reportsTo"))
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Employee {
+    /** Entity graph: empleado + jefe directo. */
+    public static final String GRAPH_REPORTS_TO = "Employee.withReportsTo";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
-    @SequenceGenerator(name = "employee_seq", sequenceName = "SEQ_EMPLOYEE_ID", allocationSize = 1)
+    @SequenceGenerator(name = "employee_seq", sequenceName = "SEQ_EMPLOYEE_ID", allocationSize = 50)
     @Column(name = "EMPLOYEE_ID")
     private Long id;
 
@@ -29,7 +37,8 @@ public class Employee {
     @Column(name = "TITLE", length = 30)
     private String title;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "REPORTS_TO")
     private Employee reportsTo;
 
@@ -63,6 +72,18 @@ public class Employee {
     @Column(name = "EMAIL", length = 60)
     private String email;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "supportRep")
     private List<Customer> customers;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Employee other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
@@ -0,0 +1,68 @@
+package com.recup.backend.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Fila de EMPLOYEE_HIERARCHY: {@code ancestor} es jefe (directo o indirecto) de {@code descendant}, a
+ * {@code depth} niveles (0 = el mismo empleado).
+ * La mantiene EmployeeRepository (ver EmployeeClosure); desde JPA es solo lectura.
+ */
+@Entity
+@Table(name = "EMPLOYEE_HIERARCHY")
+@IdClass(EmployeeHierarchy.Key.class)
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeHierarchy {
+    @Id
+    @Column(name = "ANCESTOR_ID")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "DESCENDANT_ID")
+    private Long descendantId;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ANCESTOR_ID", insertable = false, updatable = false)
+    private Employee ancestor;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "DESCENDANT_ID", insertable = false, updatable = false)
+    private Employee descendant;
+
+    @Column(name = "DEPTH", insertable = false, updatable = false)
+    private Integer depth;
+
+    /** Igualdad por clave (ancestro, descendiente); ver {@link EntityIdentity}. */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof EmployeeHierarchy other
+                && Objects.equals(ancestorId, other.getAncestorId()) && Objects.equals(descendantId, other.getDescendantId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hashKey(ancestorId, descendantId);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
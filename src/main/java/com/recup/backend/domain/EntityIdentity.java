@@ -0,0 +1,38 @@
+package com.recup.backend.domain;
+
+import java.util.Objects;
+
+/**
+ * equals/hashCode de las entidades: igualdad por clave primaria, no por contenido.
+ *
+ * - Dos entidades son iguales si son de la misma clase (o un proxy de ella) y tienen el mismo ID no nulo.
+ *   Sin ID (todavía no persistida) solo es igual a sí misma.
+ * - hashCode es el del ID, o la identidad del objeto si aún no tiene. Las secuencias asignan el ID en
+ *   {@code persist()}, así que una entidad nueva debe persistirse antes de meterla en un HashSet/HashMap
+ *   (si no, su hash cambia y ya no se encuentra).
+ *
+ * equals y hashCode solo leen el ID: no recorren asociaciones ni colecciones (no hay recursión entre
+ * entidades que se referencian, Track → PlaylistTrack → Track) y no asignan memoria. Del otro lado de
+ * equals se usa {@code getId()}, que en un proxy de Hibernate devuelve el ID sin inicializarlo. Pero
+ * llamar a equals o hashCode <em>sobre</em> un proxy sin inicializar lo inicializa (una consulta): como
+ * están sobrescritos, Hibernate carga la entidad para delegarle la llamada. Para comparar proxies sin
+ * cargarlos, comparar {@code getId()}. El toString de Lombok excluye las asociaciones por el mismo motivo.
+ */
+final class EntityIdentity {
+
+    private EntityIdentity() {
+    }
+
+    static boolean sameId(Object id, Object otherId) {
+        return id != null && id.equals(otherId);
+    }
+
+    static int hash(Object entity, Object id) {
+        return id != null ? id.hashCode() : System.identityHashCode(entity);
+    }
+
+    /** Para claves compuestas asignadas por la aplicación (siempre presentes). */
+    static int hashKey(Object id1, Object id2) {
+        return 31 * Objects.hashCode(id1) + Objects.hashCode(id2);
+    }
+}
@@ -2,7 +2,11 @@ package com.recup.backend.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -10,13 +14,17 @@ import java.util.List;
 
 @Entity
 @Table(name = "GENRES")
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "genre")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Genre {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "genre_seq")
-    @SequenceGenerator(name = "genre_seq", sequenceName = "SEQ_GENRE_ID", allocationSize = 1)
+    @SequenceGenerator(name = "genre_seq", sequenceName = "SEQ_GENRE_ID", allocationSize = 50)
     @Column(name = "GENRE_ID")
     private Long id;
 
@@ -24,6 +32,18 @@ public class Genre {
     @Column(name = "NAME", length = 120, nullable = false)
     private String name;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "genre")
     private List<Track> tracks;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Genre other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
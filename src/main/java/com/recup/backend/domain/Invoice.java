@@ -1,7 +1,9 @@
 package com.recup.backend.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -11,17 +13,29 @@ import java.util.List;
 
 @Entity
 @Table(name = "INVOICES")
-@Data
+@NamedEntityGraph(name = Invoice.GRAPH_CUSTOMER, attributeNodes = @NamedAttributeNode("customer"))
+@NamedEntityGraph(name = Invoice.GRAPH_ITEMS_TRACKS,
+        attributeNodes = @NamedAttributeNode(value = "items", subgraph = "items"),
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("track")))
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Invoice {
+    /** Entity graph: factura + cliente. */
+    public static final String GRAPH_CUSTOMER = "Invoice.withCustomer";
+    /** Entity graph: factura + líneas + track de cada línea (colección: no combinar con paginación). */
+    public static final String GRAPH_ITEMS_TRACKS = "Invoice.withItemsAndTracks";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_seq")
-    @SequenceGenerator(name = "invoice_seq", sequenceName = "SEQ_INVOICE_ID", allocationSize = 1)
+    @SequenceGenerator(name = "invoice_seq", sequenceName = "SEQ_INVOICE_ID", allocationSize = 50)
     @Column(name = "INVOICE_ID")
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "CUSTOMER_ID")
     private Customer customer;
 
@@ -46,6 +60,7 @@ public class Invoice {
     @Column(name = "TOTAL", precision = 10, scale = 2)
     private BigDecimal total;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<InvoiceItem> items;
 
@@ -56,4 +71,15 @@ public class Invoice {
     public boolean hasValidTotal() {
         return total != null && total.doubleValue() > 0.0;
     }
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Invoice other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
@@ -1,7 +1,9 @@
 package com.recup.backend.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -9,21 +11,29 @@ import java.math.BigDecimal;
 
 @Entity
 @Table(name = "INVOICE_ITEMS")
-@Data
+@NamedEntityGraph(name = InvoiceItem.GRAPH_TRACK, attributeNodes = @NamedAttributeNode("track"))
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class InvoiceItem {
+    /** Entity graph: línea + track. */
+    public static final String GRAPH_TRACK = "InvoiceItem.withTrack";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_line_seq")
-    @SequenceGenerator(name = "invoice_line_seq", sequenceName = "SEQ_INVOICE_LINE_ID", allocationSize = 1)
+    @SequenceGenerator(name = "invoice_line_seq", sequenceName = "SEQ_INVOICE_LINE_ID", allocationSize = 50)
     @Column(name = "INVOICE_LINE_ID")
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "INVOICE_ID")
     private Invoice invoice;
 
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "TRACK_ID")
     private Track track;
 
@@ -32,4 +42,15 @@ public class InvoiceItem {
 
     @Column(name = "QUANTITY")
     private Integer quantity;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof InvoiceItem other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
@@ -2,7 +2,11 @@ package com.recup.backend.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -10,13 +14,17 @@ import java.util.List;
 
 @Entity
 @Table(name = "MEDIA_TYPES")
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "media-type")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class MediaType {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "media_type_seq")
-    @SequenceGenerator(name = "media_type_seq", sequenceName = "SEQ_MEDIA_TYPE_ID", allocationSize = 1)
+    @SequenceGenerator(name = "media_type_seq", sequenceName = "SEQ_MEDIA_TYPE_ID", allocationSize = 50)
     @Column(name = "MEDIA_TYPE_ID")
     private Long id;
 
@@ -24,6 +32,18 @@ public class MediaType {
     @Column(name = "NAME", length = 120, nullable = false)
     private String name;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "mediaType")
     private List<Track> tracks;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof MediaType other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
@@ -2,7 +2,9 @@ package com.recup.backend.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -10,13 +12,15 @@ import java.util.List;
 
 @Entity
 @Table(name = "PLAYLISTS")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Playlist {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlist_seq")
-    @SequenceGenerator(name = "playlist_seq", sequenceName = "SEQ_PLAYLIST_ID", allocationSize = 1)
+    @SequenceGenerator(name = "playlist_seq", sequenceName = "SEQ_PLAYLIST_ID", allocationSize = 50)
     @Column(name = "PLAYLIST_ID")
     private Long id;
 
@@ -24,6 +28,18 @@ public class Playlist {
     @Column(name = "NAME", length = 120, nullable = false)
     private String name;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "playlist")
     private List<PlaylistTrack> playlistTracks;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Playlist other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
@@ -0,0 +1,57 @@
+package com.recup.backend.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Agregado PLAYLIST_GENRE_STATS: cantidad de tracks de un género dentro de una playlist.
+ * Lo mantienen los importadores y los repositorios (ver PlaylistStatsDelta); desde JPA es solo lectura.
+ */
+@Entity
+@Table(name = "PLAYLIST_GENRE_STATS")
+@IdClass(PlaylistGenreStats.Key.class)
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaylistGenreStats {
+    @Id
+    @Column(name = "PLAYLIST_ID")
+    private Long playlistId;
+
+    @Id
+    @Column(name = "GENRE_ID")
+    private Long genreId;
+
+    @Column(name = "TRACK_COUNT", insertable = false, updatable = false)
+    private Integer trackCount;
+
+    /** Igualdad por clave (playlist, género); ver {@link EntityIdentity}. */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PlaylistGenreStats other
+                && Objects.equals(playlistId, other.getPlaylistId()) && Objects.equals(genreId, other.getGenreId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hashKey(playlistId, genreId);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long playlistId;
+        private Long genreId;
+    }
+}
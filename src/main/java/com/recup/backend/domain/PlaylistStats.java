@@ -0,0 +1,56 @@
+package com.recup.backend.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Agregado PLAYLIST_STATS: sumas de precio y duración de los tracks de una playlist.
+ * Lo mantienen los importadores y los repositorios (ver PlaylistStatsDelta); desde JPA es solo lectura.
+ */
+@Entity
+@Table(name = "PLAYLIST_STATS")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaylistStats {
+    @Id
+    @Column(name = "PLAYLIST_ID")
+    private Long playlistId;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "PLAYLIST_ID", insertable = false, updatable = false)
+    private Playlist playlist;
+
+    @Column(name = "TRACK_COUNT", insertable = false, updatable = false)
+    private Integer trackCount;
+
+    @Column(name = "TOTAL_PRICE", precision = 14, scale = 2, insertable = false, updatable = false)
+    private BigDecimal totalPrice;
+
+    @Column(name = "TOTAL_MILLISECONDS", insertable = false, updatable = false)
+    private Long totalMilliseconds;
+
+    /** Columna calculada por la base: TOTAL_PRICE / (TOTAL_MILLISECONDS / 60000). */
+    @Column(name = "COST_PER_MINUTE", insertable = false, updatable = false)
+    private Double costPerMinute;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PlaylistStats other && EntityIdentity.sameId(playlistId, other.getPlaylistId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, playlistId);
+    }
+}
@@ -1,7 +1,9 @@
 package com.recup.backend.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -11,21 +13,36 @@ import lombok.AllArgsConstructor;
  */
 @Entity
 @Table(name = "PLAYLIST_TRACK")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class PlaylistTrack {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlist_track_seq")
-    @SequenceGenerator(name = "playlist_track_seq", sequenceName = "SEQ_PLAYLIST_TRACK_ID", allocationSize = 1)
+    @SequenceGenerator(name = "playlist_track_seq", sequenceName = "SEQ_PLAYLIST_TRACK_ID", allocationSize = 50)
     @Column(name = "PLAYLIST_TRACK_ID")
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "PLAYLIST_ID")
     private Playlist playlist;
 
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "TRACK_ID")
     private Track track;
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PlaylistTrack other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
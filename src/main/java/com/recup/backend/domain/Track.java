@@ -2,7 +2,9 @@ package com.recup.backend.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
@@ -11,13 +13,29 @@ import java.util.List;
 
 @Entity
 @Table(name = "TRACKS")
-@Data
+@NamedEntityGraph(name = Track.GRAPH_ALBUM_ARTIST,
+        attributeNodes = @NamedAttributeNode(value = "album", subgraph = "album"),
+        subgraphs = @NamedSubgraph(name = "album", attributeNodes = @NamedAttributeNode("artist")))
+@NamedEntityGraph(name = Track.GRAPH_DETAIL,
+        attributeNodes = {
+                @NamedAttributeNode(value = "album", subgraph = "album"),
+                @NamedAttributeNode("genre"),
+                @NamedAttributeNode("mediaType")},
+        subgraphs = @NamedSubgraph(name = "album", attributeNodes = @NamedAttributeNode("artist")))
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Track {
+    /** Entity graph: track + álbum + artista. */
+    public static final String GRAPH_ALBUM_ARTIST = "Track.withAlbumAndArtist";
+    /** Entity graph: track + álbum + artista + género + tipo de medio. */
+    public static final String GRAPH_DETAIL = "Track.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "track_seq")
-    @SequenceGenerator(name = "track_seq", sequenceName = "SEQ_TRACK_ID", allocationSize = 1)
+    @SequenceGenerator(name = "track_seq", sequenceName = "SEQ_TRACK_ID", allocationSize = 50)
     @Column(name = "TRACK_ID")
     private Long id;
 
@@ -25,15 +43,18 @@ public class Track {
     @Column(name = "NAME", length = 200, nullable = false)
     private String name;
 
-    @ManyToOne(optional = true)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "ALBUM_ID")
     private Album album;
 
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "MEDIA_TYPE_ID", nullable = false)
     private MediaType mediaType;
 
-    @ManyToOne(optional = true)
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = true)
     @JoinColumn(name = "GENRE_ID")
     private Genre genre;
 
@@ -49,6 +70,7 @@ public class Track {
     @Column(name = "UNIT_PRICE", precision = 10, scale = 2)
     private BigDecimal unitPrice;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "track")
     private List<PlaylistTrack> playlistTracks;
 
@@ -67,4 +89,15 @@ public class Track {
     public boolean hasValidPrice() {
         return unitPrice != null && unitPrice.doubleValue() > 0.0;
     }
+
+    /** Igualdad por ID (ver {@link EntityIdentity}). */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Track other && EntityIdentity.sameId(id, other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return EntityIdentity.hash(this, id);
+    }
 }
@@ -0,0 +1,93 @@
+package com.recup.backend.infra;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Aciertos y fallos del cache de segundo nivel (por región: genre, media-type, artist, album) y del cache
+ * de consultas, a partir de las estadísticas de Hibernate (hibernate.generate_statistics).
+ *
+ * Las estadísticas cuestan en cada statement y acceso al cache, así que están apagadas salvo con
+ * {@code -Dcache.stats=true} ({@link #requested}); sin ellas {@link #print} no muestra nada.
+ */
+public final class CacheStatistics {
+
+    private CacheStatistics() {
+    }
+
+    /** true con -Dcache.stats=true: la EntityManagerFactory se crea con hibernate.generate_statistics. */
+    public static boolean requested() {
+        return Boolean.getBoolean("cache.stats");
+    }
+
+    /**
+     * Contadores de una región desde que se creó la EntityManagerFactory (o desde {@link #reset}).
+     * @param size elementos en memoria, o -1 si el proveedor no lo informa
+     */
+    public record Region(String name, long hits, long misses, long puts, long size) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    /** Regiones de entidades con cache, ordenadas por nombre. */
+    public static List<Region> entityRegions(EntityManagerFactory emf) {
+        SessionFactoryImplementor factory = emf.unwrap(SessionFactoryImplementor.class);
+        Statistics stats = factory.getStatistics();
+        List<Region> regions = new ArrayList<>();
+        for (String name : new TreeSet<>(factory.getCache().getCacheRegionNames())) {
+            // las otras regiones son las del cache de consultas (ver queries)
+            if (factory.getCache().getRegion(name) instanceof DomainDataRegion) {
+                regions.add(region(name, stats.getDomainDataRegionStatistics(name)));
+            }
+        }
+        return regions;
+    }
+
+    /** Cache de consultas (todas las regiones de consultas juntas). */
+    public static Region queries(EntityManagerFactory emf) {
+        Statistics stats = statistics(emf);
+        return new Region("consultas", stats.getQueryCacheHitCount(), stats.getQueryCacheMissCount(),
+                stats.getQueryCachePutCount(), -1);
+    }
+
+    /** Pone en cero todas las estadísticas de Hibernate (incluidas las del cache). */
+    public static void reset(EntityManagerFactory emf) {
+        statistics(emf).clear();
+    }
+
+    public static void print(EntityManagerFactory emf) {
+        if (!statistics(emf).isStatisticsEnabled()) {
+            return;
+        }
+        System.out.println("🗄️ Cache de segundo nivel:");
+        for (Region region : entityRegions(emf)) {
+            print(region);
+        }
+        print(queries(emf));
+    }
+
+    private static void print(Region r) {
+        System.out.printf("   %-12s aciertos %6d, fallos %6d (%5.1f%%), altas %6d%s%n", r.name(), r.hits(), r.misses(),
+                100 * r.hitRatio(), r.puts(), r.size() >= 0 ? ", en memoria " + r.size() : "");
+    }
+
+    private static Region region(String name, CacheRegionStatistics region) {
+        long size = region.getElementCountInMemory();
+        return new Region(name, region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                size == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? -1 : size);
+    }
+
+    private static Statistics statistics(EntityManagerFactory emf) {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,266 @@
+package com.recup.backend.infra;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.ConnectionPoolDataSource;
+import javax.sql.DataSource;
+import javax.sql.PooledConnection;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Pool de conexiones sobre un {@link ConnectionPoolDataSource} (el JdbcDataSource de H2).
+ *
+ * Cada conexión física se abre una vez y se reutiliza: {@link #getConnection()} entrega un handle lógico
+ * cuyo close() (rollback + autocommit, a cargo del driver) la devuelve al pool. Un semáforo limita las
+ * conexiones prestadas a {@code maxSize}; si no hay una libre se espera hasta {@code timeoutMillis} y
+ * después se lanza SQLException. Las más recientes se reutilizan primero (LIFO). Thread-safe.
+ *
+ * Los ajustes de sesión de H2 (SET ...) sobreviven al close() del handle: quien cambia uno puede pedir con
+ * {@link #resetOnReturn} que se deshaga al devolver la conexión, aunque el handle se cierre sin hacerlo.
+ */
+public final class ConnectionPool implements DataSource, AutoCloseable {
+
+    private final ConnectionPoolDataSource source;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final ConnectionEventListener listener = new ReturnToPool();
+    /** Handle entregado de cada conexión prestada, y los SET a ejecutar cuando vuelva al pool. */
+    private final Map<PooledConnection, Connection> borrowed = new ConcurrentHashMap<>();
+    private final Map<PooledConnection, Set<String>> resets = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    // Métricas
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger physical = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile long maxWaitNanos;
+
+    public ConnectionPool(ConnectionPoolDataSource source, int maxSize, long timeoutMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize debe ser >= 1: " + maxSize);
+        }
+        this.source = source;
+        this.maxSize = maxSize;
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        if (!permits.tryAcquire()) {
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido esperando una conexión", e);
+            }
+            long waited = System.nanoTime() - start;
+            waits.increment();
+            waitNanos.add(waited);
+            if (waited > maxWaitNanos) {
+                synchronized (this) {
+                    if (waited > maxWaitNanos) maxWaitNanos = waited;
+                }
+            }
+            if (!ok) {
+                timeouts.increment();
+                throw new SQLException("Sin conexiones libres después de " + timeoutMillis + " ms (máximo " + maxSize + ")");
+            }
+        }
+        try {
+            PooledConnection pc = idle.pollFirst();
+            if (pc == null) {
+                pc = source.getPooledConnection();
+                pc.addConnectionEventListener(listener);
+                physical.incrementAndGet();
+            }
+            Connection handle = pc.getConnection();
+            borrowed.put(pc, handle);
+            active.incrementAndGet();
+            acquired.increment();
+            return handle;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Las conexiones del pool usan las credenciales del DataSource de origen; las recibidas se ignoran
+     * (Hibernate las pasa cuando persistence.xml define jakarta.persistence.jdbc.user).
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Ejecuta {@code sql} (ej: {@code SET LAZY_QUERY_EXECUTION FALSE}) sobre la conexión física de
+     * {@code handle} cuando se devuelva al pool, antes de prestarla de nuevo. Si falla, la conexión se
+     * descarta. Registrar el mismo SQL más de una vez no lo repite.
+     * @return false si {@code handle} no es una conexión prestada por este pool (no se registra nada)
+     */
+    public boolean resetOnReturn(Connection handle, String sql) {
+        for (Map.Entry<PooledConnection, Connection> entry : borrowed.entrySet()) {
+            if (entry.getValue() == handle) {
+                resets.computeIfAbsent(entry.getKey(), pc -> Collections.synchronizedSet(new LinkedHashSet<>())).add(sql);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Cierra las conexiones libres; las prestadas se cierran al devolverse. */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            discard(pc);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(active.get(), idle.size(), physical.get(), maxSize, acquired.sum(), waits.sum(),
+                TimeUnit.NANOSECONDS.toMillis(waitNanos.sum()), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos),
+                timeouts.sum());
+    }
+
+    /**
+     * Foto de las métricas del pool.
+     * @param active       conexiones prestadas en este momento
+     * @param idle         conexiones físicas libres
+     * @param physical     conexiones físicas abiertas en total (libres + prestadas)
+     * @param acquired     getConnection() exitosos
+     * @param waits        pedidos que tuvieron que esperar una conexión libre
+     * @param waitMillis   tiempo total esperado
+     * @param maxWaitMillis espera más larga
+     * @param timeouts     pedidos que fallaron por no conseguir conexión a tiempo
+     */
+    public record Stats(int active, int idle, int physical, int maxSize, long acquired, long waits,
+                        long waitMillis, long maxWaitMillis, long timeouts) {
+        @Override
+        public String toString() {
+            return "activas " + active + ", libres " + idle + ", físicas " + physical + "/" + maxSize
+                    + ", préstamos " + acquired + ", esperas " + waits + " (" + waitMillis + " ms, máx "
+                    + maxWaitMillis + " ms)" + (timeouts > 0 ? ", timeouts " + timeouts : "");
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        resets.remove(pc);
+        pc.removeConnectionEventListener(listener);
+        physical.decrementAndGet();
+        try {
+            pc.close();
+        } catch (SQLException ignored) {
+            // la conexión ya no se usa
+        }
+    }
+
+    private final class ReturnToPool implements ConnectionEventListener {
+        @Override
+        public void connectionClosed(ConnectionEvent event) {
+            PooledConnection pc = (PooledConnection) event.getSource();
+            borrowed.remove(pc);
+            active.decrementAndGet();
+            if (closed || !reset(pc)) {
+                discard(pc);
+            } else {
+                idle.offerFirst(pc);
+            }
+            permits.release();
+        }
+
+        // Los SET pendientes (resetOnReturn) con un handle propio, sin volver a disparar este listener
+        private boolean reset(PooledConnection pc) {
+            Set<String> sqls = resets.remove(pc);
+            if (sqls == null) {
+                return true;
+            }
+            pc.removeConnectionEventListener(this);
+            try (Connection conn = pc.getConnection(); Statement st = conn.createStatement()) {
+                for (String sql : sqls.toArray(String[]::new)) {
+                    st.execute(sql);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            } finally {
+                pc.addConnectionEventListener(this);
+            }
+        }
+
+        @Override
+        public void connectionErrorOccurred(ConnectionEvent event) {
+            // Conexión física inutilizable: se descarta en lugar de volver al pool
+            borrowed.remove((PooledConnection) event.getSource());
+            active.decrementAndGet();
+            discard((PooledConnection) event.getSource());
+            permits.release();
+        }
+    }
+
+    // ───────────────────────── DataSource ─────────────────────────
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) TimeUnit.MILLISECONDS.toSeconds(timeoutMillis);
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("No es un " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
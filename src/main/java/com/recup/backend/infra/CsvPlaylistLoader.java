@@ -4,187 +4,267 @@ import com.recup.backend.domain.*;
 import com.recup.backend.repo.*;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.FlushModeType;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
-import java.util.Set;
+import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.recup.backend.infra.PlaylistCsvRow.*;
+
 /**
  * Carga datos desde playlists.csv cumpliendo:
  * - Evitar duplicados por nombre (playlist, track, album, artist, genre, mediaType)
  * - Ignorar líneas con algún campo vacío
+ *
+ * Lee con {@link CsvTokenizer} (mmap, RFC 4180): los caches se consultan con los slices de
+ * cada campo y solo se crean Strings para los valores que terminan en una entidad nueva.
+ *
+ * Memoria acotada (streaming): los caches guardan nombre → ID, las FKs se arman con
+ * getReference y el contexto de persistencia se limpia en cada commit, así ninguna
+ * entidad sobrevive al lote en el que se creó.
+ *
+ * Modo incremental ({@link #loadIncremental}): con los checksums de {@link ImportChecksums} solo se
+ * procesan los bloques modificados o agregados; en ese caso no se precarga nada y los nombres que no
+ * están en cache se buscan en la base una sola vez.
+ *
+ * Camino secuencial (un solo hilo). Para archivos grandes ver {@link ParallelCsvPlaylistLoader}.
  */
 public class CsvPlaylistLoader {
 
-    public static void load(EntityManager em, String resourcePath) {
-        InputStream is = CsvPlaylistLoader.class.getClassLoader().getResourceAsStream(resourcePath);
-        if (is == null) {
-            System.out.println("❌ Recurso no encontrado en classpath: " + resourcePath);
-            return;
+    private static final long NO_ID = -1L;
+
+    /** @return true si la importación terminó (false: no se encontró el archivo o falló) */
+    public static boolean load(EntityManager em, String resourcePath) {
+        if (!load(em, resourcePath, null)) {
+            return false;
+        }
+        // Mostrar resultados requeridos
+        mostrarResultados(em);
+        return true;
+    }
+
+    /**
+     * Importación incremental: compara los checksums del archivo con los de la última importación y
+     * procesa solo los bloques que cambiaron. Si no cambió nada no toca las tablas.
+     * @return true si la importación terminó (o no había nada que importar)
+     */
+    public static boolean loadIncremental(EntityManager em, String resourcePath) {
+        ImportChecksums.Plan plan;
+        try {
+            plan = ImportChecksums.plan(em, resourcePath);
+        } catch (IOException e) {
+            System.out.println("❌ No se pudo abrir " + resourcePath + ": " + e.getMessage());
+            return false;
+        }
+        if (plan == null) {
+            System.out.println("❌ Archivo / recurso no encontrado: " + resourcePath);
+            return false;
+        }
+        if (plan.isUnchanged()) {
+            System.out.println("✅ Sin cambios desde la última importación (" + plan.chunkCount() + " bloques), no se importa nada\n");
+            if (plan.isStampChanged()) {
+                ImportChecksums.save(em, plan); // mismo contenido, otra fecha: el próximo arranque no lo vuelve a leer
+            }
+        } else {
+            System.out.println("🔁 Bloques a procesar: " + plan.changedChunks() + " de " + plan.chunkCount());
+            if (!load(em, resourcePath, plan)) {
+                return false;
+            }
+            ImportChecksums.save(em, plan);
+        }
+        mostrarResultados(em);
+        return true;
+    }
+
+    /** Devuelve false si la importación falló (la transacción en curso se descarta). */
+    private static boolean load(EntityManager em, String resourcePath, ImportChecksums.Plan plan) {
+        CsvTokenizer csv;
+        try {
+            csv = CsvTokenizer.openSource(resourcePath);
+        } catch (IOException e) {
+            System.out.println("❌ No se pudo abrir " + resourcePath + ": " + e.getMessage());
+            return false;
+        }
+        if (csv == null) {
+            System.out.println("❌ Archivo / recurso no encontrado: " + resourcePath);
+            return false;
         }
+        // Con pocos bloques modificados no conviene precargar todo: se busca en la base ante cada miss
+        boolean lazy = plan != null && !plan.isFull();
+        int recordIndex = -1;
 
         PlaylistRepository playlistRepo = new PlaylistRepository(em);
-        TrackRepository trackRepo = new TrackRepository(em);
+        // Los tracks nuevos se indexan para la búsqueda una vez por lote, como PLAYLIST_STATS
+        TrackSearchIndex searchDelta = new TrackSearchIndex();
+        TrackRepository trackRepo = new TrackRepository(em, searchDelta);
+        TrackSearchRepository searchRepo = new TrackSearchRepository(em);
         AlbumRepository albumRepo = new AlbumRepository(em);
         ArtistRepository artistRepo = new ArtistRepository(em);
         GenreRepository genreRepo = new GenreRepository(em);
         MediaTypeRepository mediaTypeRepo = new MediaTypeRepository(em);
-        PlaylistTrackRepository playlistTrackRepo = new PlaylistTrackRepository(em);
+        // PLAYLIST_STATS se actualiza una vez por lote con las relaciones nuevas acumuladas
+        PlaylistStatsDelta statsDelta = new PlaylistStatsDelta();
+        PlaylistTrackRepository playlistTrackRepo = new PlaylistTrackRepository(em, statsDelta);
+        PlaylistStatsRepository statsRepo = new PlaylistStatsRepository(em);
 
         EntityTransaction tx = em.getTransaction();
         tx.begin();
         final int BATCH_SIZE = 1000; // lote más grande para menos commits
         int sinceLastCommit = 0;
-        long startTime = System.nanoTime();
-        AtomicInteger processed = new AtomicInteger();
-        AtomicInteger skipped = new AtomicInteger();
-        AtomicInteger newPlaylists = new AtomicInteger();
-        AtomicInteger newTracks = new AtomicInteger();
-        AtomicInteger newAlbums = new AtomicInteger();
-        AtomicInteger newArtists = new AtomicInteger();
-        AtomicInteger newGenres = new AtomicInteger();
-        AtomicInteger newMediaTypes = new AtomicInteger();
-        AtomicInteger newRelations = new AtomicInteger();
+        ImportSummary summary = new ImportSummary(plan == null ? "serial" : "incremental");
+        AtomicInteger processed = summary.processed;
+        AtomicInteger skipped = summary.skipped;
+        AtomicInteger newPlaylists = summary.newPlaylists;
+        AtomicInteger newTracks = summary.newTracks;
+        AtomicInteger newAlbums = summary.newAlbums;
+        AtomicInteger newArtists = summary.newArtists;
+        AtomicInteger newGenres = summary.newGenres;
+        AtomicInteger newMediaTypes = summary.newMediaTypes;
+        AtomicInteger newRelations = summary.newRelations;
 
-        // Caches en memoria para evitar hits repetidos a la base (por nombre)
-        Map<String, Playlist> playlistCache = new ConcurrentHashMap<>();
-        Map<String, Artist> artistCache = new ConcurrentHashMap<>();
-        Map<String, Album> albumCache = new ConcurrentHashMap<>(); // clave: titulo
-        Map<String, Genre> genreCache = new ConcurrentHashMap<>();
-        Map<String, MediaType> mediaTypeCache = new ConcurrentHashMap<>();
-        Map<String, Track> trackCache = new ConcurrentHashMap<>(); // clave: trackName|albumTitle
-        Set<String> playlistTrackRelCache = new HashSet<>(); // clave: playlistName|trackName|albumTitle
+        // Caches en memoria (nombre → ID) para evitar hits repetidos a la base
+        DimensionCache playlistCache = new DimensionCache();
+        DimensionCache artistCache = new DimensionCache();
+        DimensionCache albumCache = new DimensionCache(); // clave: titulo
+        DimensionCache genreCache = new DimensionCache();
+        DimensionCache mediaTypeCache = new DimensionCache();
+        DimensionCache trackCache = new DimensionCache(); // clave: trackName|albumTitle
+        LongPairSet relations = new LongPairSet(); // (playlistId, trackId)
+        Set<Long> loadedPlaylists = new HashSet<>(); // modo incremental: playlists con relaciones ya leídas
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            String header = br.readLine(); // encabezado
-            if (header == null) {
+        try (csv) {
+            if (!csv.nextRecord()) { // encabezado
                 System.out.println("⚠️ Archivo vacío");
                 tx.rollback();
-                return;
+                return false;
             }
-                // Precargar entidades existentes para evitar SELECT por línea
-                em.createQuery("SELECT p FROM Playlist p", Playlist.class).getResultList()
-                    .forEach(p -> playlistCache.put(p.getName(), p));
-                em.createQuery("SELECT a FROM Artist a", Artist.class).getResultList()
-                    .forEach(a -> artistCache.put(a.getName(), a));
-                em.createQuery("SELECT al FROM Album al", Album.class).getResultList()
-                    .forEach(al -> albumCache.put(al.getTitle(), al));
-                em.createQuery("SELECT g FROM Genre g", Genre.class).getResultList()
-                    .forEach(g -> genreCache.put(g.getName(), g));
-                em.createQuery("SELECT m FROM MediaType m", MediaType.class).getResultList()
-                    .forEach(m -> mediaTypeCache.put(m.getName(), m));
-                em.createQuery("SELECT t FROM Track t", Track.class).getResultList()
-                    .forEach(t -> trackCache.put(t.getName() + "|" + (t.getAlbum()!=null ? t.getAlbum().getTitle():""), t));
-                em.createQuery("SELECT pt.playlist.name, pt.track.name, pt.track.album.title FROM PlaylistTrack pt", Object[].class)
+            if (!lazy) {
+                // Precargar IDs existentes (sin materializar entidades) para evitar SELECT por línea
+                preloadIds(em, "SELECT p.name, p.id FROM Playlist p", playlistCache);
+                preloadIds(em, "SELECT a.name, a.id FROM Artist a", artistCache);
+                preloadIds(em, "SELECT al.title, al.id FROM Album al", albumCache);
+                preloadIds(em, "SELECT g.name, g.id FROM Genre g", genreCache);
+                preloadIds(em, "SELECT m.name, m.id FROM MediaType m", mediaTypeCache);
+                preloadIds(em, "SELECT CONCAT(t.name, '|', COALESCE(al.title, '')), t.id FROM Track t LEFT JOIN t.album al", trackCache);
+                em.createQuery("SELECT pt.playlist.id, pt.track.id FROM PlaylistTrack pt", Object[].class)
                     .getResultList()
-                    .forEach(row -> playlistTrackRelCache.add(((String)row[0]) + "|" + ((String)row[1]) + "|" + ((String)row[2])));
+                    .forEach(row -> relations.add(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+            }
 
-                String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] cols = line.split(",", -1);
-                if (cols.length < 10) { // columnas esperadas
-                    skipped.incrementAndGet();
+            JfrEvents.ImportBatch batch = summary.startBatch();
+            while (csv.nextRecord()) {
+                recordIndex++;
+                if (plan != null && !plan.includes(recordIndex)) {
+                    summary.unchanged.incrementAndGet();
                     continue;
                 }
-                // Extraer columnas
-                String playlistName = cols[0].trim();
-                String trackName = cols[1].trim();
-                String composer = cols[2].trim();
-                String millisecondsStr = cols[3].trim();
-                String bytesStr = cols[4].trim();
-                String unitPriceStr = cols[5].trim();
-                String albumTitle = cols[6].trim();
-                String artistName = cols[7].trim();
-                String genreName = cols[8].trim();
-                String mediaTypeName = cols[9].trim();
-
-                // Validar que ninguno esté vacío
-                if (playlistName.isEmpty() || trackName.isEmpty() || composer.isEmpty() || millisecondsStr.isEmpty() ||
-                        bytesStr.isEmpty() || unitPriceStr.isEmpty() || albumTitle.isEmpty() || artistName.isEmpty() ||
-                        genreName.isEmpty() || mediaTypeName.isEmpty()) {
+                if (csv.isBlankRecord()) continue;
+                // Validar (columnas esperadas, ningún campo vacío) sin crear Strings
+                if (!PlaylistCsvRow.isComplete(csv)) {
                     skipped.incrementAndGet();
                     continue;
                 }
 
                 // Recuperar/crear entidades usando caches sin SELECT por línea
-                Playlist playlist = playlistCache.get(playlistName);
-                if (playlist == null) {
-                    playlist = new Playlist();
-                    playlist.setName(playlistName);
+                long playlistId = idOf(playlistCache, playlistCache.find(csv, PLAYLIST_NAME));
+                if (playlistId == NO_ID && lazy) {
+                    playlistId = findId(em, playlistCache, csv.string(PLAYLIST_NAME), "SELECT p.id FROM Playlist p WHERE p.name = ?1", csv.string(PLAYLIST_NAME));
+                }
+                if (playlistId == NO_ID) {
+                    Playlist playlist = new Playlist();
+                    playlist.setName(csv.string(PLAYLIST_NAME));
                     playlistRepo.save(playlist);
-                    playlistCache.put(playlistName, playlist);
+                    playlistId = playlist.getId();
+                    playlistCache.intern(csv, PLAYLIST_NAME, playlistId);
                     newPlaylists.incrementAndGet();
                 }
 
-                Artist artist = artistCache.get(artistName);
-                if (artist == null) {
-                    artist = new Artist();
-                    artist.setName(artistName);
+                long artistId = idOf(artistCache, artistCache.find(csv, ARTIST_NAME));
+                if (artistId == NO_ID && lazy) {
+                    artistId = findId(em, artistCache, csv.string(ARTIST_NAME), "SELECT a.id FROM Artist a WHERE a.name = ?1", csv.string(ARTIST_NAME));
+                }
+                if (artistId == NO_ID) {
+                    Artist artist = new Artist();
+                    artist.setName(csv.string(ARTIST_NAME));
                     artistRepo.save(artist);
-                    artistCache.put(artistName, artist);
+                    artistId = artist.getId();
+                    artistCache.intern(csv, ARTIST_NAME, artistId);
                     newArtists.incrementAndGet();
                 }
 
-                Album album = albumCache.get(albumTitle);
-                if (album == null) {
-                    album = new Album();
-                    album.setTitle(albumTitle);
-                    album.setArtist(artist);
+                long albumId = idOf(albumCache, albumCache.find(csv, ALBUM_TITLE));
+                if (albumId == NO_ID && lazy) {
+                    albumId = findId(em, albumCache, csv.string(ALBUM_TITLE), "SELECT al.id FROM Album al WHERE al.title = ?1", csv.string(ALBUM_TITLE));
+                }
+                if (albumId == NO_ID) {
+                    Album album = new Album();
+                    album.setTitle(csv.string(ALBUM_TITLE));
+                    album.setArtist(em.getReference(Artist.class, artistId));
                     albumRepo.save(album);
-                    albumCache.put(albumTitle, album);
+                    albumId = album.getId();
+                    albumCache.intern(csv, ALBUM_TITLE, albumId);
                     newAlbums.incrementAndGet();
                 }
 
-                Genre genre = genreCache.get(genreName);
-                if (genre == null) {
-                    genre = new Genre();
-                    genre.setName(genreName);
+                long genreId = idOf(genreCache, genreCache.find(csv, GENRE_NAME));
+                if (genreId == NO_ID && lazy) {
+                    genreId = findId(em, genreCache, csv.string(GENRE_NAME), "SELECT g.id FROM Genre g WHERE g.name = ?1", csv.string(GENRE_NAME));
+                }
+                if (genreId == NO_ID) {
+                    Genre genre = new Genre();
+                    genre.setName(csv.string(GENRE_NAME));
                     genreRepo.save(genre);
-                    genreCache.put(genreName, genre);
+                    genreId = genre.getId();
+                    genreCache.intern(csv, GENRE_NAME, genreId);
                     newGenres.incrementAndGet();
                 }
 
-                MediaType mediaType = mediaTypeCache.get(mediaTypeName);
-                if (mediaType == null) {
-                    mediaType = new MediaType();
-                    mediaType.setName(mediaTypeName);
+                long mediaTypeId = idOf(mediaTypeCache, mediaTypeCache.find(csv, MEDIA_TYPE_NAME));
+                if (mediaTypeId == NO_ID && lazy) {
+                    mediaTypeId = findId(em, mediaTypeCache, csv.string(MEDIA_TYPE_NAME), "SELECT m.id FROM MediaType m WHERE m.name = ?1", csv.string(MEDIA_TYPE_NAME));
+                }
+                if (mediaTypeId == NO_ID) {
+                    MediaType mediaType = new MediaType();
+                    mediaType.setName(csv.string(MEDIA_TYPE_NAME));
                     mediaTypeRepo.save(mediaType);
-                    mediaTypeCache.put(mediaTypeName, mediaType);
+                    mediaTypeId = mediaType.getId();
+                    mediaTypeCache.intern(csv, MEDIA_TYPE_NAME, mediaTypeId);
                     newMediaTypes.incrementAndGet();
                 }
 
-                String trackKey = trackName + "|" + albumTitle;
-                Track track = trackCache.get(trackKey);
-                if (track == null) {
-                    track = new Track();
-                    track.setName(trackName);
-                    track.setComposer(composer);
-                    try { track.setMilliseconds(Integer.parseInt(millisecondsStr)); } catch (NumberFormatException ignored) {}
-                    try { track.setBytes(Integer.parseInt(bytesStr)); } catch (NumberFormatException ignored) {}
-                    try { track.setUnitPrice(new BigDecimal(unitPriceStr)); } catch (Exception ignored) {}
-                    track.setAlbum(album);
-                    track.setGenre(genre);
-                    track.setMediaType(mediaType);
+                long trackId = idOf(trackCache, trackCache.find(csv, TRACK_NAME, ALBUM_TITLE));
+                if (trackId == NO_ID && lazy) {
+                    trackId = findId(em, trackCache, csv.string(TRACK_NAME) + "|" + csv.string(ALBUM_TITLE),
+                            "SELECT t.id FROM Track t WHERE t.name = ?1 AND t.album.title = ?2",
+                            csv.string(TRACK_NAME), csv.string(ALBUM_TITLE));
+                }
+                if (trackId == NO_ID) {
+                    Track track = new Track();
+                    track.setName(csv.string(TRACK_NAME));
+                    track.setComposer(csv.string(COMPOSER));
+                    if (csv.isInt(MILLISECONDS)) track.setMilliseconds(csv.intValue(MILLISECONDS));
+                    if (csv.isInt(BYTES)) track.setBytes(csv.intValue(BYTES));
+                    track.setUnitPrice(PlaylistCsvRow.parseDecimal(csv.string(UNIT_PRICE)));
+                    track.setAlbum(em.getReference(Album.class, albumId));
+                    track.setGenre(em.getReference(Genre.class, genreId));
+                    track.setMediaType(em.getReference(MediaType.class, mediaTypeId));
                     trackRepo.save(track);
-                    trackCache.put(trackKey, track);
+                    trackId = track.getId();
+                    trackCache.intern(csv, TRACK_NAME, ALBUM_TITLE, trackId);
                     newTracks.incrementAndGet();
                 }
 
-                String relKey = playlistName + "|" + trackName + "|" + albumTitle;
-                if (!playlistTrackRelCache.contains(relKey)) {
+                if (lazy && loadedPlaylists.add(playlistId)) {
+                    loadRelations(em, relations, playlistId);
+                }
+                if (relations.add(playlistId, trackId)) {
                     PlaylistTrack pt = new PlaylistTrack();
-                    pt.setPlaylist(playlist);
-                    pt.setTrack(track);
+                    pt.setPlaylist(em.getReference(Playlist.class, playlistId));
+                    pt.setTrack(em.getReference(Track.class, trackId));
                     playlistTrackRepo.save(pt);
-                    playlistTrackRelCache.add(relKey);
                     newRelations.incrementAndGet();
                 }
 
@@ -193,16 +273,19 @@ public class CsvPlaylistLoader {
 
                 // Logging de progreso periódico para dar feedback al usuario
                 if (processed.get() % 500 == 0) {
-                    long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
-                    double lps = processed.get() / ((elapsedMs / 1000.0) + 0.0001);
+                    double lps = processed.get() / ((summary.elapsedMillis() / 1000.0) + 0.0001);
                     System.out.println("   Progreso: " + processed.get() + " líneas (omitidas=" + skipped.get() + ", " + String.format("%.1f", lps) + " líneas/seg)");
                 }
 
                 // Commit por lotes para reducir consumo de memoria y tiempo al final
                 if (sinceLastCommit >= BATCH_SIZE) {
-                    em.flush(); // sincronizar con BD
-                    tx.commit();
-                    System.out.println("   ✓ Lote de " + sinceLastCommit + " líneas confirmado. Total acumulado: " + processed.get());
+                    summary.timeFlush(sinceLastCommit, em::flush); // sincronizar con BD
+                    statsRepo.apply(statsDelta);
+                    searchRepo.apply(searchDelta);
+                    batch = summary.timeCommit(batch, sinceLastCommit, tx::commit);
+                    em.clear(); // liberar las entidades del lote: solo se conservan IDs
+                    System.out.println("   ✓ Lote de " + sinceLastCommit + " líneas confirmado. Total acumulado: " + processed.get()
+                            + " (heap retenido: " + ImportSummary.retainedHeapBytes() / (1024 * 1024) + " MB)");
                     sinceLastCommit = 0;
                     tx = em.getTransaction();
                     tx.begin();
@@ -210,33 +293,66 @@ public class CsvPlaylistLoader {
             }
             // Commit final si quedó algo pendiente en el último lote
             if (tx.isActive()) {
-                em.flush();
-                tx.commit();
+                summary.timeFlush(sinceLastCommit, em::flush);
+                statsRepo.apply(statsDelta);
+                searchRepo.apply(searchDelta);
+                summary.timeCommit(batch, sinceLastCommit, tx::commit);
+                em.clear();
             }
         } catch (Exception e) {
             if (tx.isActive()) tx.rollback();
             System.out.println("❌ Error procesando CSV: " + e.getMessage());
             e.printStackTrace();
-            return;
+            return false;
         }
 
-        System.out.println("\n📥 RESUMEN CARGA playlists.csv");
-        System.out.println("   Líneas procesadas: " + processed.get());
-        System.out.println("   Líneas omitidas (incompletas): " + skipped.get());
-        System.out.println("   Playlists nuevas: " + newPlaylists.get());
-        System.out.println("   Tracks nuevos: " + newTracks.get());
-        System.out.println("   Álbumes nuevos: " + newAlbums.get());
-        System.out.println("   Artistas nuevos: " + newArtists.get());
-        System.out.println("   Géneros nuevos: " + newGenres.get());
-        System.out.println("   MediaTypes nuevos: " + newMediaTypes.get());
-        System.out.println("   Relaciones Playlist-Track nuevas: " + newRelations.get());
-        System.out.println("✅ Carga finalizada\n");
-        
-        // Mostrar resultados requeridos
-        mostrarResultados(em);
+        summary.cacheFootprint("playlists", playlistCache.footprintBytes());
+        summary.cacheFootprint("artistas", artistCache.footprintBytes());
+        summary.cacheFootprint("álbumes", albumCache.footprintBytes());
+        summary.cacheFootprint("géneros", genreCache.footprintBytes());
+        summary.cacheFootprint("mediaTypes", mediaTypeCache.footprintBytes());
+        summary.cacheFootprint("tracks", trackCache.footprintBytes());
+        summary.cacheFootprint("relaciones", relations.footprintBytes());
+        summary.print("playlists.csv");
+        return true;
     }
     
-    private static void mostrarResultados(EntityManager em) {
+    private static void preloadIds(EntityManager em, String jpql, DimensionCache target) {
+        em.createQuery(jpql, Object[].class).getResultList()
+                .forEach(row -> target.intern((String) row[0], ((Number) row[1]).longValue()));
+    }
+
+    private static long idOf(DimensionCache cache, int denseId) {
+        return denseId == DimensionCache.NOT_FOUND ? NO_ID : cache.dbId(denseId);
+    }
+
+    /**
+     * Busca el ID en la base ante un miss del cache (modo incremental) y lo cachea si existe.
+     * FlushMode COMMIT: lo creado en esta corrida ya está en cache, así no se corta el batch de INSERTs.
+     */
+    private static long findId(EntityManager em, DimensionCache cache, String key, String jpql, Object... params) {
+        var query = em.createQuery(jpql, Long.class).setFlushMode(FlushModeType.COMMIT).setMaxResults(1);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        Long id = query.getResultStream().findFirst().orElse(null);
+        if (id == null) {
+            return NO_ID;
+        }
+        cache.intern(key, id);
+        return id;
+    }
+
+    /** Agrega las relaciones existentes de la playlist (modo incremental); se lee una vez por playlist. */
+    private static void loadRelations(EntityManager em, LongPairSet relations, long playlistId) {
+        em.createQuery("SELECT pt.track.id FROM PlaylistTrack pt WHERE pt.playlist.id = ?1", Long.class)
+                .setFlushMode(FlushModeType.COMMIT)
+                .setParameter(1, playlistId)
+                .getResultList()
+                .forEach(trackId -> relations.add(playlistId, trackId));
+    }
+
+    public static void mostrarResultados(EntityManager em) {
         System.out.println("═══════════════════════════════════════════════════════════");
         System.out.println("2. MOSTRAR LOS SIGUIENTES RESULTADOS:");
         System.out.println("═══════════════════════════════════════════════════════════\n");
@@ -244,36 +360,24 @@ public class CsvPlaylistLoader {
         // 1. Resultados de la importación
         System.out.println("1. Resultados de la importación:\n");
         
-        Long totalTracks = em.createQuery("SELECT COUNT(t) FROM Track t", Long.class).getSingleResult();
-        Long totalPlaylists = em.createQuery("SELECT COUNT(p) FROM Playlist p", Long.class).getSingleResult();
-        Long totalAlbums = em.createQuery("SELECT COUNT(a) FROM Album a", Long.class).getSingleResult();
+        // Reportes de solo lectura (records en una StatelessSession): no cargan entidades en em
+        CatalogReports reports = new CatalogReports(em.getEntityManagerFactory());
+        CatalogReports.Counts counts = reports.counts();
         
-        System.out.println("   1. Cantidad de Tracks insertados en la base de datos: " + totalTracks);
-        System.out.println("   2. Cantidad de Playlists insertados en la base de datos: " + totalPlaylists);
-        System.out.println("   3. Cantidad de Albums insertados en la base de datos: " + totalAlbums);
+        System.out.println("   1. Cantidad de Tracks insertados en la base de datos: " + counts.tracks());
+        System.out.println("   2. Cantidad de Playlists insertados en la base de datos: " + counts.playlists());
+        System.out.println("   3. Cantidad de Albums insertados en la base de datos: " + counts.albums());
         
         // 2. Top 5 playlists con mayor promedio costo/minuto
         System.out.println("\n2. El nombre (y el valor) de las 5 Playlists con mayor promedio");
         System.out.println("   costo/minuto de sus Tracks:\n");
         
-        var top5Playlists = em.createQuery(
-            "SELECT p.name, " +
-            "SUM(t.unitPrice) / (SUM(t.milliseconds) / 60000.0) as costoMinuto " +
-            "FROM Playlist p " +
-            "JOIN p.playlistTracks pt " +
-            "JOIN pt.track t " +
-            "GROUP BY p.id, p.name " +
-            "HAVING SUM(t.milliseconds) > 0 " +
-            "ORDER BY costoMinuto DESC",
-            Object[].class)
-            .setMaxResults(5)
-            .getResultList();
-        
+        // Desde el agregado PLAYLIST_STATS (índice por costo/minuto), sin JOIN ni GROUP BY
+        List<CatalogReports.PlaylistCost> top5Playlists = reports.topByCostPerMinute(5);
+
         int rank = 1;
-        for (Object[] row : top5Playlists) {
-            String playlistName = (String) row[0];
-            Double costoMinuto = ((Number) row[1]).doubleValue();
-            System.out.printf("   %d. %s: %.2f u$s/min%n", rank++, playlistName, costoMinuto);
+        for (CatalogReports.PlaylistCost cost : top5Playlists) {
+            System.out.printf("   %d. %s: %.2f u$s/min%n", rank++, cost.name(), cost.costPerMinute());
         }
         
         // 3. Playlists que únicamente contengan tracks del género Jazz
@@ -281,23 +385,11 @@ public class CsvPlaylistLoader {
         System.out.println("   2 (Jazz):\n");
         
         // Buscar el ID del género Jazz
-        Long jazzGenreId = em.createQuery(
-            "SELECT g.id FROM Genre g WHERE LOWER(g.name) = 'jazz'", Long.class)
-            .getResultStream()
-            .findFirst()
-            .orElse(null);
+        Long jazzGenreId = reports.findGenreId("jazz").orElse(null);
         
         if (jazzGenreId != null) {
-            Long playlistsOnlyJazz = em.createQuery(
-                "SELECT COUNT(DISTINCT p.id) FROM Playlist p " +
-                "WHERE EXISTS (SELECT 1 FROM PlaylistTrack pt1 WHERE pt1.playlist = p) " +
-                "AND NOT EXISTS (" +
-                "  SELECT 1 FROM PlaylistTrack pt2 JOIN pt2.track t2 " +
-                "  WHERE pt2.playlist = p AND (t2.genre IS NULL OR t2.genre.id <> :jazzId)" +
-                ")",
-                Long.class)
-                .setParameter("jazzId", jazzGenreId)
-                .getSingleResult();
+            // Desde los agregados por playlist / género, sin NOT EXISTS correlacionado
+            long playlistsOnlyJazz = reports.countPlaylistsWithOnlyGenre(jazzGenreId);
             
             System.out.println("   Cantidad: " + playlistsOnlyJazz);
         } else {
@@ -0,0 +1,461 @@
+package com.recup.backend.infra;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * Tokenizer CSV (RFC 4180) sobre bytes UTF-8, sin crear Strings por campo.
+ *
+ * - Archivos en disco: se leen con un FileChannel mapeado en memoria (ventanas de {@value #WINDOW_SIZE} bytes).
+ * - Recursos dentro de un jar u otros streams: buffer en heap que se rellena a medida que se consume.
+ * - Soporta campos entre comillas con comas, saltos de línea y comillas escapadas ("").
+ * - Cada campo se expone como un slice (largo + byteAt) ya recortado de espacios, como String.trim().
+ *   Solo {@link #string(int)} crea un String: el llamador decide para qué campos vale la pena.
+ *
+ * No es thread-safe. Los slices son válidos hasta el siguiente {@link #nextRecord()}.
+ */
+public final class CsvTokenizer implements AutoCloseable {
+
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 1024 * 1024;
+
+    private ByteBuffer buf;
+    private int pos;            // inicio del próximo registro dentro de buf
+    private boolean eof;        // no hay más datos después de buf.limit()
+
+    // Modo mmap
+    private FileChannel channel;
+    private long windowOffset;  // posición en el archivo del byte 0 de buf
+    private long fileSize;
+
+    // Modo stream
+    private ReadableByteChannel stream;
+
+    // Registro actual
+    private int recordStart;
+    private int recordEnd;
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] lengths = new int[16];
+    private boolean[] inScratch = new boolean[16];
+    private byte[] scratch = new byte[256]; // campos con comillas escapadas ya des-escapados
+    private int scratchLength;
+
+    private CsvTokenizer() {
+    }
+
+    /** Abre un archivo en disco mapeándolo en memoria. */
+    public static CsvTokenizer open(Path file) throws IOException {
+        CsvTokenizer t = new CsvTokenizer();
+        t.channel = FileChannel.open(file, StandardOpenOption.READ);
+        t.fileSize = t.channel.size();
+        t.mapWindow(0, 0);
+        t.skipBom();
+        return t;
+    }
+
+    /**
+     * Abre una ruta en disco si existe; si no, la busca como recurso del classpath.
+     * @return el tokenizer o null si no existe ni como archivo ni como recurso
+     */
+    public static CsvTokenizer openSource(String location) throws IOException {
+        Path file = Paths.get(location);
+        if (Files.isRegularFile(file)) {
+            return open(file);
+        }
+        return openResource(location);
+    }
+
+    /**
+     * Abre un recurso del classpath: mmap si está en disco, stream si está dentro de un jar.
+     * @return el tokenizer o null si el recurso no existe
+     */
+    public static CsvTokenizer openResource(String resourcePath) throws IOException {
+        URL url = CsvTokenizer.class.getClassLoader().getResource(resourcePath);
+        if (url == null) {
+            return null;
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Paths.get(url.toURI()));
+            } catch (URISyntaxException e) {
+                // se sigue con el stream
+            }
+        }
+        return of(url.openStream());
+    }
+
+    /** Tokenizer sobre un stream (se lee por bloques). */
+    public static CsvTokenizer of(InputStream in) throws IOException {
+        CsvTokenizer t = new CsvTokenizer();
+        t.stream = Channels.newChannel(in);
+        t.buf = ByteBuffer.allocate(STREAM_BUFFER_SIZE).limit(0);
+        t.refillStream();
+        t.skipBom();
+        return t;
+    }
+
+    /** Tokenizer sobre bytes ya en memoria (ej: un registro copiado con {@link #recordBytes()}). */
+    public static CsvTokenizer of(byte[] data) {
+        CsvTokenizer t = new CsvTokenizer();
+        t.buf = ByteBuffer.wrap(data);
+        t.eof = true;
+        return t;
+    }
+
+    private void skipBom() {
+        if (buf.limit() >= 3 && (buf.get(0) & 0xFF) == 0xEF && (buf.get(1) & 0xFF) == 0xBB && (buf.get(2) & 0xFF) == 0xBF) {
+            pos = 3;
+        }
+    }
+
+    /**
+     * Avanza al siguiente registro.
+     * @return false si no hay más registros
+     */
+    public boolean nextRecord() throws IOException {
+        while (true) {
+            if (pos >= buf.limit()) {
+                if (eof) {
+                    fieldCount = 0;
+                    return false;
+                }
+                refill();
+                continue;
+            }
+            int end = parseRecord(pos);
+            if (end >= 0) {
+                recordStart = pos;
+                pos = end;
+                return true;
+            }
+            refill();
+        }
+    }
+
+    /**
+     * Parsea el registro que empieza en {@code start}.
+     * @return posición siguiente al fin de línea, o -1 si el registro sigue fuera del buffer
+     */
+    private int parseRecord(int start) {
+        fieldCount = 0;
+        scratchLength = 0;
+        int limit = buf.limit();
+        int i = start;
+        while (true) {
+            // Inicio de campo: saltar espacios para detectar comillas
+            int fieldStart = i;
+            int j = i;
+            while (j < limit && isSpace(buf.get(j))) j++;
+            if (j < limit && buf.get(j) == '"') {
+                i = parseQuoted(j + 1, limit);
+                if (i < 0) {
+                    return -1;
+                }
+            } else {
+                while (i < limit) {
+                    byte b = buf.get(i);
+                    if (b == ',' || b == '\n' || b == '\r') break;
+                    i++;
+                }
+                if (i >= limit && !eof) {
+                    return -1;
+                }
+                addField(fieldStart, i - fieldStart, false);
+            }
+            // Separador o fin de registro
+            if (i >= limit) {
+                recordEnd = limit;
+                return limit;
+            }
+            byte b = buf.get(i);
+            if (b == ',') {
+                i++;
+                continue;
+            }
+            recordEnd = i;
+            if (b == '\r') {
+                if (i + 1 >= limit && !eof) {
+                    return -1;
+                }
+                if (i + 1 < limit && buf.get(i + 1) == '\n') {
+                    return i + 2;
+                }
+            }
+            return i + 1;
+        }
+    }
+
+    /**
+     * Campo entre comillas; {@code i} apunta al primer byte después de la comilla de apertura.
+     * Si no hay escapes ni basura tras la comilla de cierre, el campo es un slice directo del buffer.
+     * @return posición del separador / fin de línea, o -1 si el campo sigue fuera del buffer
+     */
+    private int parseQuoted(int i, int limit) {
+        int contentStart = i;
+        int scratchStart = -1;
+        while (true) {
+            if (i >= limit) {
+                if (!eof) {
+                    return -1;
+                }
+                // Comilla sin cerrar al final del archivo: se toma hasta el final
+                finishQuoted(contentStart, i, scratchStart);
+                return i;
+            }
+            byte b = buf.get(i);
+            if (b == '"') {
+                if (i + 1 >= limit && !eof) {
+                    return -1;
+                }
+                if (i + 1 < limit && buf.get(i + 1) == '"') {
+                    // Comilla escapada: a partir de acá el campo se arma en scratch
+                    if (scratchStart < 0) {
+                        scratchStart = scratchLength;
+                        appendScratch(contentStart, i - contentStart);
+                    }
+                    appendScratchByte((byte) '"');
+                    i += 2;
+                    continue;
+                }
+                // Comilla de cierre
+                int contentEnd = i;
+                i++;
+                int afterStart = i;
+                while (i < limit) {
+                    byte c = buf.get(i);
+                    if (c == ',' || c == '\n' || c == '\r') break;
+                    i++;
+                }
+                if (i >= limit && !eof) {
+                    return -1;
+                }
+                if (!isBlank(afterStart, i)) {
+                    // Texto después de la comilla de cierre: se agrega tal cual (tolerante)
+                    if (scratchStart < 0) {
+                        scratchStart = scratchLength;
+                        appendScratch(contentStart, contentEnd - contentStart);
+                    }
+                    appendScratch(afterStart, i - afterStart);
+                }
+                finishQuoted(contentStart, contentEnd, scratchStart);
+                return i;
+            }
+            if (scratchStart >= 0) {
+                appendScratchByte(b);
+            }
+            i++;
+        }
+    }
+
+    private void finishQuoted(int contentStart, int contentEnd, int scratchStart) {
+        if (scratchStart >= 0) {
+            addField(scratchStart, scratchLength - scratchStart, true);
+        } else {
+            addField(contentStart, contentEnd - contentStart, false);
+        }
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int k = from; k < to; k++) {
+            if (!isSpace(buf.get(k))) return false;
+        }
+        return true;
+    }
+
+    private void addField(int start, int length, boolean fromScratch) {
+        if (fieldCount == starts.length) {
+            int n = fieldCount * 2;
+            starts = Arrays.copyOf(starts, n);
+            lengths = Arrays.copyOf(lengths, n);
+            inScratch = Arrays.copyOf(inScratch, n);
+        }
+        // trim (mismo criterio que String.trim: bytes <= ' ')
+        int end = start + length;
+        while (start < end && isSpace(rawByte(fromScratch, start))) start++;
+        while (end > start && isSpace(rawByte(fromScratch, end - 1))) end--;
+        starts[fieldCount] = start;
+        lengths[fieldCount] = end - start;
+        inScratch[fieldCount] = fromScratch;
+        fieldCount++;
+    }
+
+    private void appendScratch(int from, int length) {
+        ensureScratch(length);
+        for (int k = 0; k < length; k++) {
+            scratch[scratchLength++] = buf.get(from + k);
+        }
+    }
+
+    private void appendScratchByte(byte b) {
+        ensureScratch(1);
+        scratch[scratchLength++] = b;
+    }
+
+    private void ensureScratch(int extra) {
+        if (scratchLength + extra > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + extra));
+        }
+    }
+
+    private byte rawByte(boolean fromScratch, int index) {
+        return fromScratch ? scratch[index] : buf.get(index);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /** Trae más datos conservando el registro en curso (desde {@code pos}). */
+    private void refill() throws IOException {
+        if (channel != null) {
+            mapWindow(windowOffset + pos, buf.limit() - pos);
+        } else {
+            refillStream();
+        }
+    }
+
+    private void mapWindow(long offset, int pendingBytes) throws IOException {
+        long remaining = fileSize - offset;
+        long size = Math.min(remaining, WINDOW_SIZE);
+        if (size <= pendingBytes) {
+            // Un registro más grande que la ventana: agrandar
+            size = Math.min(remaining, (long) pendingBytes * 2 + 1);
+        }
+        size = Math.min(size, Integer.MAX_VALUE);
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        windowOffset = offset;
+        pos = 0;
+        eof = offset + size >= fileSize;
+    }
+
+    private void refillStream() throws IOException {
+        if (pos > 0) {
+            buf.position(pos);
+            buf.compact().flip();
+            pos = 0;
+        }
+        if (buf.limit() == buf.capacity()) {
+            ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+            bigger.put(buf).flip();
+            buf = bigger;
+        }
+        buf.position(buf.limit()).limit(buf.capacity());
+        int read = 0;
+        while (buf.hasRemaining() && (read = stream.read(buf)) >= 0) {
+            // seguir llenando
+        }
+        eof = read < 0;
+        buf.flip();
+        buf.position(0);
+    }
+
+    // ───────────────────────── Acceso al registro actual ─────────────────────────
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /** Registro vacío o con solo espacios (se ignora sin contarlo como omitido). */
+    public boolean isBlankRecord() {
+        return fieldCount == 1 && lengths[0] == 0;
+    }
+
+    public int length(int field) {
+        return lengths[field];
+    }
+
+    public boolean isEmpty(int field) {
+        return lengths[field] == 0;
+    }
+
+    public byte byteAt(int field, int index) {
+        return rawByte(inScratch[field], starts[field] + index);
+    }
+
+    /** Crea el String del campo (única operación que asigna memoria). */
+    public String string(int field) {
+        byte[] bytes = new byte[lengths[field]];
+        copy(field, bytes, 0);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void copy(int field, byte[] target, int offset) {
+        int start = starts[field];
+        int length = lengths[field];
+        if (inScratch[field]) {
+            System.arraycopy(scratch, start, target, offset, length);
+        } else {
+            for (int k = 0; k < length; k++) {
+                target[offset + k] = buf.get(start + k);
+            }
+        }
+    }
+
+    /** true si el campo es un entero válido para Integer.parseInt. */
+    public boolean isInt(int field) {
+        int length = lengths[field];
+        if (length == 0) return false;
+        int k = 0;
+        byte first = byteAt(field, 0);
+        if (first == '-' || first == '+') {
+            if (length == 1) return false;
+            k = 1;
+        }
+        long value = 0;
+        for (; k < length; k++) {
+            byte b = byteAt(field, k);
+            if (b < '0' || b > '9') return false;
+            value = value * 10 + (b - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) return false;
+        }
+        return first == '-' ? -value >= Integer.MIN_VALUE : value <= Integer.MAX_VALUE;
+    }
+
+    /** Valor entero del campo; llamar solo si {@link #isInt(int)}. */
+    public int intValue(int field) {
+        int length = lengths[field];
+        int k = 0;
+        byte first = byteAt(field, 0);
+        boolean negative = first == '-';
+        if (negative || first == '+') k = 1;
+        long value = 0;
+        for (; k < length; k++) {
+            value = value * 10 + (byteAt(field, k) - '0');
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /** Copia de los bytes crudos del registro actual (sin el fin de línea). */
+    public byte[] recordBytes() {
+        byte[] bytes = new byte[recordEnd - recordStart];
+        for (int k = 0; k < bytes.length; k++) {
+            bytes[k] = buf.get(recordStart + k);
+        }
+        return bytes;
+    }
+
+    /** Agrega los bytes crudos del registro actual a un checksum, sin copiarlos a un arreglo. */
+    public void updateChecksum(Checksum checksum) {
+        checksum.update(buf.duplicate().limit(recordEnd).position(recordStart));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+        if (stream != null) stream.close();
+    }
+}
@@ -4,44 +4,93 @@ import org.h2.jdbcx.JdbcDataSource;
 import javax.sql.DataSource;
 
 /**
- * Proveedor de DataSource para H2 en memoria (embedded).
- * 
+ * Proveedor de DataSource para H2 embedded, en memoria (por defecto) o en archivo.
+ *
  * Configuración:
- * - URL: jdbc:h2:mem:recup
- * - DB_CLOSE_DELAY=-1 (mantener BD en memoria hasta que JVM termine)
- * - DB_CLOSE_ON_EXIT=FALSE (no cerrar al salir del último connection)
+ * - -Ddb.mode=mem: jdbc:h2:mem:database
+ *   - DB_CLOSE_DELAY=-1 (mantener BD en memoria hasta que JVM termine)
+ *   - DB_CLOSE_ON_EXIT=FALSE (no cerrar al salir del último connection)
+ * - -Ddb.mode=file: jdbc:h2:file:&lt;db.file&gt; (MVStore, por defecto {@value #DEFAULT_DB_FILE}); la base
+ *   sobrevive entre ejecuciones y DbInitializer / App evitan repetir el DDL y la importación
  * - Usuario: sa (sin contraseña)
- * 
- * Usado por DbInitializer para ejecutar el DDL via JDBC puro.
+ * - Pool de conexiones ({@link ConnectionPool}): -Ddb.pool.size (por defecto 2 × procesadores, mínimo 8)
+ *   y -Ddb.pool.timeout en ms (por defecto 30000)
+ * - Cache de statements: H2 guarda por conexión los últimos N comandos preparados (QUERY_CACHE_SIZE);
+ *   como las conexiones del pool se reutilizan, el cache se aprovecha entre préstamos. -Ddb.statement.cache
+ *   (por defecto {@value #DEFAULT_STATEMENT_CACHE})
+ *
+ * Usado por DbInitializer para ejecutar el DDL via JDBC puro y por JPA (LocalEntityManagerProvider).
  */
 public class DataSourceProvider {
-    private static DataSource dataSource;
-    
+    private static volatile ConnectionPool dataSource;
+
     // URL H2 según requisitos: jdbc:h2:mem:database;DB_CLOSE_DELAY=-1
-    private static final String H2_URL = "jdbc:h2:mem:database;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final String H2_MEM_URL = "jdbc:h2:mem:database;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    // Archivo: se cierra (y escribe todo) al cerrar el pool o, si no, con el shutdown hook de H2
+    private static final String H2_FILE_URL = "jdbc:h2:file:";
+
+    /** Ruta por defecto de la base en modo archivo (H2 agrega la extensión .mv.db). */
+    public static final String DEFAULT_DB_FILE = "./data/recup";
+
     private static final String H2_USER = "sa";
     private static final String H2_PASSWORD = "";
 
+    /** Comandos preparados que H2 cachea por conexión (su valor por defecto es 8). */
+    public static final int DEFAULT_STATEMENT_CACHE = 64;
+
     /**
-     * Obtiene el DataSource singleton para H2 en memoria.
-     * 
+     * Obtiene el DataSource singleton para H2 (con pool de conexiones).
+     * Thread-safe: la primera llamada crea el pool una sola vez.
+     *
      * @return DataSource configurado para H2 embedded
      */
     public static DataSource getDataSource() {
-        if (dataSource == null) {
-            JdbcDataSource ds = new JdbcDataSource();
-            ds.setURL(H2_URL);
-            ds.setUser(H2_USER);
-            ds.setPassword(H2_PASSWORD);
-            dataSource = ds;
+        return pool();
+    }
+
+    /** El pool detrás de {@link #getDataSource()}, para consultar sus métricas. */
+    public static ConnectionPool pool() {
+        ConnectionPool pool = dataSource;
+        if (pool == null) {
+            synchronized (DataSourceProvider.class) {
+                pool = dataSource;
+                if (pool == null) {
+                    JdbcDataSource ds = new JdbcDataSource();
+                    ds.setURL(getUrl() + ";QUERY_CACHE_SIZE="
+                            + Math.max(0, Integer.getInteger("db.statement.cache", DEFAULT_STATEMENT_CACHE)));
+                    ds.setUser(H2_USER);
+                    ds.setPassword(H2_PASSWORD);
+                    int size = Integer.getInteger("db.pool.size",
+                            Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+                    long timeout = Long.getLong("db.pool.timeout", 30_000L);
+                    pool = new ConnectionPool(ds, size, timeout);
+                    dataSource = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Cierra las conexiones del pool (la base en memoria sigue viva por DB_CLOSE_DELAY=-1).
+     * Un getDataSource() posterior crea un pool nuevo.
+     */
+    public static synchronized void close() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
         }
-        return dataSource;
     }
-    
+
+    /** true con -Ddb.mode=file: los datos persisten entre ejecuciones. */
+    public static boolean isPersistent() {
+        return System.getProperty("db.mode", "mem").trim().equalsIgnoreCase("file");
+    }
+
     /**
      * Obtiene la URL de conexión H2 (útil para debugging).
      */
     public static String getUrl() {
-        return H2_URL;
+        return isPersistent() ? H2_FILE_URL + System.getProperty("db.file", DEFAULT_DB_FILE) : H2_MEM_URL;
     }
 }
@@ -1,27 +1,52 @@
 package com.recup.backend.infra;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.stream.Collectors;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Inicializador de base de datos.
- * Ejecuta el DDL completo (database-ddl.sql) via JDBC antes de usar JPA.
+ * Ejecuta el DDL completo (database-ddl.sql, parseado por {@link DdlScript}) via JDBC antes de usar JPA,
+ * en un único batch. Registra el tiempo de cada fase en {@link StartupTimings}.
  * 
  * Incluye:
  * - Creación de secuencias (CREATE SEQUENCE ...)
  * - Creación de tablas (todas las tablas del modelo)
  * - Definición de claves primarias y foráneas
  * - Creación de índices (si aplica)
+ *
+ * Versión del esquema: SCHEMA_INFO guarda {@link DdlScript#SCHEMA_VERSION}. Si la base ya tiene esa
+ * versión (ej: archivo de una ejecución anterior con -Ddb.mode=file) no se ejecuta nada. Si tiene otra
+ * (o es anterior al control de versión) el arranque falla sin tocarla: la base puede tener facturas,
+ * clientes y empleados que la importación del CSV no restaura. Solo con -Ddb.recreate=true se borra
+ * todo y se vuelve a crear.
  */
 public class DbInitializer {
+
+    /** Tamaño de bloque de IDs por defecto (INCREMENT BY del DDL y allocationSize de las entidades). */
+    public static final int DEFAULT_ID_BLOCK_SIZE = 50;
+
+    /**
+     * Tamaño de bloque de IDs configurado con -Did.block.size (por defecto {@value #DEFAULT_ID_BLOCK_SIZE}).
+     */
+    public static int idBlockSize() {
+        return Math.max(1, Integer.getInteger("id.block.size", DEFAULT_ID_BLOCK_SIZE));
+    }
     
-    public static void initDatabase() {
+    private enum SchemaState { EMPTY, CURRENT, OUTDATED }
+
+    /** true con -Ddb.recreate=true: una base con otra versión del esquema se borra y se vuelve a crear. */
+    public static boolean recreateRequested() {
+        return Boolean.getBoolean("db.recreate");
+    }
+
+    /**
+     * @return true si se ejecutó el DDL (base nueva o de otra versión), false si el esquema ya estaba al día
+     */
+    public static boolean initDatabase() {
         System.out.println("╔═══════════════════════════════════════════════════════════╗");
         System.out.println("║  INICIALIZACIÓN DE BASE DE DATOS H2                       ║");
         System.out.println("╚═══════════════════════════════════════════════════════════╝");
@@ -32,79 +57,76 @@ public class DbInitializer {
              Statement stmt = conn.createStatement()) {
             
             System.out.println("🔗 Conexión H2 establecida: " + conn.getMetaData().getURL());
-            
-            // Leer database-ddl.sql desde classpath (con try-with-resources)
-            InputStream is = DbInitializer.class.getClassLoader()
-                    .getResourceAsStream("sql/database-ddl.sql");
-            
-            if (is == null) {
-                throw new RuntimeException("❌ No se encontró sql/database-ddl.sql en el classpath");
-            }
-            
-            String ddl;
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                ddl = reader.lines().collect(Collectors.joining("\n"));
-            }
-            
-            System.out.println("📄 Archivo DDL cargado correctamente");
-            System.out.println();
-            
-            // Contadores para feedback
-            int sequencesCreated = 0;
-            int tablesCreated = 0;
-            int constraintsCreated = 0;
-            int statementsExecuted = 0;
-            
-            // Pre-procesar: eliminar comentarios de línea y normalizar espacios
-            String normalized = ddl.replaceAll("--.*", "")
-                                   .replaceAll("/\\*.*?\\*/", "")
-                                   .replaceAll("\\r", "")
-                                   .trim();
+            StartupTimings.phase("Conexión H2");
 
-            // Separar por punto y coma manteniendo CREATE multi-línea
-            String[] statements = normalized.split(";");
+            // database-ddl.sql parseado una vez por JVM (lista de statements en caché)
+            DdlScript ddl = DdlScript.load(idBlockSize());
+            StartupTimings.phase("DDL: lectura y parseo");
 
-            for (String raw : statements) {
-                String sql = raw.trim();
-                if (sql.isEmpty()) {
-                    continue;
+            Long stored = storedVersion(stmt);
+            SchemaState state = stored == null ? SchemaState.EMPTY
+                    : stored == ddl.version() ? SchemaState.CURRENT : SchemaState.OUTDATED;
+            StartupTimings.phase("Esquema: verificación de versión");
+            if (state == SchemaState.CURRENT) {
+                System.out.println("✅ Esquema al día (versión " + ddl.version() + "): se omite el DDL");
+                checkBlockSize(conn, ddl);
+                System.out.println();
+                return false;
+            }
+            if (state == SchemaState.OUTDATED) {
+                String found = stored < 0 ? "sin versión" : "versión " + stored;
+                if (!recreateRequested()) {
+                    throw new IllegalStateException("La base " + conn.getMetaData().getURL() + " tiene otro esquema ("
+                            + found + ", esta aplicación usa la versión " + ddl.version() + "). No se modificó: "
+                            + "usar otro -Ddb.file o -Ddb.recreate=true para borrarla y recrearla (se pierden todos "
+                            + "los datos, incluidas facturas, clientes y empleados)");
                 }
-                // Ejecutar statement
-                stmt.execute(sql);
-                statementsExecuted++;
+                System.out.println("⚠️ -Ddb.recreate=true: se borra la base (" + found + ") y se recrea con la versión "
+                        + ddl.version() + " (hay que volver a importar)");
+                stmt.execute("DROP ALL OBJECTS");
+            }
 
-                String upperSql = sql.toUpperCase();
-                if (upperSql.startsWith("CREATE SEQUENCE")) {
-                    sequencesCreated++;
-                    System.out.println("   ✓ Secuencia creada");
-                } else if (upperSql.startsWith("CREATE TABLE")) {
-                    tablesCreated++;
-                    String tableName = extractTableName(sql);
-                    System.out.println("   ✓ Tabla creada: " + tableName);
-                } else if (upperSql.startsWith("ALTER TABLE") || upperSql.contains("FOREIGN KEY")) {
-                    constraintsCreated++;
-                } else if (upperSql.startsWith("CREATE INDEX")) {
-                    System.out.println("   ✓ Índice creado");
+            // Todo el script en un único batch y una transacción (H2 confirma cada DDL igual,
+            // pero se evita un round-trip y un commit explícito por statement)
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (String sql : ddl.statements()) {
+                    stmt.addBatch(sql);
                 }
+                stmt.addBatch("CREATE TABLE IF NOT EXISTS SCHEMA_INFO (ID INTEGER PRIMARY KEY, "
+                        + "SCHEMA_VERSION BIGINT NOT NULL, APPLIED_AT TIMESTAMP)");
+                stmt.addBatch("MERGE INTO SCHEMA_INFO (ID, SCHEMA_VERSION, APPLIED_AT) KEY (ID) "
+                        + "VALUES (1, " + ddl.version() + ", CURRENT_TIMESTAMP)");
+                stmt.executeBatch();
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
             }
-            
-            System.out.println();
+            StartupTimings.phase("DDL: ejecución (batch)");
+
             System.out.println("═══════════════════════════════════════════════════════════");
             System.out.println("📊 RESUMEN DE INICIALIZACIÓN:");
-            System.out.println("   Statements ejecutados: " + statementsExecuted);
-            System.out.println("   Secuencias creadas:    " + sequencesCreated);
-            System.out.println("   Tablas creadas:        " + tablesCreated);
-            if (constraintsCreated > 0) {
-                System.out.println("   Constraints (FK):      " + constraintsCreated);
+            System.out.println("   Statements ejecutados: " + ddl.statements().size());
+            System.out.println("   Secuencias creadas:    " + ddl.sequences().size() + " (bloque de IDs: " + ddl.blockSize() + ")");
+            System.out.println("   Tablas creadas:        " + ddl.tables().size());
+            System.out.println("   Índices:               " + ddl.indexCount());
+            if (ddl.foreignKeyCount() > 0) {
+                System.out.println("   Constraints (FK):      " + ddl.foreignKeyCount());
             }
             System.out.println("═══════════════════════════════════════════════════════════");
             
-            // Validar que las tablas principales existen
-            validateDatabaseStructure(conn);
+            // Validar que las tablas y secuencias del script existen
+            validateDatabaseStructure(conn, ddl);
+            StartupTimings.phase("DDL: validación");
             
             System.out.println();
             System.out.println("✅ Base de datos H2 inicializada correctamente");
             System.out.println();
+            return true;
             
         } catch (Exception e) {
             System.err.println();
@@ -114,61 +136,61 @@ public class DbInitializer {
             throw new RuntimeException("Fallo en inicialización de BD", e);
         }
     }
-    
+
+    /** Versión guardada en SCHEMA_INFO: null si la base está vacía, -1 si tiene tablas pero no versión. */
+    private static Long storedVersion(Statement stmt) throws Exception {
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*), "
+                + "COUNT(CASE WHEN TABLE_NAME = 'SCHEMA_INFO' THEN 1 END) "
+                + "FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'")) {
+            rs.next();
+            if (rs.getInt(1) == 0) {
+                return null;
+            }
+            if (rs.getInt(2) == 0) {
+                return -1L; // base anterior al control de versión
+            }
+        }
+        try (ResultSet rs = stmt.executeQuery("SELECT SCHEMA_VERSION FROM SCHEMA_INFO WHERE ID = 1")) {
+            return rs.next() ? rs.getLong(1) : -1L;
+        }
+    }
+
     /**
-     * Extrae el nombre de la tabla de un CREATE TABLE statement
+     * Las secuencias de una base existente conservan el incremento con que se crearon: Hibernate y
+     * {@link SequenceBlockAllocator} lo leen de la base, así que otro -Did.block.size solo se informa.
      */
-    private static String extractTableName(String createTableSql) {
-        try {
-            String upper = createTableSql.toUpperCase();
-            int start = upper.indexOf("CREATE TABLE") + 12;
-            int ifNotExists = upper.indexOf("IF NOT EXISTS");
-            if (ifNotExists > 0) {
-                start = ifNotExists + 13;
-            }
-            String rest = createTableSql.substring(start).trim();
-            int end = rest.indexOf("(");
-            if (end > 0) {
-                return rest.substring(0, end).trim();
+    private static void checkBlockSize(Connection conn, DdlScript ddl) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MIN(INCREMENT), MAX(INCREMENT) "
+                + "FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC' AND SEQUENCE_NAME LIKE 'SEQ\\_%'");
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next() && (rs.getLong(1) != ddl.blockSize() || rs.getLong(2) != ddl.blockSize())) {
+                System.out.println("ℹ️ Las secuencias de la base usan bloques de " + rs.getLong(1)
+                        + (rs.getLong(1) != rs.getLong(2) ? "-" + rs.getLong(2) : "") + " IDs; -Did.block.size="
+                        + ddl.blockSize() + " solo se aplica al crear la base");
             }
-            return "???";
-        } catch (Exception e) {
-            return "???";
         }
     }
-    
+
     /**
-     * Valida que las tablas principales y secuencias existen en la BD
+     * Valida con una sola consulta de metadatos que existen todas las tablas y secuencias del script.
      */
-    private static void validateDatabaseStructure(Connection conn) throws Exception {
+    private static void validateDatabaseStructure(Connection conn, DdlScript ddl) throws Exception {
         System.out.println();
         System.out.println("🔍 Validando estructura de la base de datos...");
-        
-        try (Statement stmt = conn.createStatement()) {
-            // Verificar algunas tablas clave
-            String[] expectedTables = {"ARTISTS", "ALBUMS", "TRACKS", "CUSTOMERS", "INVOICES"};
-            
-            for (String table : expectedTables) {
-                ResultSet rs = stmt.executeQuery(
-                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = '" + table + "'"
-                );
-                if (rs.next() && rs.getInt(1) == 1) {
-                    System.out.println("   ✓ Tabla " + table + " existe");
-                } else {
-                    throw new RuntimeException("Tabla " + table + " no fue creada");
-                }
-                rs.close();
-            }
-            
-            // Verificar algunas secuencias
-            ResultSet rs = stmt.executeQuery(
-                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME LIKE 'SEQ_%'"
-            );
-            if (rs.next()) {
-                int seqCount = rs.getInt(1);
-                System.out.println("   ✓ Secuencias detectadas: " + seqCount);
+
+        Set<String> missing = new LinkedHashSet<>(ddl.tables());
+        missing.addAll(ddl.sequences());
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' "
+                        + "UNION ALL SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'PUBLIC'");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                missing.remove(rs.getString(1));
             }
-            rs.close();
         }
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Objetos no creados: " + missing);
+        }
+        System.out.println("   ✓ Tablas: " + ddl.tables().size() + ", secuencias: " + ddl.sequences().size());
     }
 }
@@ -0,0 +1,187 @@
+package com.recup.backend.infra;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Script DDL ya parseado: lista de statements lista para ejecutar en batch, más los nombres de tablas y
+ * secuencias que crea (para validar la estructura).
+ *
+ * El parseo es una sola pasada carácter a carácter: descarta comentarios (-- y /* *&#47;), respeta literales
+ * entre comillas simples y dobles y corta en cada ';' de nivel superior. Se hace una vez por JVM
+ * ({@link #load(int)} cachea el resultado).
+ */
+public final class DdlScript {
+
+    /** Recurso del classpath con el DDL. */
+    public static final String RESOURCE = "sql/database-ddl.sql";
+
+    /**
+     * Versión del esquema que se guarda en SCHEMA_INFO. Subirla con cada cambio de tablas, columnas,
+     * índices o secuencias de {@value #RESOURCE}: una base con otra versión no se usa (ver
+     * {@link DbInitializer}). Los comentarios del script y el bloque de IDs no la cambian.
+     */
+    public static final long SCHEMA_VERSION = 1;
+
+    private static final Pattern CREATE_NAME = Pattern.compile(
+            "^CREATE\\s+(?:UNIQUE\\s+)?(SEQUENCE|TABLE|INDEX)\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?([A-Za-z0-9_\"]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INCREMENT_BY = Pattern.compile("(?i)INCREMENT BY \\d+");
+
+    private static volatile DdlScript cached;
+
+    private final int blockSize;
+    private final List<String> statements;
+    private final List<String> tables;
+    private final List<String> sequences;
+    private final int indexes;
+    private final int foreignKeys;
+
+    private DdlScript(int blockSize, List<String> statements, List<String> tables,
+                      List<String> sequences, int indexes, int foreignKeys) {
+        this.blockSize = blockSize;
+        this.statements = Collections.unmodifiableList(statements);
+        this.tables = Collections.unmodifiableList(tables);
+        this.sequences = Collections.unmodifiableList(sequences);
+        this.indexes = indexes;
+        this.foreignKeys = foreignKeys;
+    }
+
+    /**
+     * El DDL del classpath parseado con el bloque de IDs indicado (INCREMENT BY de las secuencias).
+     * Se lee y parsea solo la primera vez (o si cambia el bloque).
+     */
+    public static DdlScript load(int blockSize) throws IOException {
+        DdlScript script = cached;
+        if (script == null || script.blockSize != blockSize) {
+            try (InputStream is = DdlScript.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+                if (is == null) {
+                    throw new IOException("No se encontró " + RESOURCE + " en el classpath");
+                }
+                script = parse(new String(is.readAllBytes(), StandardCharsets.UTF_8), blockSize);
+            }
+            cached = script;
+        }
+        return script;
+    }
+
+    public static DdlScript parse(String text, int blockSize) {
+        List<String> statements = new ArrayList<>();
+        List<String> tables = new ArrayList<>();
+        List<String> sequences = new ArrayList<>();
+        int indexes = 0;
+        int foreignKeys = 0;
+        for (String sql : split(text)) {
+            Matcher m = CREATE_NAME.matcher(sql);
+            if (m.find()) {
+                String kind = m.group(1).toUpperCase(Locale.ROOT);
+                String name = m.group(2).replace("\"", "").toUpperCase(Locale.ROOT);
+                switch (kind) {
+                    case "SEQUENCE" -> {
+                        sql = INCREMENT_BY.matcher(sql).replaceAll("INCREMENT BY " + blockSize);
+                        sequences.add(name);
+                    }
+                    case "TABLE" -> tables.add(name);
+                    default -> indexes++;
+                }
+            }
+            foreignKeys += count(sql.toUpperCase(Locale.ROOT), "FOREIGN KEY");
+            statements.add(sql);
+        }
+        return new DdlScript(blockSize, statements, tables, sequences, indexes, foreignKeys);
+    }
+
+    /** Statements sin comentarios ni ';' final, recortados; se omiten los vacíos. */
+    static List<String> split(String text) {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            char next = i + 1 < n ? text.charAt(i + 1) : 0;
+            if (c == '-' && next == '-') {
+                while (i < n && text.charAt(i) != '\n') i++;
+                current.append('\n');
+            } else if (c == '/' && next == '*') {
+                int end = text.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 1;
+                current.append(' ');
+            } else if (c == '\'' || c == '"') {
+                // literal / identificador entre comillas; la comilla duplicada es un escape
+                current.append(c);
+                for (i++; i < n; i++) {
+                    char q = text.charAt(i);
+                    current.append(q);
+                    if (q == c) {
+                        if (i + 1 < n && text.charAt(i + 1) == c) {
+                            current.append(c);
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                }
+            } else if (c == ';') {
+                add(result, current);
+            } else if (c != '\r') {
+                current.append(c);
+            }
+        }
+        add(result, current);
+        return result;
+    }
+
+    private static void add(List<String> result, StringBuilder current) {
+        String sql = current.toString().trim();
+        if (!sql.isEmpty()) {
+            result.add(sql);
+        }
+        current.setLength(0);
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + token.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /** Versión del esquema ({@link #SCHEMA_VERSION}). */
+    public long version() {
+        return SCHEMA_VERSION;
+    }
+
+    public List<String> statements() {
+        return statements;
+    }
+
+    /** Tablas creadas por el script (nombres en mayúsculas). */
+    public List<String> tables() {
+        return tables;
+    }
+
+    /** Secuencias creadas por el script (nombres en mayúsculas). */
+    public List<String> sequences() {
+        return sequences;
+    }
+
+    public int indexCount() {
+        return indexes;
+    }
+
+    public int foreignKeyCount() {
+        return foreignKeys;
+    }
+}
@@ -0,0 +1,229 @@
+package com.recup.backend.infra;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cache de una dimensión (playlists, artistas, tracks, ...): interna cada nombre en un ID denso
+ * (0, 1, 2, ...) y guarda el ID de la base de cada uno.
+ *
+ * Los nombres se guardan como bytes UTF-8 uno detrás de otro en un único arreglo (arena), sin un
+ * String ni un byte[] por clave; el resto son arreglos primitivos indexados por el ID denso. Se
+ * consulta directamente con los campos de un {@link CsvTokenizer}. Las claves compuestas se unen con
+ * '|' (ej: trackName|albumTitle). Direccionamiento abierto con sondeo lineal; no es thread-safe.
+ */
+public final class DimensionCache {
+
+    /** Resultado de {@code find} cuando el nombre no está en el cache. */
+    public static final int NOT_FOUND = -1;
+
+    private static final byte SEPARATOR = '|';
+    private static final int HASH_SEED = 0x811C9DC5;
+
+    // Claves: bytes en la arena, [offsets[d], offsets[d] + lengths[d])
+    private byte[] arena = new byte[4096];
+    private int arenaLength;
+
+    // Por ID denso
+    private int[] offsets;
+    private int[] lengths;
+    private int[] hashes;
+    private long[] dbIds;
+    private int size;
+
+    // Tabla hash: ID denso + 1 (0 = slot vacío)
+    private int[] table;
+    private int mask;
+
+    public DimensionCache() {
+        this(64);
+    }
+
+    public DimensionCache(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        table = new int[capacity];
+        mask = capacity - 1;
+        int entries = Math.max(16, expectedSize);
+        offsets = new int[entries];
+        lengths = new int[entries];
+        hashes = new int[entries];
+        dbIds = new long[entries];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** ID de la base del nombre con ID denso {@code denseId}. */
+    public long dbId(int denseId) {
+        return dbIds[denseId];
+    }
+
+    /** Memoria ocupada por los arreglos del cache (arena + tabla + columnas por ID), en bytes. */
+    public long footprintBytes() {
+        return arena.length + 4L * table.length
+                + (4L + 4L + 4L + 8L) * offsets.length;
+    }
+
+    // ───────────────────────── Consultas con slices del tokenizer ─────────────────────────
+
+    public int find(CsvTokenizer csv, int field) {
+        int h = finish(hash(HASH_SEED, csv, field));
+        int length = csv.length(field);
+        for (int i = h & mask; table[i] != 0; i = (i + 1) & mask) {
+            int d = table[i] - 1;
+            if (hashes[d] == h && lengths[d] == length && matches(offsets[d], csv, field)) {
+                return d;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    public int find(CsvTokenizer csv, int field1, int field2) {
+        int h = finish(hash(hashByte(hash(HASH_SEED, csv, field1), SEPARATOR), csv, field2));
+        int length1 = csv.length(field1);
+        int length = length1 + 1 + csv.length(field2);
+        for (int i = h & mask; table[i] != 0; i = (i + 1) & mask) {
+            int d = table[i] - 1;
+            int offset = offsets[d];
+            if (hashes[d] == h && lengths[d] == length && matches(offset, csv, field1)
+                    && arena[offset + length1] == SEPARATOR && matches(offset + length1 + 1, csv, field2)) {
+                return d;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /** Agrega (o actualiza) el nombre del campo con su ID de la base, sin crear un String. */
+    public int intern(CsvTokenizer csv, int field, long dbId) {
+        int start = arenaLength;
+        append(csv, field);
+        return internTail(start, dbId);
+    }
+
+    /** Igual que {@link #intern(CsvTokenizer, int, long)} para la clave compuesta field1|field2. */
+    public int intern(CsvTokenizer csv, int field1, int field2, long dbId) {
+        int start = arenaLength;
+        append(csv, field1);
+        ensureArena(1);
+        arena[arenaLength++] = SEPARATOR;
+        append(csv, field2);
+        return internTail(start, dbId);
+    }
+
+    // ───────────────────────── Consultas / altas con String ─────────────────────────
+
+    public int find(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int h = finish(hash(HASH_SEED, bytes, 0, bytes.length));
+        for (int i = h & mask; table[i] != 0; i = (i + 1) & mask) {
+            int d = table[i] - 1;
+            if (hashes[d] == h && Arrays.equals(arena, offsets[d], offsets[d] + lengths[d], bytes, 0, bytes.length)) {
+                return d;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /** Alta o actualización. Para claves compuestas usar el String unido con '|'. */
+    public int intern(String key, long dbId) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        ensureArena(bytes.length);
+        int start = arenaLength;
+        System.arraycopy(bytes, 0, arena, start, bytes.length);
+        arenaLength += bytes.length;
+        return internTail(start, dbId);
+    }
+
+    // ───────────────────────── Internos ─────────────────────────
+
+    // La clave nueva ya está copiada al final de la arena, desde start
+    private int internTail(int start, long dbId) {
+        int length = arenaLength - start;
+        int h = finish(hash(HASH_SEED, arena, start, length));
+        int i = h & mask;
+        for (; table[i] != 0; i = (i + 1) & mask) {
+            int d = table[i] - 1;
+            if (hashes[d] == h && Arrays.equals(arena, offsets[d], offsets[d] + lengths[d], arena, start, arenaLength)) {
+                arenaLength = start; // ya existía: se descarta la copia
+                dbIds[d] = dbId;
+                return d;
+            }
+        }
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            dbIds = Arrays.copyOf(dbIds, capacity);
+        }
+        int d = size++;
+        offsets[d] = start;
+        lengths[d] = length;
+        hashes[d] = h;
+        dbIds[d] = dbId;
+        table[i] = d + 1;
+        if (size * 2 > table.length) {
+            resize();
+        }
+        return d;
+    }
+
+    private void resize() {
+        int capacity = table.length * 2;
+        table = new int[capacity];
+        mask = capacity - 1;
+        for (int d = 0; d < size; d++) {
+            int i = hashes[d] & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = d + 1;
+        }
+    }
+
+    private void append(CsvTokenizer csv, int field) {
+        int length = csv.length(field);
+        ensureArena(length);
+        for (int k = 0; k < length; k++) {
+            arena[arenaLength + k] = csv.byteAt(field, k);
+        }
+        arenaLength += length;
+    }
+
+    private void ensureArena(int extra) {
+        if (arenaLength + extra > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + extra));
+        }
+    }
+
+    private boolean matches(int offset, CsvTokenizer csv, int field) {
+        int length = csv.length(field);
+        for (int k = 0; k < length; k++) {
+            if (arena[offset + k] != csv.byteAt(field, k)) return false;
+        }
+        return true;
+    }
+
+    // FNV-1a sobre bytes; el mismo valor para la clave en la arena, el String y los slices
+    private static int hashByte(int h, byte b) {
+        return (h ^ (b & 0xFF)) * 0x01000193;
+    }
+
+    private static int hash(int h, CsvTokenizer csv, int field) {
+        int length = csv.length(field);
+        for (int k = 0; k < length; k++) {
+            h = hashByte(h, csv.byteAt(field, k));
+        }
+        return h;
+    }
+
+    private static int hash(int h, byte[] bytes, int offset, int length) {
+        for (int k = offset; k < offset + length; k++) {
+            h = hashByte(h, bytes[k]);
+        }
+        return h;
+    }
+
+    private static int finish(int h) {
+        return h ^ (h >>> 16);
+    }
+}
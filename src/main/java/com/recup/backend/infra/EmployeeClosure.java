@@ -0,0 +1,148 @@
+package com.recup.backend.infra;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+
+/**
+ * Mantenimiento de EMPLOYEE_HIERARCHY, la clausura de EMPLOYEES.REPORTS_TO: una fila (ancestro,
+ * descendiente, niveles) por cada jefe directo o indirecto de cada empleado, más (e, e, 0). Con ella
+ * "todos los que dependen de X" o "los jefes de Y" son un join por índice, sin recorrer REPORTS_TO de a
+ * un empleado.
+ *
+ * Se actualiza de forma incremental con {@link #sync}: un empleado nuevo copia los caminos de su jefe, y
+ * uno que cambia de jefe mueve su subárbol completo (borra los caminos desde los jefes anteriores e inserta
+ * con un INSERT ... SELECT los caminos desde los nuevos). Los empleados borrados se van en cascada.
+ */
+public final class EmployeeClosure {
+
+    private EmployeeClosure() {
+    }
+
+    /**
+     * Lleva a EMPLOYEE_HIERARCHY el REPORTS_TO actual del empleado (en EMPLOYEES): lo agrega si no estaba y,
+     * si cambió de jefe, mueve su subárbol. Si el jefe nuevo todavía no está en la tabla, lo agrega antes.
+     * @throws IllegalArgumentException si el jefe nuevo depende del propio empleado (un ciclo)
+     */
+    public static void sync(Connection conn, long employeeId) throws SQLException {
+        Long reportsTo;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT REPORTS_TO FROM EMPLOYEES WHERE EMPLOYEE_ID = ?")) {
+            ps.setLong(1, employeeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return; // borrado: sus filas ya se fueron en cascada
+                }
+                reportsTo = rs.getObject(1, Long.class);
+            }
+        }
+
+        boolean present = false;
+        Long currentManager = null;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT ANCESTOR_ID, DEPTH FROM EMPLOYEE_HIERARCHY WHERE DESCENDANT_ID = ? AND DEPTH <= 1")) {
+            ps.setLong(1, employeeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getInt(2) == 0) {
+                        present = true;
+                    } else {
+                        currentManager = rs.getLong(1);
+                    }
+                }
+            }
+        }
+        if (!present) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO EMPLOYEE_HIERARCHY (ANCESTOR_ID, DESCENDANT_ID, DEPTH) VALUES (?, ?, 0)")) {
+                ps.setLong(1, employeeId);
+                ps.setLong(2, employeeId);
+                ps.executeUpdate();
+            }
+        }
+        if (Objects.equals(reportsTo, currentManager)) {
+            return;
+        }
+        if (reportsTo != null && !isUnder(conn, reportsTo, reportsTo)) {
+            sync(conn, reportsTo);
+        }
+        if (reportsTo != null && isUnder(conn, reportsTo, employeeId)) {
+            throw new IllegalArgumentException("El empleado " + employeeId + " no puede depender de " + reportsTo
+                    + ": " + reportsTo + " ya depende de él");
+        }
+        if (currentManager != null) {
+            detach(conn, employeeId);
+        }
+        if (reportsTo != null) {
+            attach(conn, employeeId, reportsTo);
+        }
+    }
+
+    /** true si {@code employeeId} depende de {@code managerId}, directa o indirectamente, o es el mismo. */
+    public static boolean isUnder(Connection conn, long employeeId, long managerId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT 1 FROM EMPLOYEE_HIERARCHY WHERE ANCESTOR_ID = ? AND DESCENDANT_ID = ?")) {
+            ps.setLong(1, managerId);
+            ps.setLong(2, employeeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** Reconstruye la tabla completa desde EMPLOYEES, un nivel por statement. */
+    public static void rebuild(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             PreparedStatement nextLevel = conn.prepareStatement(
+                     "INSERT INTO EMPLOYEE_HIERARCHY (ANCESTOR_ID, DESCENDANT_ID, DEPTH) "
+                             + "SELECT h.ANCESTOR_ID, e.EMPLOYEE_ID, h.DEPTH + 1 FROM EMPLOYEE_HIERARCHY h "
+                             + "JOIN EMPLOYEES e ON e.REPORTS_TO = h.DESCENDANT_ID WHERE h.DEPTH = ?")) {
+            st.executeUpdate("DELETE FROM EMPLOYEE_HIERARCHY");
+            st.executeUpdate("INSERT INTO EMPLOYEE_HIERARCHY (ANCESTOR_ID, DESCENDANT_ID, DEPTH) "
+                    + "SELECT EMPLOYEE_ID, EMPLOYEE_ID, 0 FROM EMPLOYEES");
+            // Un ciclo en REPORTS_TO repite un par (ancestro, descendiente): falla por la PK en lugar de no terminar
+            int depth = 0;
+            do {
+                nextLevel.setInt(1, depth++);
+            } while (nextLevel.executeUpdate() > 0);
+        }
+    }
+
+    /**
+     * Borra los caminos que llegan al subárbol del empleado desde sus jefes (los de adentro quedan): para
+     * cada empleado del subárbol, a {@code d} niveles del movido, sus filas con DEPTH &gt; d. Un DELETE por
+     * rango de IDX_EMPLOYEE_HIERARCHY_DESCENDANT por empleado, en batch (un único DELETE con los dos IN
+     * recorre todo el subárbol de cada jefe anterior).
+     */
+    private static void detach(Connection conn, long employeeId) throws SQLException {
+        try (PreparedStatement subtree = conn.prepareStatement(
+                "SELECT DESCENDANT_ID, DEPTH FROM EMPLOYEE_HIERARCHY WHERE ANCESTOR_ID = ?");
+             PreparedStatement delete = conn.prepareStatement(
+                     "DELETE FROM EMPLOYEE_HIERARCHY WHERE DESCENDANT_ID = ? AND DEPTH > ?")) {
+            subtree.setLong(1, employeeId);
+            try (ResultSet rs = subtree.executeQuery()) {
+                while (rs.next()) {
+                    delete.setLong(1, rs.getLong(1));
+                    delete.setInt(2, rs.getInt(2));
+                    delete.addBatch();
+                }
+            }
+            delete.executeBatch();
+        }
+    }
+
+    /** Agrega los caminos de cada jefe de {@code managerId} (y él mismo) a cada empleado del subárbol. */
+    private static void attach(Connection conn, long employeeId, long managerId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO EMPLOYEE_HIERARCHY (ANCESTOR_ID, DESCENDANT_ID, DEPTH) "
+                        + "SELECT up.ANCESTOR_ID, down.DESCENDANT_ID, up.DEPTH + down.DEPTH + 1 "
+                        + "FROM EMPLOYEE_HIERARCHY up JOIN EMPLOYEE_HIERARCHY down ON down.ANCESTOR_ID = ? "
+                        + "WHERE up.DESCENDANT_ID = ?")) {
+            ps.setLong(1, employeeId);
+            ps.setLong(2, managerId);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.recup.backend.infra;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.jpa.HibernateHints;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Checksums de importación por archivo y por bloque (tablas IMPORT_FILES / IMPORT_CHUNKS).
+ *
+ * Los registros de datos (sin el encabezado) se agrupan en bloques de {@value #CHUNK_SIZE}; cada bloque
+ * guarda el CRC32 de sus bytes crudos. En una nueva corrida solo se procesan los bloques cuyo checksum
+ * cambió o que no existían (registros agregados al final). Si el archivo completo no cambió no se procesa
+ * nada. Insertar líneas en el medio corre los límites de los bloques siguientes: esos bloques se vuelven a
+ * procesar, lo que es correcto porque la importación ya evita duplicados. Un origen nuevo, o uno en que
+ * cambió el archivo pero ningún bloque (el encabezado, o registros quitados del final), se procesa entero.
+ *
+ * Además se guarda el tamaño y la fecha de modificación del origen: {@link #isCurrent} los compara sin leer
+ * el contenido (arranque rápido con una base persistente).
+ */
+public final class ImportChecksums {
+
+    /** Registros de datos por bloque (igual al tamaño de lote del loader serial). */
+    public static final int CHUNK_SIZE = 1000;
+
+    private ImportChecksums() {
+    }
+
+    /** Resultado de comparar el archivo actual contra los checksums guardados. */
+    public static final class Plan {
+        private final String source;
+        private final long fileChecksum;
+        private final int recordCount;
+        private final long[] chunkChecksums;
+        private final int[] chunkRecords;
+        private final BitSet changed;
+        private final boolean fileChanged;
+        private final boolean stampChanged;
+        private final long[] stamp;
+
+        private Plan(String source, long fileChecksum, int recordCount, long[] chunkChecksums,
+                     int[] chunkRecords, BitSet changed, boolean fileChanged, boolean stampChanged, long[] stamp) {
+            this.source = source;
+            this.fileChanged = fileChanged;
+            this.stampChanged = stampChanged;
+            this.stamp = stamp;
+            this.fileChecksum = fileChecksum;
+            this.recordCount = recordCount;
+            this.chunkChecksums = chunkChecksums;
+            this.chunkRecords = chunkRecords;
+            this.changed = changed;
+        }
+
+        public int chunkCount() {
+            return chunkChecksums.length;
+        }
+
+        public int changedChunks() {
+            return changed.cardinality();
+        }
+
+        /**
+         * El archivo es igual al de la última importación: no hay nada que importar ni que guardar (salvo
+         * {@link #isStampChanged()}). Un origen sin importar nunca es "sin cambios", aunque no tenga registros.
+         */
+        public boolean isUnchanged() {
+            return !fileChanged;
+        }
+
+        /** Se procesa el archivo entero (ej: primera importación, o cambió el encabezado). */
+        public boolean isFull() {
+            return fileChanged && changedChunks() == chunkCount();
+        }
+
+        /** Mismo contenido con otro tamaño / fecha: guardar el plan evita releerlo en {@link #isCurrent}. */
+        public boolean isStampChanged() {
+            return stampChanged;
+        }
+
+        /** Indica si hay que procesar el registro de datos número {@code recordIndex} (0 = primero tras el encabezado). */
+        public boolean includes(int recordIndex) {
+            return changed.get(recordIndex / CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Recorre el archivo calculando los checksums y los compara con los guardados para {@code source}.
+     * Devuelve null si el archivo / recurso no existe.
+     */
+    public static Plan plan(EntityManager em, String source) throws IOException {
+        long[] stamp = stamp(source);
+        CsvTokenizer csv = CsvTokenizer.openSource(source);
+        if (csv == null) {
+            return null;
+        }
+        CRC32 file = new CRC32();
+        CRC32 chunk = new CRC32();
+        long[] checksums = new long[16];
+        int[] records = new int[16];
+        int recordCount = 0;
+        try (csv) {
+            if (csv.nextRecord()) {
+                csv.updateChecksum(file); // el encabezado solo cuenta para el checksum del archivo
+            }
+            while (csv.nextRecord()) {
+                csv.updateChecksum(file);
+                csv.updateChecksum(chunk);
+                chunk.update('\n');
+                recordCount++;
+                if (recordCount % CHUNK_SIZE == 0) {
+                    int index = recordCount / CHUNK_SIZE - 1;
+                    checksums = grow(checksums, index);
+                    records = grow(records, index);
+                    checksums[index] = chunk.getValue();
+                    records[index] = CHUNK_SIZE;
+                    chunk.reset();
+                }
+            }
+        }
+        int chunkCount = (recordCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (recordCount % CHUNK_SIZE != 0) {
+            checksums = grow(checksums, chunkCount - 1);
+            records = grow(records, chunkCount - 1);
+            checksums[chunkCount - 1] = chunk.getValue();
+            records[chunkCount - 1] = recordCount % CHUNK_SIZE;
+        }
+        long[] chunkChecksums = Arrays.copyOf(checksums, chunkCount);
+        int[] chunkRecords = Arrays.copyOf(records, chunkCount);
+
+        // Por defecto (origen nuevo u otro tamaño de bloque) se procesa todo
+        BitSet changed = new BitSet(chunkCount);
+        changed.set(0, chunkCount);
+        boolean fileChanged = true;
+        boolean stampChanged = false;
+        List<?> stored = em.createNativeQuery(
+                        "SELECT FILE_CHECKSUM, CHUNK_SIZE, FILE_SIZE, FILE_MODIFIED FROM IMPORT_FILES "
+                                + "WHERE SOURCE = ?1")
+                .setParameter(1, source)
+                .getResultList();
+        Object[] row = stored.isEmpty() ? null : (Object[]) stored.get(0);
+        if (row != null && ((Number) row[1]).intValue() == CHUNK_SIZE) {
+            if (((Number) row[0]).longValue() == file.getValue()) {
+                changed.clear();
+                fileChanged = false;
+                stampChanged = stamp != null && (row[2] == null || row[3] == null
+                        || ((Number) row[2]).longValue() != stamp[0] || ((Number) row[3]).longValue() != stamp[1]);
+            } else {
+                Map<Integer, long[]> previous = storedChunks(em, source);
+                for (int i = 0; i < chunkCount; i++) {
+                    long[] old = previous.get(i);
+                    if (old != null && old[0] == chunkChecksums[i] && old[1] == chunkRecords[i]) {
+                        changed.clear(i);
+                    }
+                }
+                if (changed.isEmpty()) {
+                    // Cambió el archivo pero ningún bloque: el encabezado (o se quitaron registros del final)
+                    changed.set(0, chunkCount);
+                }
+            }
+        }
+        return new Plan(source, file.getValue(), recordCount, chunkChecksums, chunkRecords, changed,
+                fileChanged, stampChanged, stamp);
+    }
+
+    /**
+     * true si {@code source} ya se importó y su tamaño y fecha de modificación no cambiaron desde entonces.
+     * No lee el archivo: es la verificación rápida del arranque con base persistente.
+     */
+    public static boolean isCurrent(EntityManager em, String source) throws IOException {
+        long[] stamp = stamp(source);
+        if (stamp == null) {
+            return false;
+        }
+        List<?> stored = em.createNativeQuery("SELECT FILE_SIZE, FILE_MODIFIED FROM IMPORT_FILES WHERE SOURCE = ?1")
+                .setParameter(1, source)
+                .getResultList();
+        if (stored.isEmpty()) {
+            return false;
+        }
+        Object[] row = (Object[]) stored.get(0);
+        return row[0] != null && row[1] != null
+                && ((Number) row[0]).longValue() == stamp[0] && ((Number) row[1]).longValue() == stamp[1];
+    }
+
+    /** Calcula y guarda los checksums de {@code source} tal como está ahora (ej: después de importarlo entero). */
+    public static void record(EntityManager em, String source) throws IOException {
+        Plan plan = plan(em, source);
+        if (plan != null) {
+            save(em, plan);
+        }
+    }
+
+    // {tamaño, modificación en ms} del archivo en disco o del recurso del classpath; null si no existe
+    private static long[] stamp(String source) throws IOException {
+        Path file = Paths.get(source);
+        if (Files.isRegularFile(file)) {
+            return new long[]{Files.size(file), Files.getLastModifiedTime(file).toMillis()};
+        }
+        URL url = ImportChecksums.class.getClassLoader().getResource(source);
+        if (url == null) {
+            return null;
+        }
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        try (InputStream ignored = connection.getInputStream()) {
+            return new long[]{connection.getContentLengthLong(), connection.getLastModified()};
+        }
+    }
+
+    /** Guarda los checksums del plan (después de una importación exitosa), reemplazando los anteriores. */
+    public static void save(EntityManager em, Plan plan) {
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            // NATIVE_SPACES: sin declarar las tablas, Hibernate vaciaría todo el cache de segundo nivel
+            em.createNativeQuery("DELETE FROM IMPORT_CHUNKS WHERE SOURCE = ?1")
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, "IMPORT_CHUNKS")
+                    .setParameter(1, plan.source).executeUpdate();
+            em.createNativeQuery("MERGE INTO IMPORT_FILES (SOURCE, FILE_CHECKSUM, RECORD_COUNT, CHUNK_SIZE, "
+                            + "FILE_SIZE, FILE_MODIFIED, IMPORTED_AT) KEY (SOURCE) VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7)")
+                    .setHint(HibernateHints.HINT_NATIVE_SPACES, "IMPORT_FILES")
+                    .setParameter(1, plan.source)
+                    .setParameter(2, plan.fileChecksum)
+                    .setParameter(3, plan.recordCount)
+                    .setParameter(4, CHUNK_SIZE)
+                    .setParameter(5, plan.stamp != null ? plan.stamp[0] : null)
+                    .setParameter(6, plan.stamp != null ? plan.stamp[1] : null)
+                    .setParameter(7, new Timestamp(System.currentTimeMillis()))
+                    .executeUpdate();
+            for (int i = 0; i < plan.chunkCount(); i++) {
+                em.createNativeQuery("INSERT INTO IMPORT_CHUNKS (SOURCE, CHUNK_NO, RECORD_COUNT, CHECKSUM) VALUES (?1, ?2, ?3, ?4)")
+                        .setHint(HibernateHints.HINT_NATIVE_SPACES, "IMPORT_CHUNKS")
+                        .setParameter(1, plan.source)
+                        .setParameter(2, i)
+                        .setParameter(3, plan.chunkRecords[i])
+                        .setParameter(4, plan.chunkChecksums[i])
+                        .executeUpdate();
+            }
+            tx.commit();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) tx.rollback();
+            throw e;
+        }
+    }
+
+    // CHUNK_NO → {checksum, registros}
+    private static Map<Integer, long[]> storedChunks(EntityManager em, String source) {
+        Map<Integer, long[]> chunks = new HashMap<>();
+        for (Object row : em.createNativeQuery(
+                        "SELECT CHUNK_NO, CHECKSUM, RECORD_COUNT FROM IMPORT_CHUNKS WHERE SOURCE = ?1")
+                .setParameter(1, source)
+                .getResultList()) {
+            Object[] cols = (Object[]) row;
+            chunks.put(((Number) cols[0]).intValue(),
+                    new long[]{((Number) cols[1]).longValue(), ((Number) cols[2]).longValue()});
+        }
+        return chunks;
+    }
+
+    private static long[] grow(long[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, array.length * 2);
+    }
+
+    private static int[] grow(int[] array, int index) {
+        return index < array.length ? array : Arrays.copyOf(array, array.length * 2);
+    }
+}
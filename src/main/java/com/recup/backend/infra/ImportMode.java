@@ -0,0 +1,28 @@
+package com.recup.backend.infra;
+
+/**
+ * Motor usado para importar playlists.csv.
+ * Se elige con la propiedad de sistema {@code import.mode} (ej: -Dimport.mode=parallel).
+ */
+public enum ImportMode {
+    /** Un solo hilo, JPA ({@link CsvPlaylistLoader}). */
+    SERIAL,
+    /** Serial, pero solo procesa los bloques cuyo checksum cambió ({@link ImportChecksums}). */
+    INCREMENTAL,
+    /** Pipeline lector → parsers → writers por shard ({@link ParallelCsvPlaylistLoader}). */
+    PARALLEL,
+    /** JDBC puro en batch, sin contexto de persistencia ({@link JdbcBulkPlaylistLoader}). */
+    JDBC,
+    /** SQL por conjuntos desde una tabla de staging cargada con CSVREAD ({@link StagingPlaylistLoader}). */
+    STAGING;
+
+    public static ImportMode fromSystemProperty() {
+        String value = System.getProperty("import.mode", "serial");
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("⚠️ import.mode desconocido: " + value + " (se usa SERIAL)");
+            return SERIAL;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.recup.backend.infra;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Contadores de una importación de playlists.csv.
+ * Thread-safe: los workers del pipeline paralelo incrementan los mismos contadores.
+ *
+ * Los contadores de esta importación se suman a las métricas globales ({@link Metrics}, etiquetadas con el
+ * modo) en cada {@link #publish()}: los loaders lo llaman después de cada commit, no por línea.
+ * Cada lote además se graba como eventos de JFR ({@link JfrEvents}): el lote completo, su flush y su commit.
+ */
+public class ImportSummary {
+    public final AtomicInteger processed = new AtomicInteger();
+    public final AtomicInteger skipped = new AtomicInteger();
+    public final AtomicInteger newPlaylists = new AtomicInteger();
+    public final AtomicInteger newTracks = new AtomicInteger();
+    public final AtomicInteger newAlbums = new AtomicInteger();
+    public final AtomicInteger newArtists = new AtomicInteger();
+    public final AtomicInteger newGenres = new AtomicInteger();
+    public final AtomicInteger newMediaTypes = new AtomicInteger();
+    public final AtomicInteger newRelations = new AtomicInteger();
+    /** Registros salteados en modo incremental porque su bloque no cambió. */
+    public final AtomicInteger unchanged = new AtomicInteger();
+
+    /** Duración de cada flush de un lote (em.flush() o los executeBatch de los writers JDBC). */
+    public final LatencyHistogram flushLatency;
+    /** Duración de cada commit de un lote. */
+    public final LatencyHistogram commitLatency;
+
+    private final String mode;
+    private final AtomicInteger batches = new AtomicInteger();
+    private final long startTime = System.nanoTime();
+    private final Map<String, Long> cacheFootprints = new LinkedHashMap<>();
+    private final AtomicInteger[] published;
+    private final Metrics.Counter[] publishedTo;
+    private final int[] publishedValues;
+
+    /** @param mode etiqueta {@code mode} de las métricas (serial, incremental, parallel, jdbc, staging) */
+    public ImportSummary(String mode) {
+        SqlStatementCounter.reset();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+        this.mode = mode;
+        flushLatency = flushLatency(mode);
+        commitLatency = commitLatency(mode);
+        published = new AtomicInteger[]{processed, skipped, unchanged,
+                newPlaylists, newTracks, newAlbums, newArtists, newGenres, newMediaTypes, newRelations};
+        publishedTo = new Metrics.Counter[]{rows(mode, "processed"), rows(mode, "skipped"), rows(mode, "unchanged"),
+                inserts(mode, "playlist"), inserts(mode, "track"), inserts(mode, "album"), inserts(mode, "artist"),
+                inserts(mode, "genre"), inserts(mode, "media_type"), inserts(mode, "playlist_track")};
+        publishedValues = new int[published.length];
+    }
+
+    // Métricas de importación, compartidas con las cargas que no usan ImportSummary (InvoiceBulkIngestor)
+
+    static Metrics.Counter rows(String mode, String result) {
+        return Metrics.counter("recup_import_rows_total", "Registros leídos por la importación, por resultado",
+                "mode", mode, "result", result);
+    }
+
+    static Metrics.Counter inserts(String mode, String entity) {
+        return Metrics.counter("recup_import_inserts_total", "Filas nuevas insertadas por la importación, por entidad",
+                "mode", mode, "entity", entity);
+    }
+
+    static LatencyHistogram flushLatency(String mode) {
+        return Metrics.histogram("recup_import_flush_seconds", "Duración del flush de cada lote de la importación",
+                "mode", mode);
+    }
+
+    static LatencyHistogram commitLatency(String mode) {
+        return Metrics.histogram("recup_import_commit_seconds", "Duración del commit de cada lote de la importación",
+                "mode", mode);
+    }
+
+    /** Suma a las métricas globales lo contado desde la llamada anterior. */
+    public synchronized void publish() {
+        for (int i = 0; i < published.length; i++) {
+            int current = published[i].get();
+            publishedTo[i].add(current - publishedValues[i]);
+            publishedValues[i] = current;
+        }
+    }
+
+    /**
+     * Abre el evento JFR del primer lote del hilo actual (cada hilo que confirma lotes tiene el suyo); los
+     * siguientes los abre {@link #timeCommit}.
+     */
+    public JfrEvents.ImportBatch startBatch() {
+        return JfrEvents.ImportBatch.start(mode);
+    }
+
+    /**
+     * Ejecuta el flush de un lote midiendo su duración en {@link #flushLatency} y como evento JFR.
+     * @param rows líneas del lote (o filas pendientes de los batches JDBC)
+     */
+    public <E extends Exception> void timeFlush(int rows, ThrowingRunnable<E> flush) throws E {
+        long start = System.nanoTime();
+        JfrEvents.flush(mode, rows, flush);
+        flushLatency.recordSince(start);
+    }
+
+    /**
+     * Ejecuta el commit de un lote midiendo su duración ({@link #commitLatency} y evento JFR), publica los
+     * contadores ({@link #publish()}) y cierra el evento del lote.
+     * @param rows líneas del lote
+     * @return el evento del lote siguiente del hilo
+     */
+    public <E extends Exception> JfrEvents.ImportBatch timeCommit(JfrEvents.ImportBatch batch, int rows,
+                                                                  ThrowingRunnable<E> commit) throws E {
+        long start = System.nanoTime();
+        JfrEvents.commit(mode, rows, commit);
+        commitLatency.recordSince(start);
+        publish();
+        batch.finish(batches.incrementAndGet(), rows);
+        return startBatch();
+    }
+
+    /** Runnable que puede lanzar una excepción chequeada (ej: SQLException de conn.commit()). */
+    @FunctionalInterface
+    public interface ThrowingRunnable<E extends Exception> {
+        void run() throws E;
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    /** Líneas leídas (procesadas + omitidas) por segundo desde el inicio. */
+    public double linesPerSecond() {
+        return (processed.get() + skipped.get()) / ((elapsedMillis() / 1000.0) + 0.0001);
+    }
+
+    /** Suma de los picos de uso de los pools de heap desde el inicio de la importación. */
+    public long peakHeapBytes() {
+        return heapPools().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    /**
+     * Heap retenido: uso actual de los pools de heap salvo eden (survivor + old gen).
+     * Lo que sobrevive a las recolecciones jóvenes termina acá, así que crece si el import retiene objetos.
+     */
+    public static long retainedHeapBytes() {
+        return heapPools()
+                .filter(pool -> !pool.getName().toLowerCase().contains("eden"))
+                .mapToLong(pool -> pool.getUsage().getUsed())
+                .sum();
+    }
+
+    private synchronized void printCacheFootprints() {
+        if (cacheFootprints.isEmpty()) return;
+        long total = cacheFootprints.values().stream().mapToLong(Long::longValue).sum();
+        StringJoiner detail = new StringJoiner(", ");
+        cacheFootprints.forEach((name, bytes) -> detail.add(name + "=" + kilobytes(bytes)));
+        System.out.println("   Caches en memoria: " + kilobytes(total) + " (" + detail + ")");
+    }
+
+    private static String kilobytes(long bytes) {
+        return (bytes + 1023) / 1024 + " KB";
+    }
+
+    private static Stream<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid());
+    }
+
+    /** Registra la memoria de un cache de la importación para mostrarla en el resumen. */
+    public synchronized void cacheFootprint(String name, long bytes) {
+        cacheFootprints.merge(name, bytes, Long::sum);
+    }
+
+    public void print(String title) {
+        publish();
+        long elapsedMs = elapsedMillis();
+        System.out.println("\n📥 RESUMEN CARGA " + title);
+        System.out.println("   Líneas procesadas: " + processed.get());
+        System.out.println("   Líneas omitidas (incompletas): " + skipped.get());
+        if (unchanged.get() > 0) {
+            System.out.println("   Líneas sin cambios (checksum): " + unchanged.get());
+        }
+        System.out.println("   Playlists nuevas: " + newPlaylists.get());
+        System.out.println("   Tracks nuevos: " + newTracks.get());
+        System.out.println("   Álbumes nuevos: " + newAlbums.get());
+        System.out.println("   Artistas nuevos: " + newArtists.get());
+        System.out.println("   Géneros nuevos: " + newGenres.get());
+        System.out.println("   MediaTypes nuevos: " + newMediaTypes.get());
+        System.out.println("   Relaciones Playlist-Track nuevas: " + newRelations.get());
+        System.out.println("   Tiempo total: " + elapsedMs + " ms (" + String.format("%.1f", linesPerSecond()) + " líneas/seg)");
+        System.out.println("   Heap pico: " + (peakHeapBytes() / (1024 * 1024)) + " MB (retenido: "
+                + (retainedHeapBytes() / (1024 * 1024)) + " MB)");
+        printCacheFootprints();
+        SqlStatementCounter.print();
+        System.out.println("✅ Carga finalizada\n");
+    }
+}
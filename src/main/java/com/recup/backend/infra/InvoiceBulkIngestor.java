@@ -0,0 +1,306 @@
+package com.recup.backend.infra;
+
+import com.recup.backend.domain.Invoice;
+import com.recup.backend.domain.InvoiceItem;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Alta masiva de facturas con sus líneas, con JDBC puro (sin contexto de persistencia).
+ *
+ * - Cada factura se valida antes de escribirla: cliente y tracks existentes, líneas con precio (≥ 0) y
+ *   cantidad (&gt; 0), y TOTAL igual a la suma de {@code unitPrice * quantity}. Las inválidas se rechazan
+ *   (se cuentan y se guarda el motivo de las primeras) sin cortar la carga.
+ * - INVOICES e INVOICE_ITEMS se escriben con PreparedStatement en batch, con IDs asignados por bloques
+ *   ({@link SequenceBlockAllocator}, compatibles con los de Hibernate); los IDs asignados quedan en las
+ *   entidades recibidas. Si un lote no se confirma, a sus facturas y líneas se les vuelve a poner el ID en
+ *   null (se pueden reintentar con los mismos objetos).
+ * - Se confirma cada {@code batchSize} facturas.
+ *
+ * Los clientes y tracks existentes se leen una vez al empezar (un bit por ID): los creados durante la
+ * carga por otra conexión se rechazan.
+ *
+ * Métricas ({@link Metrics}, {@code mode="invoices"}): facturas aceptadas / rechazadas, filas insertadas
+ * y duración de cada flush y commit, publicadas en cada commit. Cada lote, flush y commit también se graba
+ * como evento de JFR ({@link JfrEvents}, mismo modo).
+ */
+public final class InvoiceBulkIngestor {
+
+    /** Facturas por transacción. */
+    public static final int DEFAULT_BATCH_SIZE = 5000;
+    private static final int JDBC_BATCH_SIZE = 1000;
+    private static final int MAX_REJECTIONS_KEPT = 10;
+
+    private static final Metrics.Counter ACCEPTED = ImportSummary.rows("invoices", "accepted");
+    private static final Metrics.Counter REJECTED = ImportSummary.rows("invoices", "rejected");
+    private static final Metrics.Counter INVOICE_INSERTS = ImportSummary.inserts("invoices", "invoice");
+    private static final Metrics.Counter ITEM_INSERTS = ImportSummary.inserts("invoices", "invoice_item");
+    private static final LatencyHistogram FLUSH_LATENCY = ImportSummary.flushLatency("invoices");
+    private static final LatencyHistogram COMMIT_LATENCY = ImportSummary.commitLatency("invoices");
+
+    private InvoiceBulkIngestor() {
+    }
+
+    /**
+     * Resultado de una carga.
+     * @param rejections motivos de las primeras facturas rechazadas ("#n: ...", n = posición en la entrada)
+     */
+    public record Result(long accepted, long rejected, long lines, long elapsedNanos, List<String> rejections) {
+        public double invoicesPerSecond() {
+            return accepted / (elapsedNanos / 1e9 + 1e-9);
+        }
+
+        public double linesPerSecond() {
+            return lines / (elapsedNanos / 1e9 + 1e-9);
+        }
+
+        public void print() {
+            System.out.println("\n🧾 RESUMEN CARGA DE FACTURAS");
+            System.out.println("   Facturas aceptadas: " + accepted + " (" + lines + " líneas)");
+            System.out.println("   Facturas rechazadas: " + rejected);
+            rejections.forEach(reason -> System.out.println("      " + reason));
+            System.out.println("   Tiempo total: " + elapsedNanos / 1_000_000 + " ms ("
+                    + String.format("%.0f", invoicesPerSecond()) + " facturas/seg, "
+                    + String.format("%.0f", linesPerSecond()) + " líneas/seg)");
+        }
+    }
+
+    /** Carga las facturas con una conexión del pool, confirmando cada {@link #DEFAULT_BATCH_SIZE}. */
+    public static Result ingest(Stream<Invoice> invoices) throws SQLException {
+        try (Connection conn = DataSourceProvider.getDataSource().getConnection()) {
+            return ingest(conn, invoices.iterator(), DEFAULT_BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Carga las facturas en {@code conn}, confirmando cada {@code batchSize}. Si falla la escritura se
+     * descarta el lote en curso (los anteriores ya quedaron confirmados), se borran los IDs que se le habían
+     * asignado a sus entidades y se propaga la excepción.
+     */
+    public static Result ingest(Connection conn, Iterator<Invoice> invoices, int batchSize) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Writer writer = new Writer(conn)) {
+            try {
+                return ingest(conn, writer, invoices, batchSize, start);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                writer.clearUncommittedIds();
+                throw e;
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static Result ingest(Connection conn, Writer writer, Iterator<Invoice> invoices, int batchSize,
+                                 long start) throws SQLException {
+        long position = 0;
+        long accepted = 0;
+        long rejected = 0;
+        List<String> rejections = new ArrayList<>();
+        int sinceCommit = 0;
+        writer.batch = JfrEvents.ImportBatch.start("invoices");
+        while (invoices.hasNext()) {
+            Invoice invoice = invoices.next();
+            position++;
+            String problem = writer.validate(invoice);
+            if (problem != null) {
+                if (rejected++ < MAX_REJECTIONS_KEPT) {
+                    rejections.add("#" + position + ": " + problem);
+                }
+                continue;
+            }
+            writer.write(invoice);
+            accepted++;
+            if (++sinceCommit >= batchSize) {
+                writer.flush();
+                commit(conn, writer, accepted, rejected);
+                sinceCommit = 0;
+            }
+        }
+        writer.flush();
+        commit(conn, writer, accepted, rejected);
+        return new Result(accepted, rejected, writer.lines, System.nanoTime() - start, rejections);
+    }
+
+    /** Confirma el lote y publica en las métricas lo contado desde el commit anterior. */
+    private static void commit(Connection conn, Writer writer, long accepted, long rejected) throws SQLException {
+        int invoices = (int) (accepted - writer.publishedAccepted);
+        long start = System.nanoTime();
+        JfrEvents.commit("invoices", invoices, conn::commit);
+        COMMIT_LATENCY.recordSince(start);
+        writer.uncommitted.clear();
+        writer.batch.finish(++writer.batches, invoices);
+        writer.batch = JfrEvents.ImportBatch.start("invoices");
+        ACCEPTED.add(accepted - writer.publishedAccepted);
+        REJECTED.add(rejected - writer.publishedRejected);
+        INVOICE_INSERTS.add(accepted - writer.publishedAccepted);
+        ITEM_INSERTS.add(writer.lines - writer.publishedLines);
+        writer.publishedAccepted = accepted;
+        writer.publishedRejected = rejected;
+        writer.publishedLines = writer.lines;
+    }
+
+    /** Statements en batch, asignadores de IDs y los IDs existentes de clientes y tracks. */
+    private static final class Writer implements AutoCloseable {
+        private final PreparedStatement invoiceInsert;
+        private final PreparedStatement itemInsert;
+        private final SequenceBlockAllocator invoiceIds;
+        private final SequenceBlockAllocator lineIds;
+        private final BitSet customers;
+        private final BitSet tracks;
+        private int pendingInvoices;
+        private int pendingItems;
+        long lines;
+        /** Totales ya sumados a las métricas (ver {@link #commit}). */
+        long publishedAccepted;
+        long publishedRejected;
+        long publishedLines;
+        /** Facturas escritas desde el último commit: sus IDs no existen en la base hasta confirmar. */
+        final List<Invoice> uncommitted = new ArrayList<>();
+        /** Evento JFR del lote en curso y lotes confirmados. */
+        JfrEvents.ImportBatch batch;
+        int batches;
+
+        Writer(Connection conn) throws SQLException {
+            customers = ids(conn, "SELECT CUSTOMER_ID FROM CUSTOMERS");
+            tracks = ids(conn, "SELECT TRACK_ID FROM TRACKS");
+            invoiceIds = new SequenceBlockAllocator(conn, "SEQ_INVOICE_ID");
+            lineIds = new SequenceBlockAllocator(conn, "SEQ_INVOICE_LINE_ID");
+            invoiceInsert = conn.prepareStatement("INSERT INTO INVOICES (INVOICE_ID, CUSTOMER_ID, INVOICE_DATE, "
+                    + "BILLING_ADDRESS, BILLING_CITY, BILLING_STATE, BILLING_COUNTRY, BILLING_POSTAL_CODE, TOTAL) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            itemInsert = conn.prepareStatement(
+                    "INSERT INTO INVOICE_ITEMS (INVOICE_LINE_ID, INVOICE_ID, TRACK_ID, UNIT_PRICE, QUANTITY) VALUES (?, ?, ?, ?, ?)");
+        }
+
+        /** null si la factura es válida; si no, el motivo. */
+        String validate(Invoice invoice) {
+            if (invoice.getId() != null) {
+                return "ya tiene ID (" + invoice.getId() + ")";
+            }
+            if (invoice.getCustomer() == null || !exists(customers, invoice.getCustomer().getId())) {
+                return "cliente inexistente";
+            }
+            if (invoice.getTotal() == null) {
+                return "sin TOTAL";
+            }
+            List<InvoiceItem> items = invoice.getItems() != null ? invoice.getItems() : List.of();
+            BigDecimal sum = BigDecimal.ZERO;
+            for (int i = 0; i < items.size(); i++) {
+                InvoiceItem item = items.get(i);
+                if (item.getTrack() == null || !exists(tracks, item.getTrack().getId())) {
+                    return "línea " + (i + 1) + ": track inexistente";
+                }
+                if (item.getUnitPrice() == null || item.getUnitPrice().signum() < 0) {
+                    return "línea " + (i + 1) + ": precio inválido";
+                }
+                if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                    return "línea " + (i + 1) + ": cantidad inválida";
+                }
+                sum = sum.add(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+            if (sum.compareTo(invoice.getTotal()) != 0) {
+                return "TOTAL " + invoice.getTotal().toPlainString() + " ≠ " + sum.toPlainString() + " (suma de las líneas)";
+            }
+            return null;
+        }
+
+        void write(Invoice invoice) throws SQLException {
+            uncommitted.add(invoice);
+            long invoiceId = invoiceIds.next();
+            invoice.setId(invoiceId);
+            invoiceInsert.setLong(1, invoiceId);
+            invoiceInsert.setLong(2, invoice.getCustomer().getId());
+            invoiceInsert.setObject(3, invoice.getInvoiceDate(), Types.DATE);
+            invoiceInsert.setString(4, invoice.getBillingAddress());
+            invoiceInsert.setString(5, invoice.getBillingCity());
+            invoiceInsert.setString(6, invoice.getBillingState());
+            invoiceInsert.setString(7, invoice.getBillingCountry());
+            invoiceInsert.setString(8, invoice.getBillingPostalCode());
+            invoiceInsert.setBigDecimal(9, invoice.getTotal());
+            invoiceInsert.addBatch();
+            pendingInvoices++;
+            if (invoice.getItems() != null) {
+                for (InvoiceItem item : invoice.getItems()) {
+                    long lineId = lineIds.next();
+                    item.setId(lineId);
+                    item.setInvoice(invoice);
+                    itemInsert.setLong(1, lineId);
+                    itemInsert.setLong(2, invoiceId);
+                    itemInsert.setLong(3, item.getTrack().getId());
+                    itemInsert.setBigDecimal(4, item.getUnitPrice());
+                    itemInsert.setInt(5, item.getQuantity());
+                    itemInsert.addBatch();
+                    pendingItems++;
+                    lines++;
+                }
+            }
+            if (pendingInvoices >= JDBC_BATCH_SIZE || pendingItems >= JDBC_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /** Después de un rollback: las entidades del lote descartado vuelven a quedar sin ID. */
+        void clearUncommittedIds() {
+            for (Invoice invoice : uncommitted) {
+                invoice.setId(null);
+                if (invoice.getItems() != null) {
+                    invoice.getItems().forEach(item -> item.setId(null));
+                }
+            }
+            uncommitted.clear();
+        }
+
+        /** Facturas antes que sus líneas (FK). */
+        void flush() throws SQLException {
+            long start = System.nanoTime();
+            JfrEvents.flush("invoices", pendingInvoices + pendingItems, this::executePending);
+            FLUSH_LATENCY.recordSince(start);
+        }
+
+        private void executePending() throws SQLException {
+            if (pendingInvoices > 0) {
+                invoiceInsert.executeBatch();
+                pendingInvoices = 0;
+            }
+            if (pendingItems > 0) {
+                itemInsert.executeBatch();
+                pendingItems = 0;
+            }
+        }
+
+        private static boolean exists(BitSet ids, Long id) {
+            return id != null && id >= 0 && id <= Integer.MAX_VALUE && ids.get(id.intValue());
+        }
+
+        private static BitSet ids(Connection conn, String sql) throws SQLException {
+            BitSet ids = new BitSet();
+            try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+                while (rs.next()) {
+                    ids.set(rs.getInt(1));
+                }
+            }
+            return ids;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            invoiceInsert.close();
+            itemInsert.close();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.recup.backend.infra;
+
+import jakarta.persistence.EntityManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor de importación de playlists.csv con JDBC puro (sin contexto de persistencia).
+ *
+ * - Las dimensiones (playlist, artista, álbum, género, media type) y los tracks se resuelven
+ *   con {@link DimensionCache} (nombre → ID, consultado con los slices del CSV); no se mantiene
+ *   ninguna entidad en memoria y solo se crean Strings para las filas nuevas.
+ * - Las relaciones playlist-track se guardan en un {@link LongPairSet} (playlistId, trackId).
+ * - TRACKS, PLAYLIST_TRACK y las dimensiones se escriben con PreparedStatement en batch,
+ *   con IDs asignados por bloques ({@link SequenceBlockAllocator}).
+ *
+ * Mismas reglas de duplicados, líneas omitidas y contadores que {@link CsvPlaylistLoader}.
+ */
+public class JdbcBulkPlaylistLoader {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    /** @return true si la importación terminó (false: no se encontró el archivo, estaba vacío o falló) */
+    public static boolean load(EntityManager em, String resourcePath) {
+        CsvTokenizer csv;
+        try {
+            csv = CsvTokenizer.openSource(resourcePath);
+        } catch (IOException e) {
+            System.out.println("❌ No se pudo abrir " + resourcePath + ": " + e.getMessage());
+            return false;
+        }
+        if (csv == null) {
+            System.out.println("❌ Archivo / recurso no encontrado: " + resourcePath);
+            return false;
+        }
+
+        ImportSummary summary = new ImportSummary("jdbc");
+        try (csv; Connection conn = DataSourceProvider.getDataSource().getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (BulkWriter writer = new BulkWriter(conn, summary)) {
+                if (!csv.nextRecord()) { // encabezado
+                    System.out.println("⚠️ Archivo vacío");
+                    return false;
+                }
+                writer.preload();
+
+                JfrEvents.ImportBatch batch = summary.startBatch();
+                int sinceLastCommit = 0;
+                while (csv.nextRecord()) {
+                    if (csv.isBlankRecord()) continue;
+                    if (!PlaylistCsvRow.isComplete(csv)) {
+                        summary.skipped.incrementAndGet();
+                        continue;
+                    }
+                    writer.write(csv);
+
+                    int done = summary.processed.incrementAndGet();
+                    if (done % 500 == 0) {
+                        System.out.println("   Progreso: " + done + " líneas (omitidas=" + summary.skipped.get() + ", "
+                                + String.format("%.1f", summary.linesPerSecond()) + " líneas/seg)");
+                    }
+                    if (++sinceLastCommit >= BATCH_SIZE) {
+                        writer.flush();
+                        batch = summary.timeCommit(batch, sinceLastCommit, conn::commit);
+                        System.out.println("   ✓ Lote de " + sinceLastCommit + " líneas confirmado. Total acumulado: " + done);
+                        sinceLastCommit = 0;
+                    }
+                }
+                writer.flush();
+                summary.timeCommit(batch, sinceLastCommit, conn::commit);
+                writer.reportFootprint();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Error procesando CSV: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        // Artistas, álbumes, géneros y media types se insertaron sin pasar por Hibernate
+        LocalEntityManagerProvider.evictCaches(em.getEntityManagerFactory());
+        summary.print("playlists.csv (JDBC)");
+        CsvPlaylistLoader.mostrarResultados(em);
+        return true;
+    }
+
+    /**
+     * Estado de la carga: mapas de IDs y un PreparedStatement en batch por tabla.
+     * {@link #flush()} ejecuta los batches en orden de dependencias (padres antes que hijos)
+     * para que las FKs siempre encuentren la fila referenciada.
+     */
+    private static class BulkWriter implements AutoCloseable {
+        private final Connection conn;
+        private final ImportSummary summary;
+
+        private final DimensionCache playlists = new DimensionCache();
+        private final DimensionCache artists = new DimensionCache();
+        private final DimensionCache albums = new DimensionCache(); // clave: titulo
+        private final DimensionCache genres = new DimensionCache();
+        private final DimensionCache mediaTypes = new DimensionCache();
+        private final DimensionCache tracks = new DimensionCache(); // clave: trackName|albumTitle
+        private final LongPairSet relations = new LongPairSet();
+        private final PlaylistStatsDelta statsDelta = new PlaylistStatsDelta();
+        private final TrackSearchIndex searchDelta = new TrackSearchIndex();
+
+        private final PendingBatch playlistInsert;
+        private final PendingBatch artistInsert;
+        private final PendingBatch albumInsert;
+        private final PendingBatch genreInsert;
+        private final PendingBatch mediaTypeInsert;
+        private final PendingBatch trackInsert;
+        private final PendingBatch relationInsert;
+
+        BulkWriter(Connection conn, ImportSummary summary) throws SQLException {
+            this.conn = conn;
+            this.summary = summary;
+            playlistInsert = new PendingBatch(conn, "SEQ_PLAYLIST_ID",
+                    "INSERT INTO PLAYLISTS (PLAYLIST_ID, NAME) VALUES (?, ?)");
+            artistInsert = new PendingBatch(conn, "SEQ_ARTIST_ID",
+                    "INSERT INTO ARTISTS (ARTIST_ID, NAME) VALUES (?, ?)");
+            albumInsert = new PendingBatch(conn, "SEQ_ALBUM_ID",
+                    "INSERT INTO ALBUMS (ALBUM_ID, TITLE, ARTIST_ID) VALUES (?, ?, ?)");
+            genreInsert = new PendingBatch(conn, "SEQ_GENRE_ID",
+                    "INSERT INTO GENRES (GENRE_ID, NAME) VALUES (?, ?)");
+            mediaTypeInsert = new PendingBatch(conn, "SEQ_MEDIA_TYPE_ID",
+                    "INSERT INTO MEDIA_TYPES (MEDIA_TYPE_ID, NAME) VALUES (?, ?)");
+            trackInsert = new PendingBatch(conn, "SEQ_TRACK_ID",
+                    "INSERT INTO TRACKS (TRACK_ID, NAME, ALBUM_ID, MEDIA_TYPE_ID, GENRE_ID, COMPOSER, "
+                            + "MILLISECONDS, BYTES, UNIT_PRICE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            relationInsert = new PendingBatch(conn, "SEQ_PLAYLIST_TRACK_ID",
+                    "INSERT INTO PLAYLIST_TRACK (PLAYLIST_TRACK_ID, PLAYLIST_ID, TRACK_ID) VALUES (?, ?, ?)");
+        }
+
+        void preload() throws SQLException {
+            try (Statement st = conn.createStatement()) {
+                loadIds(st, "SELECT NAME, PLAYLIST_ID FROM PLAYLISTS", playlists);
+                loadIds(st, "SELECT NAME, ARTIST_ID FROM ARTISTS", artists);
+                loadIds(st, "SELECT TITLE, ALBUM_ID FROM ALBUMS", albums);
+                loadIds(st, "SELECT NAME, GENRE_ID FROM GENRES", genres);
+                loadIds(st, "SELECT NAME, MEDIA_TYPE_ID FROM MEDIA_TYPES", mediaTypes);
+                try (ResultSet rs = st.executeQuery(
+                        "SELECT t.NAME, a.TITLE, t.TRACK_ID FROM TRACKS t LEFT JOIN ALBUMS a ON a.ALBUM_ID = t.ALBUM_ID")) {
+                    while (rs.next()) {
+                        String albumTitle = rs.getString(2);
+                        tracks.intern(rs.getString(1) + "|" + (albumTitle != null ? albumTitle : ""), rs.getLong(3));
+                    }
+                }
+                try (ResultSet rs = st.executeQuery("SELECT PLAYLIST_ID, TRACK_ID FROM PLAYLIST_TRACK")) {
+                    while (rs.next()) {
+                        relations.add(rs.getLong(1), rs.getLong(2));
+                    }
+                }
+            }
+        }
+
+        private static void loadIds(Statement st, String sql, DimensionCache target) throws SQLException {
+            try (ResultSet rs = st.executeQuery(sql)) {
+                while (rs.next()) {
+                    target.intern(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+
+        /** Procesa el registro actual del tokenizer (ya validado con {@link PlaylistCsvRow#isComplete}). */
+        void write(CsvTokenizer csv) throws SQLException {
+            long playlistId = resolveName(playlists, csv, PlaylistCsvRow.PLAYLIST_NAME, playlistInsert, summary.newPlaylists);
+            long artistId = resolveName(artists, csv, PlaylistCsvRow.ARTIST_NAME, artistInsert, summary.newArtists);
+
+            long albumId;
+            int album = albums.find(csv, PlaylistCsvRow.ALBUM_TITLE);
+            if (album != DimensionCache.NOT_FOUND) {
+                albumId = albums.dbId(album);
+            } else {
+                PreparedStatement ps = albumInsert.statement;
+                albumId = albumInsert.nextId();
+                ps.setLong(1, albumId);
+                ps.setString(2, csv.string(PlaylistCsvRow.ALBUM_TITLE));
+                ps.setLong(3, artistId);
+                albumInsert.add();
+                albums.intern(csv, PlaylistCsvRow.ALBUM_TITLE, albumId);
+                summary.newAlbums.incrementAndGet();
+            }
+
+            long genreId = resolveName(genres, csv, PlaylistCsvRow.GENRE_NAME, genreInsert, summary.newGenres);
+            long mediaTypeId = resolveName(mediaTypes, csv, PlaylistCsvRow.MEDIA_TYPE_NAME, mediaTypeInsert, summary.newMediaTypes);
+
+            long trackId;
+            int track = tracks.find(csv, PlaylistCsvRow.TRACK_NAME, PlaylistCsvRow.ALBUM_TITLE);
+            if (track != DimensionCache.NOT_FOUND) {
+                trackId = tracks.dbId(track);
+            } else {
+                PreparedStatement ps = trackInsert.statement;
+                trackId = trackInsert.nextId();
+                ps.setLong(1, trackId);
+                ps.setString(2, csv.string(PlaylistCsvRow.TRACK_NAME));
+                ps.setLong(3, albumId);
+                ps.setLong(4, mediaTypeId);
+                ps.setLong(5, genreId);
+                ps.setString(6, csv.string(PlaylistCsvRow.COMPOSER));
+                setInteger(ps, 7, csv, PlaylistCsvRow.MILLISECONDS);
+                setInteger(ps, 8, csv, PlaylistCsvRow.BYTES);
+                BigDecimal unitPrice = PlaylistCsvRow.parseDecimal(csv.string(PlaylistCsvRow.UNIT_PRICE));
+                if (unitPrice != null) ps.setBigDecimal(9, unitPrice); else ps.setNull(9, Types.DECIMAL);
+                trackInsert.add();
+                tracks.intern(csv, PlaylistCsvRow.TRACK_NAME, PlaylistCsvRow.ALBUM_TITLE, trackId);
+                searchDelta.trackChanged(trackId);
+                summary.newTracks.incrementAndGet();
+            }
+
+            if (relations.add(playlistId, trackId)) {
+                PreparedStatement ps = relationInsert.statement;
+                ps.setLong(1, relationInsert.nextId());
+                ps.setLong(2, playlistId);
+                ps.setLong(3, trackId);
+                relationInsert.add();
+                statsDelta.trackAdded(playlistId, trackId);
+                summary.newRelations.incrementAndGet();
+            }
+
+            if (trackInsert.pending >= JDBC_BATCH_SIZE || relationInsert.pending >= JDBC_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private static long resolveName(DimensionCache ids, CsvTokenizer csv, int field, PendingBatch insert,
+                                        AtomicInteger counter) throws SQLException {
+            int found = ids.find(csv, field);
+            if (found != DimensionCache.NOT_FOUND) {
+                return ids.dbId(found);
+            }
+            long id = insert.nextId();
+            insert.statement.setLong(1, id);
+            insert.statement.setString(2, csv.string(field));
+            insert.add();
+            ids.intern(csv, field, id);
+            counter.incrementAndGet();
+            return id;
+        }
+
+        private static void setInteger(PreparedStatement ps, int index, CsvTokenizer csv, int field) throws SQLException {
+            if (csv.isInt(field)) ps.setInt(index, csv.intValue(field)); else ps.setNull(index, Types.INTEGER);
+        }
+
+        void reportFootprint() {
+            summary.cacheFootprint("playlists", playlists.footprintBytes());
+            summary.cacheFootprint("artistas", artists.footprintBytes());
+            summary.cacheFootprint("álbumes", albums.footprintBytes());
+            summary.cacheFootprint("géneros", genres.footprintBytes());
+            summary.cacheFootprint("mediaTypes", mediaTypes.footprintBytes());
+            summary.cacheFootprint("tracks", tracks.footprintBytes());
+            summary.cacheFootprint("relaciones", relations.footprintBytes());
+        }
+
+        /** Ejecuta los batches pendientes, padres antes que hijos, y actualiza PLAYLIST_STATS y el índice de búsqueda. */
+        void flush() throws SQLException {
+            summary.timeFlush(pendingRows(), this::executePending);
+        }
+
+        private int pendingRows() {
+            return playlistInsert.pending + artistInsert.pending + albumInsert.pending + genreInsert.pending
+                    + mediaTypeInsert.pending + trackInsert.pending + relationInsert.pending;
+        }
+
+        private void executePending() throws SQLException {
+            playlistInsert.execute();
+            artistInsert.execute();
+            albumInsert.execute();
+            genreInsert.execute();
+            mediaTypeInsert.execute();
+            trackInsert.execute();
+            relationInsert.execute();
+            statsDelta.apply(conn);
+            searchDelta.apply(conn);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            playlistInsert.close();
+            artistInsert.close();
+            albumInsert.close();
+            genreInsert.close();
+            mediaTypeInsert.close();
+            trackInsert.close();
+            relationInsert.close();
+        }
+    }
+
+    /** PreparedStatement de INSERT con su batch pendiente y su asignador de IDs. */
+    private static class PendingBatch implements AutoCloseable {
+        final PreparedStatement statement;
+        private final SequenceBlockAllocator ids;
+        int pending;
+
+        PendingBatch(Connection conn, String sequenceName, String sql) throws SQLException {
+            this.statement = conn.prepareStatement(sql);
+            this.ids = new SequenceBlockAllocator(conn, sequenceName);
+        }
+
+        long nextId() throws SQLException {
+            return ids.next();
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            pending++;
+        }
+
+        void execute() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            statement.close();
+        }
+    }
+}
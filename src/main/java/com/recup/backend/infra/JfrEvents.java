@@ -0,0 +1,207 @@
+package com.recup.backend.infra;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Eventos propios de Java Flight Recorder (categoría "Recup"), para ver en una grabación en qué se va el
+ * tiempo de cada lote de la importación:
+ * - {@link ImportBatch}: el lote completo (lectura y parseo del CSV, flush y commit);
+ * - {@link Flush} y {@link Commit}: dentro del lote, el flush de Hibernate / los executeBatch y el commit;
+ * - {@link Query}: cada consulta de un repositorio (incluidos los reportes).
+ *
+ * Todos llevan los bytes que reservó el hilo durante el evento ({@link #allocatedBytes()}); el lote además
+ * los statements y las llamadas a secuencias ({@link SqlStatementCounter}). El GC, los locks y el muestreo
+ * de CPU salen de los eventos del JDK que activa la configuración incluida (recursos, {@value #SETTINGS}).
+ *
+ * Con JFR apagado (o el evento desactivado) el costo es una consulta a {@code isEnabled()}: los contadores
+ * solo se leen si el evento se va a grabar.
+ */
+public final class JfrEvents {
+    /** Configuración de JFR incluida en el classpath. */
+    public static final String SETTINGS = "/jfr/recup.jfc";
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Bytes reservados en el heap por el hilo actual desde que arrancó (ThreadMXBean); la diferencia entre
+     * dos lecturas es lo que reservó en el medio. 0 si la JVM no lo soporta.
+     */
+    public static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+
+    @Name("com.recup.backend.ImportBatch")
+    @Label("Lote de importación")
+    @Category({"Recup", "Importación"})
+    @Description("Un lote de la importación, desde el commit anterior hasta su commit")
+    @StackTrace(false)
+    public static final class ImportBatch extends Event {
+        @Label("Modo")
+        public String mode;
+
+        @Label("Lote")
+        @Description("Número de lote dentro de la importación (los writers del modo paralelo comparten la numeración)")
+        public int batch;
+
+        @Label("Líneas")
+        @Description("Líneas del CSV procesadas en el lote")
+        public int rows;
+
+        @Label("Statements SQL")
+        @Description("Statements preparados por Hibernate durante el lote (en modo paralelo incluye los demás writers)")
+        public long statements;
+
+        @Label("Llamadas a secuencias")
+        public long sequenceCalls;
+
+        @Label("Bytes reservados")
+        @DataAmount
+        public long allocated;
+
+        private transient long allocatedAtStart;
+        private transient long statementsAtStart;
+        private transient long sequenceCallsAtStart;
+
+        /** Abre el evento del lote que empieza en el hilo actual. */
+        public static ImportBatch start(String mode) {
+            ImportBatch event = new ImportBatch();
+            event.mode = mode;
+            if (event.isEnabled()) {
+                event.allocatedAtStart = allocatedBytes();
+                event.statementsAtStart = SqlStatementCounter.total();
+                event.sequenceCallsAtStart = SqlStatementCounter.sequenceCalls();
+                event.begin();
+            }
+            return event;
+        }
+
+        /** Cierra y graba el evento (si JFR lo pide). */
+        public void finish(int batch, int rows) {
+            end();
+            if (shouldCommit()) {
+                this.batch = batch;
+                this.rows = rows;
+                allocated = allocatedBytes() - allocatedAtStart;
+                statements = SqlStatementCounter.total() - statementsAtStart;
+                sequenceCalls = SqlStatementCounter.sequenceCalls() - sequenceCallsAtStart;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.recup.backend.Flush")
+    @Label("Flush de lote")
+    @Category({"Recup", "Importación"})
+    @Description("em.flush() o los executeBatch de un lote de la importación")
+    @StackTrace(false)
+    public static final class Flush extends Event {
+        @Label("Modo")
+        public String mode;
+
+        @Label("Filas")
+        @Description("Líneas del lote (o filas pendientes de los batches JDBC) que se sincronizan")
+        public int rows;
+
+        @Label("Bytes reservados")
+        @DataAmount
+        public long allocated;
+    }
+
+    @Name("com.recup.backend.Commit")
+    @Label("Commit de lote")
+    @Category({"Recup", "Importación"})
+    @Description("El commit de un lote de la importación")
+    @StackTrace(false)
+    public static final class Commit extends Event {
+        @Label("Modo")
+        public String mode;
+
+        @Label("Filas")
+        @Description("Líneas del CSV (o facturas) que confirma el commit")
+        public int rows;
+
+        @Label("Bytes reservados")
+        @DataAmount
+        public long allocated;
+    }
+
+    @Name("com.recup.backend.Query")
+    @Label("Consulta de repositorio")
+    @Category({"Recup", "Repositorios"})
+    @Description("Una consulta de un repositorio (o un recorrido de Finders), con las entidades que arma Hibernate")
+    public static final class Query extends Event {
+        @Label("Repositorio")
+        public String repository;
+
+        @Label("Consulta")
+        public String query;
+
+        @Label("Filas")
+        @Description("Elementos devueltos (colecciones: tamaño; Optional: 0 o 1; otros: 1)")
+        public int rows;
+
+        @Label("Bytes reservados")
+        @DataAmount
+        public long allocated;
+    }
+
+    /** Mide {@code body} como un evento Flush: duración, filas y bytes reservados. */
+    static <E extends Exception> void flush(String mode, int rows, ImportSummary.ThrowingRunnable<E> body) throws E {
+        Flush event = new Flush();
+        if (!event.isEnabled()) {
+            body.run();
+            return;
+        }
+        long allocatedAtStart = allocatedBytes();
+        event.begin();
+        body.run();
+        event.end();
+        if (event.shouldCommit()) {
+            event.mode = mode;
+            event.rows = rows;
+            event.allocated = allocatedBytes() - allocatedAtStart;
+            event.commit();
+        }
+    }
+
+    /** Mide {@code body} como un evento Commit: duración, filas y bytes reservados. */
+    static <E extends Exception> void commit(String mode, int rows, ImportSummary.ThrowingRunnable<E> body) throws E {
+        Commit event = new Commit();
+        if (!event.isEnabled()) {
+            body.run();
+            return;
+        }
+        long allocatedAtStart = allocatedBytes();
+        event.begin();
+        body.run();
+        event.end();
+        if (event.shouldCommit()) {
+            event.mode = mode;
+            event.rows = rows;
+            event.allocated = allocatedBytes() - allocatedAtStart;
+            event.commit();
+        }
+    }
+}
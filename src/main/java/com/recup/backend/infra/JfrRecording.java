@@ -0,0 +1,60 @@
+package com.recup.backend.infra;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Grabación de JFR con la configuración incluida ({@link JfrEvents#SETTINGS}): con
+ * {@code -Djfr.file=<ruta>.jfr} la app graba desde el arranque y escribe el archivo al terminar (abrirlo
+ * con JDK Mission Control o {@code jfr print --events com.recup.backend.ImportBatch <ruta>}).
+ */
+public final class JfrRecording {
+    private static Recording recording;
+
+    private JfrRecording() {
+    }
+
+    /** Arranca la grabación si se pidió con -Djfr.file (idempotente). */
+    public static synchronized void start() throws IOException, ParseException {
+        String file = System.getProperty("jfr.file");
+        if (file == null || recording != null) {
+            return;
+        }
+        recording = new Recording(settings());
+        recording.setName("recup");
+        recording.setToDisk(true);
+        recording.setDestination(Path.of(file).toAbsolutePath());
+        recording.start();
+        System.out.println("🎞️ JFR: grabando en " + recording.getDestination());
+    }
+
+    /** Detiene la grabación, lo que escribe el archivo. */
+    public static synchronized void close() {
+        if (recording != null) {
+            recording.stop();
+            System.out.println("🎞️ JFR: grabación escrita en " + recording.getDestination());
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /** La configuración incluida en el classpath. */
+    public static Configuration settings() throws IOException, ParseException {
+        try (InputStream in = JfrRecording.class.getResourceAsStream(JfrEvents.SETTINGS)) {
+            if (in == null) {
+                throw new IOException("No se encontró " + JfrEvents.SETTINGS + " en el classpath");
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return Configuration.create(reader);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.recup.backend.infra;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con buckets log-lineales, como HdrHistogram: cada potencia de 2
+ * se parte en {@value #SUB_BUCKETS} buckets iguales, así un percentil tiene a lo sumo ~3% de error relativo
+ * en todo el rango (hasta ~1 hora; lo que pase de ahí cae en el último bucket).
+ *
+ * Thread-safe y sin locks: registrar un valor es un incremento en un AtomicLongArray más dos LongAdder, así
+ * que varios hilos pueden medir al mismo tiempo. Las lecturas no son una foto atómica (un percentil puede
+ * no incluir un valor que ya está en {@link #count()}); alcanza para monitoreo.
+ */
+public class LatencyHistogram implements Metrics.HistogramMXBean {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** 2^42 ns ≈ 73 minutos. */
+    private static final int MAX_EXPONENT = 42;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /** Registra el tiempo transcurrido desde {@code startNanos} (un valor previo de System.nanoTime()). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sumNanos() {
+        return sum.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    /** Valor (en ns) por debajo del cual queda la fracción {@code q} de las mediciones; 0 si no hay ninguna. */
+    public long percentile(double q) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /** Mayor valor que cae en el bucket (el que informa HdrHistogram como "highest equivalent value"). */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    // --- JMX ---
+
+    @Override
+    public long getCount() {
+        return count();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long n = count();
+        return n == 0 ? 0 : millis(sumNanos()) / n;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return millis(percentile(0.50));
+    }
+
+    @Override
+    public double getP90Millis() {
+        return millis(percentile(0.90));
+    }
+
+    @Override
+    public double getP99Millis() {
+        return millis(percentile(0.99));
+    }
+
+    @Override
+    public double getP999Millis() {
+        return millis(percentile(0.999));
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return millis(maxNanos());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
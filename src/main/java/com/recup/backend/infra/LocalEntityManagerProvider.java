@@ -14,14 +14,18 @@ import java.util.Map;
  * Configuración:
  * - Usa EntityManagerFactory con Hibernate y H2
  * - hibernate.hbm2ddl.auto=none (el DDL lo ejecuta DbInitializer)
- * - show_sql y format_sql habilitados para debug
- * - Usa el MISMO DataSource que DataSourceProvider (consistencia)
+ * - show_sql y format_sql habilitados para debug (-Dhibernate.show_sql=false los apaga, ej: benchmarks)
+ * - Usa el MISMO DataSource que DataSourceProvider (consistencia, y el mismo pool de conexiones)
+ * - Thread-safe: la EntityManagerFactory se crea una sola vez aunque la pidan varios hilos
+ * - Cache de segundo nivel y de consultas (Caffeine) para Genre, MediaType, Artist y Album;
+ *   -Dcache.enabled=false los apaga. Lo que se escribe por JDBC (sin Hibernate) requiere {@link #evictCaches}
+ * - Estadísticas de Hibernate solo con -Dcache.stats=true ({@link CacheStatistics})
  * 
  * IMPORTANTE: Mantener nombre coherente con materiales de referencia
  * para reutilización en el día del parcial.
  */
 public class LocalEntityManagerProvider {
-    private static EntityManagerFactory emf;
+    private static volatile EntityManagerFactory emf;
 
     /**
      * Obtiene un EntityManager configurado con Hibernate + H2.
@@ -30,49 +34,79 @@ public class LocalEntityManagerProvider {
      * @return EntityManager nuevo
      */
     public static EntityManager getEntityManager() {
-        if (emf == null) {
-            // Obtener el DataSource centralizado
-            DataSource ds = DataSourceProvider.getDataSource();
-            
-            // Configurar propiedades de Hibernate programáticamente
-            Map<String, Object> properties = new HashMap<>();
-            
-            // Usar el DataSource de DataSourceProvider (mismo para JDBC y JPA)
-            properties.put("javax.sql.DataSource", ds);
-            properties.put("jakarta.persistence.nonJtaDataSource", ds);
-            
-            // Hibernate: NO generar DDL (ya ejecutado por DbInitializer)
-            properties.put("hibernate.hbm2ddl.auto", "none");
-            
-            // Debug SQL (opcional, útil para desarrollo)
-            properties.put("hibernate.show_sql", "true");
-            properties.put("hibernate.format_sql", "true");
-            
-            // Dialecto H2
-            properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
-            
-            // Crear EntityManagerFactory con estas propiedades
-            emf = Persistence.createEntityManagerFactory("recup-pu", properties);
-        }
-        return emf.createEntityManager();
+        return getEntityManagerFactory().createEntityManager();
     }
 
     /**
      * Obtiene la EntityManagerFactory (útil para operaciones avanzadas).
      */
     public static EntityManagerFactory getEntityManagerFactory() {
-        if (emf == null) {
-            getEntityManager(); // Inicializar si no existe
+        EntityManagerFactory factory = emf;
+        if (factory == null) {
+            synchronized (LocalEntityManagerProvider.class) {
+                factory = emf;
+                if (factory == null) {
+                    factory = createEntityManagerFactory();
+                    emf = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    private static EntityManagerFactory createEntityManagerFactory() {
+        // Obtener el DataSource centralizado
+        DataSource ds = DataSourceProvider.getDataSource();
+        
+        // Configurar propiedades de Hibernate programáticamente
+        Map<String, Object> properties = new HashMap<>();
+        
+        // Usar el DataSource de DataSourceProvider (mismo para JDBC y JPA)
+        properties.put("javax.sql.DataSource", ds);
+        properties.put("jakarta.persistence.nonJtaDataSource", ds);
+        
+        // Hibernate: NO generar DDL (ya ejecutado por DbInitializer)
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        
+        // Debug SQL (opcional, útil para desarrollo)
+        properties.put("hibernate.show_sql", System.getProperty("hibernate.show_sql", "true"));
+        properties.put("hibernate.format_sql", "true");
+        
+        // Dialecto H2
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+
+        // Conteo de statements (secuencias / inserts / selects) para el resumen de importación
+        properties.put("hibernate.session_factory.statement_inspector", new SqlStatementCounter());
+
+        // Cache de segundo nivel / de consultas (configurado en persistence.xml): se puede apagar para comparar
+        if (!Boolean.parseBoolean(System.getProperty("cache.enabled", "true"))) {
+            properties.put("hibernate.cache.use_second_level_cache", "false");
+            properties.put("hibernate.cache.use_query_cache", "false");
         }
-        return emf;
+        if (CacheStatistics.requested()) {
+            properties.put("hibernate.generate_statistics", "true");
+        }
+        
+        // Crear EntityManagerFactory con estas propiedades
+        return Persistence.createEntityManagerFactory("recup-pu", properties);
+    }
+
+    /**
+     * Vacía el cache de segundo nivel y el de consultas. Hibernate los mantiene al día con lo que escribe él;
+     * después de modificar tablas por JDBC (ej: JdbcBulkPlaylistLoader) hay que descartarlos.
+     */
+    public static void evictCaches(EntityManagerFactory factory) {
+        factory.getCache().unwrap(org.hibernate.Cache.class).evictAllRegions();
     }
 
     /**
      * Cierra la EntityManagerFactory (al finalizar la aplicación).
+     * Un getEntityManager() posterior crea una nueva (ej: después de recrear la base).
      */
-    public static void close() {
+    public static synchronized void close() {
         if (emf != null && emf.isOpen()) {
             emf.close();
         }
+        emf = null;
     }
 }
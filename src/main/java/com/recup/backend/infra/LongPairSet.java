@@ -0,0 +1,92 @@
+package com.recup.backend.infra;
+
+/**
+ * Conjunto de pares (first, second) de IDs no negativos de hasta 32 bits, ej: (playlistId, trackId).
+ *
+ * Cada par se empaqueta en un long y se guarda en un long[] con direccionamiento abierto: sin objetos
+ * por elemento (un HashSet&lt;Long&gt; ocupa ~5 veces más). No es thread-safe.
+ */
+public final class LongPairSet {
+    private static final long EMPTY = 0L; // el par (0, 0) se guarda aparte
+
+    private long[] keys;
+    private boolean containsZero;
+    private int size;
+    private int mask;
+
+    public LongPairSet() {
+        this(1024);
+    }
+
+    public LongPairSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 4 / 3 + 1) - 1) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Memoria ocupada por el arreglo de claves, en bytes. */
+    public long footprintBytes() {
+        return 8L * keys.length;
+    }
+
+    public boolean contains(long first, long second) {
+        long key = pack(first, second);
+        if (key == EMPTY) return containsZero;
+        for (int i = slot(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+        }
+        return false;
+    }
+
+    /** Agrega el par; devuelve false si ya estaba. */
+    public boolean add(long first, long second) {
+        long key = pack(first, second);
+        if (key == EMPTY) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int i = slot(key);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) return false;
+        }
+        keys[i] = key;
+        if (++size * 4 > keys.length * 3) {
+            resize();
+        }
+        return true;
+    }
+
+    private void resize() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int i = slot(key);
+                while (keys[i] != EMPTY) i = (i + 1) & mask;
+                keys[i] = key;
+            }
+        }
+    }
+
+    private int slot(long key) {
+        // mezcla final de MurmurHash3: los IDs consecutivos no caen en slots consecutivos
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private static long pack(long first, long second) {
+        if ((first >>> 32) != 0 || (second >>> 32) != 0) {
+            throw new IllegalArgumentException("Par fuera de rango (32 bits): " + first + ", " + second);
+        }
+        return (first << 32) | second;
+    }
+}
@@ -0,0 +1,231 @@
+package com.recup.backend.infra;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registro global de métricas de la aplicación: contadores ({@link Counter}, sobre LongAdder) e histogramas
+ * de latencia ({@link LatencyHistogram}), identificados por nombre y etiquetas al estilo de Prometheus.
+ *
+ * Cada métrica se publica por JMX al crearse (dominio {@value #JMX_DOMAIN}, ej. en JConsole / VisualVM) y
+ * {@link #writePrometheus} las vuelca en el formato de texto de Prometheus (los histogramas como summary,
+ * en segundos); {@link MetricsExporter} lo escribe a un archivo o lo sirve por HTTP.
+ *
+ * Los métodos de acceso crean la métrica la primera vez y después devuelven la misma instancia: conviene
+ * guardarla en un campo si se usa en un ciclo.
+ */
+public final class Metrics {
+    public static final String JMX_DOMAIN = "com.recup.backend";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /** Familias por nombre, en orden alfabético para que el volcado sea estable. */
+    private static final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    /** Atributos de un contador vistos por JMX. */
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    /** Atributos de un histograma de latencias vistos por JMX (en milisegundos). */
+    public interface HistogramMXBean {
+        long getCount();
+
+        double getMeanMillis();
+
+        double getP50Millis();
+
+        double getP90Millis();
+
+        double getP99Millis();
+
+        double getP999Millis();
+
+        double getMaxMillis();
+    }
+
+    /** Contador monótono de baja contención (varios hilos pueden sumar sin pisarse). */
+    public static final class Counter implements CounterMXBean {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long sum() {
+            return value.sum();
+        }
+
+        @Override
+        public long getCount() {
+            return sum();
+        }
+    }
+
+    /**
+     * Contador {@code name} con las etiquetas dadas como pares clave, valor
+     * (ej: {@code counter("recup_import_rows_total", "...", "mode", "serial", "result", "processed")}).
+     */
+    public static Counter counter(String name, String help, String... labels) {
+        return family(name, help, "counter").get(labels, Counter::new);
+    }
+
+    /** Histograma de latencias {@code name} (en segundos al exportarlo) con las etiquetas dadas. */
+    public static LatencyHistogram histogram(String name, String help, String... labels) {
+        return family(name, help, "summary").get(labels, LatencyHistogram::new);
+    }
+
+    private static Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("La métrica " + name + " ya existe como " + family.type);
+        }
+        return family;
+    }
+
+    /** Vuelca todas las métricas en el formato de texto de Prometheus (versión 0.0.4). */
+    public static void writePrometheus(Appendable out) throws IOException {
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> entry : family.series.entrySet()) {
+                String labels = entry.getKey();
+                if (entry.getValue() instanceof Counter counter) {
+                    sample(out, family.name, labels, null, Long.toString(counter.sum()));
+                } else {
+                    LatencyHistogram histogram = (LatencyHistogram) entry.getValue();
+                    for (double q : QUANTILES) {
+                        sample(out, family.name, labels, "quantile=\"" + q + "\"", seconds(histogram.percentile(q)));
+                    }
+                    sample(out, family.name + "_sum", labels, null, seconds(histogram.sumNanos()));
+                    sample(out, family.name + "_count", labels, null, Long.toString(histogram.count()));
+                }
+            }
+        }
+    }
+
+    /** El volcado de {@link #writePrometheus} como String. */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder no lanza IOException
+        }
+        return out.toString();
+    }
+
+    private static void sample(Appendable out, String name, String labels, String extra, String value) throws IOException {
+        out.append(name);
+        if (!labels.isEmpty() || extra != null) {
+            out.append('{').append(labels);
+            if (extra != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extra);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /** Todas las series de una métrica: una por combinación de etiquetas. */
+    private static final class Family {
+        final String name;
+        final String help;
+        final String type;
+        /** Etiquetas ya formateadas ({@code k1="v1",k2="v2"}) → Counter / LatencyHistogram. */
+        final Map<String, Object> series = new ConcurrentSkipListMap<>();
+        /** Cache de búsqueda sin formatear, para no armar el String de etiquetas en cada llamada. */
+        final Map<LabelKey, Object> byLabels = new ConcurrentHashMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T get(String[] labels, Supplier<T> factory) {
+            Object metric = byLabels.get(new LabelKey(labels));
+            if (metric == null) {
+                metric = create(labels.clone(), factory);
+            }
+            return (T) metric;
+        }
+
+        private synchronized Object create(String[] labels, Supplier<?> factory) {
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Etiquetas de " + name + " incompletas: se esperan pares clave, valor");
+            }
+            LabelKey key = new LabelKey(labels);
+            Object existing = byLabels.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            StringBuilder formatted = new StringBuilder();
+            StringBuilder jmxName = new StringBuilder(JMX_DOMAIN).append(":type=Metrics,name=").append(name);
+            for (int i = 0; i < labels.length; i += 2) {
+                formatted.append(i == 0 ? "" : ",").append(labels[i]).append("=\"").append(escapeLabel(labels[i + 1])).append('"');
+                jmxName.append(',').append(labels[i]).append('=').append(ObjectName.quote(labels[i + 1]));
+            }
+            Object metric = factory.get();
+            series.put(formatted.toString(), metric);
+            byLabels.put(key, metric);
+            register(jmxName.toString(), metric);
+            return metric;
+        }
+    }
+
+    private record LabelKey(String[] labels) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LabelKey other && Arrays.equals(labels, other.labels);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(labels);
+        }
+    }
+
+    private static void register(String objectName, Object metric) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metric, name);
+            }
+        } catch (JMException e) {
+            // Sin JMX la métrica sigue funcionando (y se exporta en el texto de Prometheus)
+            System.err.println("⚠️ No se pudo publicar " + objectName + " por JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.recup.backend.infra;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporta {@link Metrics} en el formato de texto de Prometheus, según propiedades de sistema:
+ * - {@code -Dmetrics.file=<ruta>}: reescribe el archivo cada {@code metrics.interval} segundos (15 por
+ *   defecto) y al cerrar. Se escribe en un temporal y se renombra, como espera el textfile collector de
+ *   node_exporter (usar extensión .prom);
+ * - {@code -Dmetrics.port=<puerto>}: sirve {@code GET /metrics} por HTTP, en {@code metrics.host}
+ *   (localhost por defecto, 0.0.0.0 para aceptar conexiones de otras máquinas).
+ *
+ * Sin ninguna de las dos sólo queda JMX, que {@link Metrics} publica siempre.
+ */
+public final class MetricsExporter {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static ScheduledExecutorService scheduler;
+    private static HttpServer server;
+    private static Path file;
+
+    private MetricsExporter() {
+    }
+
+    /** Arranca los exportadores configurados (idempotente). */
+    public static synchronized void start() throws IOException {
+        String path = System.getProperty("metrics.file");
+        if (path != null && file == null) {
+            file = Path.of(path).toAbsolutePath();
+            long interval = Long.getLong("metrics.interval", 15);
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-file");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleAtFixedRate(MetricsExporter::writeFileQuietly, interval, interval, TimeUnit.SECONDS);
+            System.out.println("📈 Métricas: " + file + " (cada " + interval + " s)");
+        }
+        Integer port = Integer.getInteger("metrics.port");
+        if (port != null && server == null) {
+            server = HttpServer.create(new InetSocketAddress(System.getProperty("metrics.host", "localhost"), port), 0);
+            server.createContext("/metrics", MetricsExporter::handle);
+            server.start();
+            System.out.println("📈 Métricas: http://" + System.getProperty("metrics.host", "localhost") + ":"
+                    + server.getAddress().getPort() + "/metrics");
+        }
+    }
+
+    /** Escribe el archivo por última vez y detiene el servidor HTTP. */
+    public static synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            writeFileQuietly();
+            scheduler = null;
+            file = null;
+        }
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /** Escribe el volcado en {@code target} de forma atómica (temporal en el mismo directorio + rename). */
+    public static void writeFile(Path target) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                Metrics.writePrometheus(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static synchronized void writeFileQuietly() {
+        if (file == null) {
+            return;
+        }
+        try {
+            writeFile(file);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudieron escribir las métricas en " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
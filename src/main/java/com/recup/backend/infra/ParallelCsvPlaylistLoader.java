@@ -0,0 +1,413 @@
+package com.recup.backend.infra;
+
+import com.recup.backend.domain.*;
+import com.recup.backend.repo.PlaylistStatsRepository;
+import com.recup.backend.repo.TrackSearchRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Importación de playlists.csv en pipeline paralelo:
+ *
+ *   lector (1 hilo) → [cola registros] → parsers (N hilos) → [cola por shard] → writers (M hilos)
+ *
+ * - Las colas son acotadas (ArrayBlockingQueue): si la base no da abasto el lector se frena.
+ * - Cada writer tiene su propio EntityManager y su propia transacción.
+ * - Las filas se reparten por shard según la clave del track (nombre|álbum), así un mismo
+ *   track y todas sus relaciones playlist-track caen siempre en el mismo writer: la
+ *   deduplicación de tracks y relaciones es local al shard, sin locks.
+ * - Playlists, artistas, álbumes, géneros y media types se comparten entre shards: se resuelven
+ *   en {@link DimensionRegistry}, que los crea una única vez y confirma cada alta en el acto para
+ *   que las FKs de los otros writers vean la fila.
+ *
+ * Mismas reglas de duplicados y líneas omitidas que {@link CsvPlaylistLoader}.
+ */
+public class ParallelCsvPlaylistLoader {
+
+    private static final int QUEUE_CAPACITY = 2048;
+    private static final int BATCH_SIZE = 1000;
+
+    // Marcadores de fin de stream (se comparan por identidad)
+    private static final byte[] END_OF_RECORDS = new byte[0];
+    private static final PlaylistCsvRow END_OF_ROWS =
+            new PlaylistCsvRow("", "", "", "", "", "", "", "", "", "");
+
+    /** @return true si la importación terminó (false: no se encontró el archivo o falló) */
+    public static boolean load(EntityManager em, String resourcePath) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int parsers = Integer.getInteger("import.parsers", Math.max(1, cpus / 2));
+        int writers = Integer.getInteger("import.writers", Math.max(1, cpus / 2));
+        return load(em, resourcePath, parsers, writers);
+    }
+
+    /**
+     * @param em      EntityManager usado para precargar lo existente y para los reportes finales
+     * @param parsers cantidad de hilos parseando líneas
+     * @param writers cantidad de shards / hilos escribiendo (cada uno con su EntityManager)
+     * @return true si la importación terminó
+     */
+    public static boolean load(EntityManager em, String resourcePath, int parsers, int writers) {
+        CsvTokenizer csv;
+        try {
+            csv = CsvTokenizer.openSource(resourcePath);
+        } catch (IOException e) {
+            System.out.println("❌ No se pudo abrir " + resourcePath + ": " + e.getMessage());
+            return false;
+        }
+        if (csv == null) {
+            System.out.println("❌ Archivo / recurso no encontrado: " + resourcePath);
+            return false;
+        }
+        System.out.println("   Pipeline paralelo: 1 lector, " + parsers + " parsers, " + writers + " writers");
+
+        ImportSummary summary = new ImportSummary("parallel");
+        DimensionRegistry dimensions = new DimensionRegistry(summary);
+        dimensions.preload(em);
+
+        // Precarga de tracks y relaciones existentes, repartidos por shard
+        // (cada track vive en un único shard, así que sus relaciones también)
+        DimensionCache[] trackIds = new DimensionCache[writers];
+        LongPairSet[] relations = new LongPairSet[writers];
+        for (int i = 0; i < writers; i++) {
+            trackIds[i] = new DimensionCache();
+            relations[i] = new LongPairSet();
+        }
+        em.createQuery("SELECT t.name, a.title, t.id FROM Track t LEFT JOIN t.album a", Object[].class)
+                .getResultList()
+                .forEach(row -> {
+                    String trackKey = row[0] + "|" + (row[1] != null ? row[1] : "");
+                    trackIds[shardOf(trackKey, writers)].intern(trackKey, ((Number) row[2]).longValue());
+                });
+        em.createQuery("SELECT pt.playlist.id, pt.track.id, CONCAT(t.name, '|', COALESCE(a.title, '')) "
+                        + "FROM PlaylistTrack pt JOIN pt.track t LEFT JOIN t.album a", Object[].class)
+                .getResultList()
+                .forEach(row -> relations[shardOf((String) row[2], writers)]
+                        .add(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+
+        BlockingQueue<byte[]> records = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        @SuppressWarnings("unchecked")
+        BlockingQueue<PlaylistCsvRow>[] shards = new BlockingQueue[writers];
+        for (int i = 0; i < writers; i++) {
+            shards[i] = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(1 + parsers + writers);
+        ExecutorCompletionService<Void> completion = new ExecutorCompletionService<>(pool);
+        int tasks = 0;
+        try {
+            completion.submit(reader(csv, records, parsers));
+            tasks++;
+            for (int i = 0; i < parsers; i++) {
+                completion.submit(parser(records, shards, summary));
+                tasks++;
+            }
+            for (int i = 0; i < writers; i++) {
+                completion.submit(writer(shards[i], parsers, trackIds[i], relations[i], dimensions, summary));
+                tasks++;
+            }
+            // Si una etapa falla se cancela el resto (si no, las demás quedarían bloqueadas en las colas)
+            for (int i = 0; i < tasks; i++) {
+                completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            pool.shutdownNow();
+            System.out.println("❌ Error procesando CSV: " + e.getCause().getMessage());
+            e.getCause().printStackTrace();
+            return false;
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            System.out.println("❌ Importación interrumpida");
+            return false;
+        } finally {
+            pool.shutdown();
+            dimensions.close();
+        }
+
+        for (int i = 0; i < writers; i++) {
+            summary.cacheFootprint("tracks", trackIds[i].footprintBytes());
+            summary.cacheFootprint("relaciones", relations[i].footprintBytes());
+        }
+        summary.print("playlists.csv (paralelo)");
+        CsvPlaylistLoader.mostrarResultados(em);
+        return true;
+    }
+
+    private static int shardOf(String trackKey, int writers) {
+        return Math.floorMod(trackKey.hashCode(), writers);
+    }
+
+    /** Separa registros (respetando comillas multilínea) y pasa sus bytes crudos a los parsers. */
+    private static Callable<Void> reader(CsvTokenizer csv, BlockingQueue<byte[]> records, int parsers) {
+        return () -> {
+            try (csv) {
+                boolean header = csv.nextRecord(); // encabezado
+                if (!header) {
+                    System.out.println("⚠️ Archivo vacío");
+                }
+                while (header && csv.nextRecord()) {
+                    if (csv.isBlankRecord()) continue;
+                    records.put(csv.recordBytes());
+                }
+            } finally {
+                // Un marcador de fin por parser
+                for (int i = 0; i < parsers; i++) {
+                    records.put(END_OF_RECORDS);
+                }
+            }
+            return null;
+        };
+    }
+
+    private static Callable<Void> parser(BlockingQueue<byte[]> records, BlockingQueue<PlaylistCsvRow>[] shards,
+                                         ImportSummary summary) {
+        return () -> {
+            try {
+                byte[] record;
+                while ((record = records.take()) != END_OF_RECORDS) {
+                    CsvTokenizer csv = CsvTokenizer.of(record);
+                    csv.nextRecord();
+                    PlaylistCsvRow row = PlaylistCsvRow.from(csv);
+                    if (row == null) {
+                        summary.skipped.incrementAndGet();
+                        continue;
+                    }
+                    shards[shardOf(row.trackKey(), shards.length)].put(row);
+                }
+            } finally {
+                // Cada writer espera un marcador de fin por parser
+                for (BlockingQueue<PlaylistCsvRow> shard : shards) {
+                    shard.put(END_OF_ROWS);
+                }
+            }
+            return null;
+        };
+    }
+
+    private static Callable<Void> writer(BlockingQueue<PlaylistCsvRow> rows, int parsers,
+                                         DimensionCache trackIds, LongPairSet relations,
+                                         DimensionRegistry dimensions, ImportSummary summary) {
+        return () -> {
+            EntityManager em = LocalEntityManagerProvider.getEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            PlaylistStatsDelta statsDelta = new PlaylistStatsDelta();
+            PlaylistStatsRepository statsRepo = new PlaylistStatsRepository(em);
+            TrackSearchIndex searchDelta = new TrackSearchIndex();
+            TrackSearchRepository searchRepo = new TrackSearchRepository(em);
+            try {
+                tx.begin();
+                JfrEvents.ImportBatch batch = summary.startBatch();
+                int sinceLastCommit = 0;
+                int pendingEnds = parsers;
+                while (pendingEnds > 0) {
+                    PlaylistCsvRow row = rows.take();
+                    if (row == END_OF_ROWS) {
+                        pendingEnds--;
+                        continue;
+                    }
+
+                    long playlistId = dimensions.playlist(row.playlistName());
+                    long artistId = dimensions.artist(row.artistName());
+                    long albumId = dimensions.album(row.albumTitle(), artistId);
+                    long genreId = dimensions.genre(row.genreName());
+                    long mediaTypeId = dimensions.mediaType(row.mediaTypeName());
+
+                    String trackKey = row.trackKey();
+                    int found = trackIds.find(trackKey);
+                    long trackId;
+                    if (found != DimensionCache.NOT_FOUND) {
+                        trackId = trackIds.dbId(found);
+                    } else {
+                        Track track = new Track();
+                        track.setName(row.trackName());
+                        track.setComposer(row.composer());
+                        track.setMilliseconds(row.milliseconds());
+                        track.setBytes(row.bytes());
+                        track.setUnitPrice(row.unitPrice());
+                        track.setAlbum(em.getReference(Album.class, albumId));
+                        track.setGenre(em.getReference(Genre.class, genreId));
+                        track.setMediaType(em.getReference(MediaType.class, mediaTypeId));
+                        em.persist(track);
+                        trackId = track.getId();
+                        trackIds.intern(trackKey, trackId);
+                        searchDelta.trackChanged(trackId);
+                        summary.newTracks.incrementAndGet();
+                    }
+
+                    if (relations.add(playlistId, trackId)) {
+                        PlaylistTrack pt = new PlaylistTrack();
+                        pt.setPlaylist(em.getReference(Playlist.class, playlistId));
+                        pt.setTrack(em.getReference(Track.class, trackId));
+                        em.persist(pt);
+                        statsDelta.trackAdded(playlistId, trackId);
+                        summary.newRelations.incrementAndGet();
+                    }
+
+                    int done = summary.processed.incrementAndGet();
+                    if (done % 500 == 0) {
+                        System.out.println("   Progreso: " + done + " líneas (omitidas=" + summary.skipped.get() + ", "
+                                + String.format("%.1f", summary.linesPerSecond()) + " líneas/seg)");
+                    }
+
+                    // Commit por lotes; clear porque solo se conservan IDs entre lotes
+                    if (++sinceLastCommit >= BATCH_SIZE) {
+                        summary.timeFlush(sinceLastCommit, em::flush);
+                        searchRepo.apply(searchDelta);
+                        batch = commitWithStats(tx, statsRepo, statsDelta, summary, batch, sinceLastCommit);
+                        em.clear();
+                        sinceLastCommit = 0;
+                        tx.begin();
+                    }
+                }
+                summary.timeFlush(sinceLastCommit, em::flush);
+                searchRepo.apply(searchDelta);
+                commitWithStats(tx, statsRepo, statsDelta, summary, batch, sinceLastCommit);
+                return null;
+            } finally {
+                if (tx.isActive()) tx.rollback();
+                em.close();
+            }
+        };
+    }
+
+    /**
+     * Aplica el delta de PLAYLIST_STATS y confirma, con el lock compartido entre writers tomado.
+     * @return el evento JFR del lote siguiente del writer
+     */
+    private static JfrEvents.ImportBatch commitWithStats(EntityTransaction tx, PlaylistStatsRepository statsRepo,
+                                                         PlaylistStatsDelta statsDelta, ImportSummary summary,
+                                                         JfrEvents.ImportBatch batch, int rows) {
+        synchronized (PlaylistStatsDelta.APPLY_LOCK) {
+            statsRepo.apply(statsDelta);
+            return summary.timeCommit(batch, rows, tx::commit);
+        }
+    }
+
+    /**
+     * Dimensiones compartidas entre writers (nombre → ID).
+     * Lectura sin lock; el alta se serializa y se confirma en su propia transacción,
+     * así cada nombre se inserta una única vez aunque varios shards lo vean a la vez.
+     */
+    static class DimensionRegistry {
+        private final Map<String, Long> playlists = new ConcurrentHashMap<>();
+        private final Map<String, Long> artists = new ConcurrentHashMap<>();
+        private final Map<String, Long> albums = new ConcurrentHashMap<>(); // clave: titulo
+        private final Map<String, Long> genres = new ConcurrentHashMap<>();
+        private final Map<String, Long> mediaTypes = new ConcurrentHashMap<>();
+        private final ImportSummary summary;
+        private final Object lock = new Object();
+        private EntityManager em;
+
+        DimensionRegistry(ImportSummary summary) {
+            this.summary = summary;
+        }
+
+        void preload(EntityManager source) {
+            load(source, "SELECT p.name, p.id FROM Playlist p", playlists);
+            load(source, "SELECT a.name, a.id FROM Artist a", artists);
+            load(source, "SELECT al.title, al.id FROM Album al", albums);
+            load(source, "SELECT g.name, g.id FROM Genre g", genres);
+            load(source, "SELECT m.name, m.id FROM MediaType m", mediaTypes);
+        }
+
+        private static void load(EntityManager source, String jpql, Map<String, Long> target) {
+            source.createQuery(jpql, Object[].class).getResultList()
+                    .forEach(row -> target.put((String) row[0], ((Number) row[1]).longValue()));
+        }
+
+        long playlist(String name) {
+            return resolve(playlists, name, summary.newPlaylists, em -> {
+                Playlist p = new Playlist();
+                p.setName(name);
+                return p;
+            });
+        }
+
+        long artist(String name) {
+            return resolve(artists, name, summary.newArtists, em -> {
+                Artist a = new Artist();
+                a.setName(name);
+                return a;
+            });
+        }
+
+        long album(String title, long artistId) {
+            return resolve(albums, title, summary.newAlbums, em -> {
+                Album al = new Album();
+                al.setTitle(title);
+                al.setArtist(em.getReference(Artist.class, artistId));
+                return al;
+            });
+        }
+
+        long genre(String name) {
+            return resolve(genres, name, summary.newGenres, em -> {
+                Genre g = new Genre();
+                g.setName(name);
+                return g;
+            });
+        }
+
+        long mediaType(String name) {
+            return resolve(mediaTypes, name, summary.newMediaTypes, em -> {
+                MediaType m = new MediaType();
+                m.setName(name);
+                return m;
+            });
+        }
+
+        private long resolve(Map<String, Long> cache, String name, AtomicInteger counter,
+                             Function<EntityManager, Object> factory) {
+            Long id = cache.get(name);
+            if (id != null) {
+                return id;
+            }
+            synchronized (lock) {
+                id = cache.get(name);
+                if (id != null) {
+                    return id;
+                }
+                if (em == null) {
+                    em = LocalEntityManagerProvider.getEntityManager();
+                }
+                EntityTransaction tx = em.getTransaction();
+                tx.begin();
+                try {
+                    Object entity = factory.apply(em);
+                    em.persist(entity);
+                    tx.commit();
+                    id = (Long) em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+                } catch (RuntimeException e) {
+                    if (tx.isActive()) tx.rollback();
+                    throw e;
+                }
+                em.clear();
+                cache.put(name, id);
+                counter.incrementAndGet();
+                return id;
+            }
+        }
+
+        void close() {
+            synchronized (lock) {
+                if (em != null) {
+                    em.close();
+                    em = null;
+                }
+            }
+        }
+    }
+}
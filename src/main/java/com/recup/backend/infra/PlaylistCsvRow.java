@@ -0,0 +1,87 @@
+package com.recup.backend.infra;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila ya parseada y validada de playlists.csv.
+ * Se usa tanto en la carga secuencial como en el pipeline paralelo,
+ * para que ambos caminos apliquen exactamente las mismas reglas.
+ */
+public record PlaylistCsvRow(String playlistName,
+                             String trackName,
+                             String composer,
+                             String millisecondsStr,
+                             String bytesStr,
+                             String unitPriceStr,
+                             String albumTitle,
+                             String artistName,
+                             String genreName,
+                             String mediaTypeName) {
+
+    /** Columnas esperadas en cada línea del CSV. */
+    public static final int COLUMNS = 10;
+
+    // Índices de columna
+    public static final int PLAYLIST_NAME = 0;
+    public static final int TRACK_NAME = 1;
+    public static final int COMPOSER = 2;
+    public static final int MILLISECONDS = 3;
+    public static final int BYTES = 4;
+    public static final int UNIT_PRICE = 5;
+    public static final int ALBUM_TITLE = 6;
+    public static final int ARTIST_NAME = 7;
+    public static final int GENRE_NAME = 8;
+    public static final int MEDIA_TYPE_NAME = 9;
+
+    /**
+     * Valida el registro actual del tokenizer sin crear Strings:
+     * al menos {@value #COLUMNS} columnas y ninguna vacía.
+     */
+    public static boolean isComplete(CsvTokenizer csv) {
+        if (csv.fieldCount() < COLUMNS) {
+            return false;
+        }
+        for (int i = 0; i < COLUMNS; i++) {
+            if (csv.isEmpty(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Crea la fila a partir del registro actual del tokenizer.
+     * @return la fila o null si el registro está incompleto
+     */
+    public static PlaylistCsvRow from(CsvTokenizer csv) {
+        if (!isComplete(csv)) {
+            return null;
+        }
+        return new PlaylistCsvRow(
+                csv.string(PLAYLIST_NAME), csv.string(TRACK_NAME), csv.string(COMPOSER), csv.string(MILLISECONDS),
+                csv.string(BYTES), csv.string(UNIT_PRICE), csv.string(ALBUM_TITLE), csv.string(ARTIST_NAME),
+                csv.string(GENRE_NAME), csv.string(MEDIA_TYPE_NAME));
+    }
+
+    /** Clave lógica del track: nombre + título de álbum. */
+    public String trackKey() {
+        return trackName + "|" + albumTitle;
+    }
+
+    public Integer milliseconds() {
+        try { return Integer.parseInt(millisecondsStr); } catch (NumberFormatException e) { return null; }
+    }
+
+    public Integer bytes() {
+        try { return Integer.parseInt(bytesStr); } catch (NumberFormatException e) { return null; }
+    }
+
+    public BigDecimal unitPrice() {
+        return parseDecimal(unitPriceStr);
+    }
+
+    /** BigDecimal del texto o null si no es un número válido. */
+    public static BigDecimal parseDecimal(String value) {
+        try { return new BigDecimal(value); } catch (NumberFormatException e) { return null; }
+    }
+}
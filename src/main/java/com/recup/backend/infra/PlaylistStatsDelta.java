@@ -0,0 +1,265 @@
+package com.recup.backend.infra;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cambios pendientes sobre PLAYLIST_STATS (sumas de precio y duración de los tracks de cada playlist)
+ * y PLAYLIST_GENRE_STATS (cantidad de tracks de cada género en cada playlist).
+ *
+ * Se registran los pares (playlist, track) agregados / quitados y se aplican juntos con
+ * {@link #apply(Connection)}: una consulta para leer precio, duración y género de los tracks
+ * involucrados y un UPDATE (o INSERT) por playlist y por (playlist, género) tocados. Así la
+ * importación mantiene el agregado con unos pocos statements por lote en lugar de uno por relación.
+ * Los precios / duraciones nulos suman 0.
+ *
+ * No es thread-safe; en el pipeline paralelo cada writer tiene el suyo (ver {@link #APPLY_LOCK}).
+ */
+public final class PlaylistStatsDelta {
+
+    /**
+     * Los writers paralelos aplican sus deltas con este lock tomado (hasta el commit), así dos
+     * transacciones no intentan crear la misma fila de PLAYLIST_STATS a la vez.
+     */
+    public static final Object APPLY_LOCK = new Object();
+
+    private static final String AGGREGATE_COLUMNS =
+            "SELECT pt.PLAYLIST_ID, COUNT(*), COALESCE(SUM(t.UNIT_PRICE), 0), COALESCE(SUM(t.MILLISECONDS), 0) ";
+    private static final String GENRE_AGGREGATE_COLUMNS = "SELECT pt.PLAYLIST_ID, t.GENRE_ID, COUNT(*) ";
+    private static final String RELATION_TRACKS = "FROM PLAYLIST_TRACK pt JOIN TRACKS t ON t.TRACK_ID = pt.TRACK_ID ";
+    private static final String AGGREGATE_SELECT = AGGREGATE_COLUMNS + RELATION_TRACKS;
+    private static final String GENRE_AGGREGATE_SELECT = GENRE_AGGREGATE_COLUMNS + RELATION_TRACKS + "WHERE t.GENRE_ID IS NOT NULL ";
+
+    private long[] pairs = new long[256]; // (playlistId << 32) | trackId
+    private boolean[] removed = new boolean[256];
+    private int size;
+
+    public void trackAdded(long playlistId, long trackId) {
+        add(playlistId, trackId, false);
+    }
+
+    public void trackRemoved(long playlistId, long trackId) {
+        add(playlistId, trackId, true);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Aplica los cambios pendientes en la transacción de {@code conn} y vacía el delta.
+     * Las filas de TRACKS y PLAYLIST_TRACK involucradas ya tienen que estar escritas en esa conexión.
+     */
+    public void apply(Connection conn) throws SQLException {
+        if (size == 0) {
+            return;
+        }
+        Map<Long, Object[]> tracks = readTracks(conn);
+
+        // playlistId → {cantidad, precio, milisegundos} y (playlistId, genreId) → cantidad;
+        // ordenados para tomar los locks de fila siempre en el mismo orden
+        Map<Long, Totals> totals = new TreeMap<>();
+        Map<Long, Integer> genreCounts = new TreeMap<>();
+        boolean removals = false;
+        for (int i = 0; i < size; i++) {
+            long playlistId = pairs[i] >>> 32;
+            Object[] track = tracks.get(pairs[i] & 0xFFFFFFFFL);
+            Totals t = totals.computeIfAbsent(playlistId, id -> new Totals());
+            int sign = removed[i] ? -1 : 1;
+            removals |= removed[i];
+            t.count += sign;
+            if (track != null) {
+                if (track[0] != null) t.price = t.price.add(sign < 0 ? ((BigDecimal) track[0]).negate() : (BigDecimal) track[0]);
+                if (track[1] != null) t.milliseconds += sign * ((Number) track[1]).longValue();
+                if (track[2] != null) genreCounts.merge((playlistId << 32) | ((Number) track[2]).longValue(), sign, Integer::sum);
+            }
+        }
+        applyTotals(conn, totals);
+        applyGenreCounts(conn, genreCounts, removals);
+        size = 0;
+    }
+
+    private static void applyTotals(Connection conn, Map<Long, Totals> totals) throws SQLException {
+
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE PLAYLIST_STATS SET TRACK_COUNT = TRACK_COUNT + ?, TOTAL_PRICE = TOTAL_PRICE + ?, "
+                        + "TOTAL_MILLISECONDS = TOTAL_MILLISECONDS + ? WHERE PLAYLIST_ID = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO PLAYLIST_STATS (PLAYLIST_ID, TRACK_COUNT, TOTAL_PRICE, TOTAL_MILLISECONDS) VALUES (?, ?, ?, ?)")) {
+            Long[] ids = totals.keySet().toArray(new Long[0]);
+            for (Long playlistId : ids) {
+                Totals t = totals.get(playlistId);
+                update.setInt(1, t.count);
+                update.setBigDecimal(2, t.price);
+                update.setLong(3, t.milliseconds);
+                update.setLong(4, playlistId);
+                update.addBatch();
+            }
+            int[] updated = update.executeBatch();
+            boolean inserts = false;
+            for (int i = 0; i < ids.length; i++) {
+                if (updated[i] == 0) { // primera vez que se ve la playlist
+                    Totals t = totals.get(ids[i]);
+                    insert.setLong(1, ids[i]);
+                    insert.setInt(2, t.count);
+                    insert.setBigDecimal(3, t.price);
+                    insert.setLong(4, t.milliseconds);
+                    insert.addBatch();
+                    inserts = true;
+                }
+            }
+            if (inserts) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    // clave: (playlistId << 32) | genreId
+    private static void applyGenreCounts(Connection conn, Map<Long, Integer> genreCounts, boolean removals) throws SQLException {
+        if (genreCounts.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE PLAYLIST_GENRE_STATS SET TRACK_COUNT = TRACK_COUNT + ? WHERE PLAYLIST_ID = ? AND GENRE_ID = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO PLAYLIST_GENRE_STATS (PLAYLIST_ID, GENRE_ID, TRACK_COUNT) VALUES (?, ?, ?)")) {
+            Long[] keys = genreCounts.keySet().toArray(new Long[0]);
+            for (Long key : keys) {
+                update.setInt(1, genreCounts.get(key));
+                update.setLong(2, key >>> 32);
+                update.setLong(3, key & 0xFFFFFFFFL);
+                update.addBatch();
+            }
+            int[] updated = update.executeBatch();
+            boolean inserts = false;
+            for (int i = 0; i < keys.length; i++) {
+                if (updated[i] == 0) {
+                    insert.setLong(1, keys[i] >>> 32);
+                    insert.setLong(2, keys[i] & 0xFFFFFFFFL);
+                    insert.setInt(3, genreCounts.get(keys[i]));
+                    insert.addBatch();
+                    inserts = true;
+                }
+            }
+            if (inserts) {
+                insert.executeBatch();
+            }
+        }
+        if (removals) {
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate("DELETE FROM PLAYLIST_GENRE_STATS WHERE TRACK_COUNT = 0");
+            }
+        }
+    }
+
+    /** Recalcula desde PLAYLIST_TRACK las filas de las playlists que contienen el track (ej: cambió su precio o género). */
+    public static void refreshPlaylistsOfTrack(Connection conn, long trackId) throws SQLException {
+        String playlistsOfTrack = "pt.PLAYLIST_ID IN (SELECT PLAYLIST_ID FROM PLAYLIST_TRACK WHERE TRACK_ID = ?) ";
+        try (PreparedStatement stats = conn.prepareStatement(
+                "MERGE INTO PLAYLIST_STATS (PLAYLIST_ID, TRACK_COUNT, TOTAL_PRICE, TOTAL_MILLISECONDS) KEY (PLAYLIST_ID) "
+                        + AGGREGATE_SELECT + "WHERE " + playlistsOfTrack + "GROUP BY pt.PLAYLIST_ID");
+             PreparedStatement deleteGenres = conn.prepareStatement(
+                "DELETE FROM PLAYLIST_GENRE_STATS WHERE PLAYLIST_ID IN (SELECT PLAYLIST_ID FROM PLAYLIST_TRACK WHERE TRACK_ID = ?)");
+             PreparedStatement genres = conn.prepareStatement(
+                "INSERT INTO PLAYLIST_GENRE_STATS (PLAYLIST_ID, GENRE_ID, TRACK_COUNT) "
+                        + GENRE_AGGREGATE_SELECT + "AND " + playlistsOfTrack + "GROUP BY pt.PLAYLIST_ID, t.GENRE_ID")) {
+            for (PreparedStatement ps : new PreparedStatement[]{stats, deleteGenres, genres}) {
+                ps.setLong(1, trackId);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Suma a los agregados las filas de PLAYLIST_TRACK con esos IDs (recién insertadas en la transacción de
+     * {@code conn}) con un MERGE por tabla, sin pasar los pares por memoria.
+     */
+    public static void applyInserted(Connection conn, Long[] playlistTrackIds) throws SQLException {
+        if (playlistTrackIds.length == 0) {
+            return;
+        }
+        // JOIN con UNNEST: cada ID se busca por la PK ("= ANY(?)" dentro del MERGE recorre el array por cada fila)
+        String inserted = "FROM UNNEST(?) n (ID) JOIN PLAYLIST_TRACK pt ON pt.PLAYLIST_TRACK_ID = n.ID "
+                + "JOIN TRACKS t ON t.TRACK_ID = pt.TRACK_ID ";
+        try (PreparedStatement stats = conn.prepareStatement(
+                "MERGE INTO PLAYLIST_STATS s USING (" + AGGREGATE_COLUMNS + inserted + "GROUP BY pt.PLAYLIST_ID) "
+                        + "d (PLAYLIST_ID, TRACK_COUNT, TOTAL_PRICE, TOTAL_MILLISECONDS) ON s.PLAYLIST_ID = d.PLAYLIST_ID "
+                        + "WHEN MATCHED THEN UPDATE SET TRACK_COUNT = s.TRACK_COUNT + d.TRACK_COUNT, "
+                        + "TOTAL_PRICE = s.TOTAL_PRICE + d.TOTAL_PRICE, TOTAL_MILLISECONDS = s.TOTAL_MILLISECONDS + d.TOTAL_MILLISECONDS "
+                        + "WHEN NOT MATCHED THEN INSERT (PLAYLIST_ID, TRACK_COUNT, TOTAL_PRICE, TOTAL_MILLISECONDS) "
+                        + "VALUES (d.PLAYLIST_ID, d.TRACK_COUNT, d.TOTAL_PRICE, d.TOTAL_MILLISECONDS)");
+             PreparedStatement genres = conn.prepareStatement(
+                "MERGE INTO PLAYLIST_GENRE_STATS s USING (" + GENRE_AGGREGATE_COLUMNS + inserted
+                        + "WHERE t.GENRE_ID IS NOT NULL GROUP BY pt.PLAYLIST_ID, t.GENRE_ID) d (PLAYLIST_ID, GENRE_ID, TRACK_COUNT) "
+                        + "ON s.PLAYLIST_ID = d.PLAYLIST_ID AND s.GENRE_ID = d.GENRE_ID "
+                        + "WHEN MATCHED THEN UPDATE SET TRACK_COUNT = s.TRACK_COUNT + d.TRACK_COUNT "
+                        + "WHEN NOT MATCHED THEN INSERT (PLAYLIST_ID, GENRE_ID, TRACK_COUNT) "
+                        + "VALUES (d.PLAYLIST_ID, d.GENRE_ID, d.TRACK_COUNT)")) {
+            Array array = conn.createArrayOf("BIGINT", playlistTrackIds);
+            for (PreparedStatement ps : new PreparedStatement[]{stats, genres}) {
+                ps.setArray(1, array);
+                ps.executeUpdate();
+            }
+            array.free();
+        }
+    }
+
+    /** Reconstruye PLAYLIST_STATS y PLAYLIST_GENRE_STATS completas con un INSERT ... SELECT cada una. */
+    public static void rebuild(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM PLAYLIST_STATS");
+            st.executeUpdate("INSERT INTO PLAYLIST_STATS (PLAYLIST_ID, TRACK_COUNT, TOTAL_PRICE, TOTAL_MILLISECONDS) "
+                    + AGGREGATE_SELECT + "GROUP BY pt.PLAYLIST_ID");
+            st.executeUpdate("DELETE FROM PLAYLIST_GENRE_STATS");
+            st.executeUpdate("INSERT INTO PLAYLIST_GENRE_STATS (PLAYLIST_ID, GENRE_ID, TRACK_COUNT) "
+                    + GENRE_AGGREGATE_SELECT + "GROUP BY pt.PLAYLIST_ID, t.GENRE_ID");
+        }
+    }
+
+    // trackId → {UNIT_PRICE, MILLISECONDS, GENRE_ID}
+    private Map<Long, Object[]> readTracks(Connection conn) throws SQLException {
+        Long[] trackIds = Arrays.stream(pairs, 0, size).map(p -> p & 0xFFFFFFFFL).distinct().boxed().toArray(Long[]::new);
+        Map<Long, Object[]> tracks = new HashMap<>(trackIds.length * 2);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT TRACK_ID, UNIT_PRICE, MILLISECONDS, GENRE_ID FROM TRACKS WHERE TRACK_ID = ANY(?)")) {
+            Array array = conn.createArrayOf("BIGINT", trackIds);
+            ps.setArray(1, array);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tracks.put(rs.getLong(1), new Object[]{rs.getBigDecimal(2), rs.getObject(3), rs.getObject(4)});
+                }
+            }
+            array.free();
+        }
+        return tracks;
+    }
+
+    private void add(long playlistId, long trackId, boolean isRemoval) {
+        if (size == pairs.length) {
+            pairs = Arrays.copyOf(pairs, size * 2);
+            removed = Arrays.copyOf(removed, size * 2);
+        }
+        pairs[size] = (playlistId << 32) | trackId;
+        removed[size] = isRemoval;
+        size++;
+    }
+
+    private static final class Totals {
+        int count;
+        BigDecimal price = BigDecimal.ZERO;
+        long milliseconds;
+    }
+}
@@ -0,0 +1,393 @@
+package com.recup.backend.infra;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reportes de ventas (facturación por género, artista, país y mes; tracks más vendidos) calculados en memoria
+ * sobre una copia columnar de INVOICE_ITEMS.
+ *
+ * Cada línea de factura se guarda como una posición en arrays primitivos: track, género, artista, país
+ * de facturación (índice en un diccionario), mes de la factura, precio unitario en centavos y cantidad.
+ * Un reporte es una agregación fork-join sobre esos arrays: cada tarea suma un rango de filas en arrays
+ * indexados por la clave (los IDs son densos) y las parciales se suman al volver. Sin objetos por fila
+ * ni consultas.
+ *
+ * Los resultados coinciden con el GROUP BY equivalente (ej: {@code SUM(ii.UNIT_PRICE * ii.QUANTITY)} por
+ * {@code t.GENRE_ID}), también en el orden de los empates; los precios y cantidades nulos suman 0.
+ *
+ * {@link #refresh(Connection)} lee solo las líneas con INVOICE_LINE_ID mayor a la última leída. Las
+ * líneas se consideran inmutables (facturas emitidas): si cambia la cantidad de líneas ya leídas (una
+ * transacción que confirmó IDs más bajos después de la última lectura, o un borrado) se vuelve a leer
+ * todo; una modificación de precio o cantidad requiere {@link #reload(Connection)}.
+ *
+ * Thread-safe: las consultas trabajan sobre una foto inmutable de las columnas; refresh agrega al final
+ * de los arrays (que las fotos anteriores no leen) y publica una foto nueva.
+ */
+public final class SalesAnalytics {
+
+    /** Filas por tarea hoja de las agregaciones. */
+    private static final int LEAF_ROWS = 1 << 15;
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String LINES_SELECT =
+            "SELECT ii.INVOICE_LINE_ID, ii.TRACK_ID, t.GENRE_ID, al.ARTIST_ID, i.INVOICE_DATE, i.BILLING_COUNTRY, "
+                    + "ii.UNIT_PRICE, ii.QUANTITY FROM INVOICE_ITEMS ii JOIN INVOICES i ON i.INVOICE_ID = ii.INVOICE_ID "
+                    + "JOIN TRACKS t ON t.TRACK_ID = ii.TRACK_ID LEFT JOIN ALBUMS al ON al.ALBUM_ID = t.ALBUM_ID "
+                    + "WHERE ii.INVOICE_LINE_ID > ? ORDER BY ii.INVOICE_LINE_ID";
+
+    /**
+     * Total de un grupo: facturación en centavos, unidades y cantidad de líneas.
+     * @param key ID, país o mes del grupo; null para las líneas sin ese dato (ej: track sin género)
+     */
+    public record Total<K>(K key, long revenueCents, long quantity, long lines) {
+        public BigDecimal revenue() {
+            return BigDecimal.valueOf(revenueCents, 2);
+        }
+    }
+
+    private volatile Columns columns = Columns.empty();
+
+    /** Líneas de factura cargadas. */
+    public int size() {
+        return columns.size;
+    }
+
+    /** Mayor INVOICE_LINE_ID cargado (0 si no hay ninguno). */
+    public long lastLineId() {
+        return columns.lastLineId;
+    }
+
+    /** Como {@link #refresh(Connection)} con una conexión del pool. */
+    public int refresh() throws SQLException {
+        try (Connection conn = DataSourceProvider.getDataSource().getConnection()) {
+            return refresh(conn);
+        }
+    }
+
+    /**
+     * Agrega las líneas nuevas desde la última lectura (o lee todo si las ya leídas cambiaron).
+     * @return líneas agregadas
+     */
+    public synchronized int refresh(Connection conn) throws SQLException {
+        Columns current = columns;
+        if (current.size > 0 && countUpTo(conn, current.lastLineId) != current.size) {
+            return reload(conn);
+        }
+        Columns next = current.copyForAppend();
+        int added = next.append(conn);
+        if (added > 0) {
+            columns = next;
+        }
+        return added;
+    }
+
+    /** Descarta lo cargado y lee INVOICE_ITEMS completa. @return líneas leídas */
+    public synchronized int reload(Connection conn) throws SQLException {
+        Columns next = Columns.empty();
+        next.append(conn);
+        columns = next;
+        return next.size;
+    }
+
+    /** Facturación total en centavos. */
+    public long totalRevenueCents() {
+        Columns c = columns;
+        return c.size == 0 ? 0 : aggregate(c, c.month, 1)[0][0];
+    }
+
+    /** Facturación por género (ID), de mayor a menor. */
+    public List<Total<Long>> revenueByGenre() {
+        Columns c = columns;
+        return byRevenue(ids(aggregate(c, c.genre, c.maxGenre + 1)));
+    }
+
+    /** Facturación por artista (ID), de mayor a menor. */
+    public List<Total<Long>> revenueByArtist() {
+        Columns c = columns;
+        return byRevenue(ids(aggregate(c, c.artist, c.maxArtist + 1)));
+    }
+
+    /** Facturación por país de facturación, de mayor a menor. */
+    public List<Total<String>> revenueByCountry() {
+        Columns c = columns;
+        long[][] sums = aggregate(c, c.country, c.countries.length);
+        List<Total<String>> totals = new ArrayList<>();
+        for (int k = 0; k < c.countries.length; k++) {
+            if (sums[2][k] > 0) {
+                totals.add(new Total<>(c.countries[k], sums[0][k], sums[1][k], sums[2][k]));
+            }
+        }
+        return byRevenue(totals);
+    }
+
+    /** Facturación por mes de la factura, en orden cronológico (las facturas sin fecha al final, con clave null). */
+    public List<Total<YearMonth>> revenueByMonth() {
+        Columns c = columns;
+        if (c.size == 0) {
+            return List.of();
+        }
+        // clave: meses desde el primero + 1; 0 = sin fecha
+        int[] keys = c.month;
+        long[][] sums = aggregate(c, keys, c.maxMonth - c.minMonth + 2, c.minMonth - 1);
+        List<Total<YearMonth>> totals = new ArrayList<>();
+        for (int k = 1; k < sums[0].length; k++) {
+            if (sums[2][k] > 0) {
+                int month = c.minMonth + k - 1;
+                totals.add(new Total<>(YearMonth.of(month / 12, month % 12 + 1), sums[0][k], sums[1][k], sums[2][k]));
+            }
+        }
+        if (sums[2][0] > 0) {
+            totals.add(new Total<>(null, sums[0][0], sums[1][0], sums[2][0]));
+        }
+        return totals;
+    }
+
+    /**
+     * Los {@code limit} tracks más vendidos (ID): por unidades, a igualdad por facturación y después por ID.
+     */
+    public List<Total<Long>> topTracks(int limit) {
+        Columns c = columns;
+        long[][] sums = aggregate(c, c.track, c.maxTrack + 1);
+        Comparator<Total<Long>> best = Comparator.<Total<Long>>comparingLong(Total::quantity)
+                .thenComparingLong(Total::revenueCents)
+                .thenComparing(Total::key, Comparator.reverseOrder());
+        // heap de tamaño limit con el peor arriba: O(tracks · log limit)
+        PriorityQueue<Total<Long>> top = new PriorityQueue<>(Math.max(limit, 1), best);
+        for (int k = 1; k < sums[0].length && limit > 0; k++) {
+            if (sums[2][k] == 0) {
+                continue;
+            }
+            Total<Long> total = new Total<>((long) k, sums[0][k], sums[1][k], sums[2][k]);
+            if (top.size() < limit) {
+                top.add(total);
+            } else if (best.compare(total, top.peek()) > 0) {
+                top.poll();
+                top.add(total);
+            }
+        }
+        List<Total<Long>> result = new ArrayList<>(top);
+        result.sort(best.reversed());
+        return result;
+    }
+
+    private static long[][] aggregate(Columns c, int[] keys, int buckets) {
+        return aggregate(c, keys, buckets, 0);
+    }
+
+    /** {facturación, unidades, líneas} por clave {@code keys[i] - offset} (las claves 0 quedan en el bucket 0). */
+    private static long[][] aggregate(Columns c, int[] keys, int buckets, int offset) {
+        if (c.size == 0) {
+            return new long[3][Math.max(buckets, 1)];
+        }
+        return ForkJoinPool.commonPool().invoke(new GroupSum(c, keys, Math.max(buckets, 1), offset, 0, c.size));
+    }
+
+    // bucket k = ID k (0 = sin dato)
+    private static List<Total<Long>> ids(long[][] sums) {
+        List<Total<Long>> totals = new ArrayList<>();
+        for (int k = 0; k < sums[0].length; k++) {
+            if (sums[2][k] > 0) {
+                totals.add(new Total<>(k == 0 ? null : (long) k, sums[0][k], sums[1][k], sums[2][k]));
+            }
+        }
+        return totals;
+    }
+
+    // a igualdad de facturación por clave (IDs numéricos, países alfabéticos), como el ORDER BY de SalesReports
+    private static <K extends Comparable<? super K>> List<Total<K>> byRevenue(List<Total<K>> totals) {
+        totals.sort(Comparator.<Total<K>>comparingLong(Total::revenueCents).reversed()
+                .thenComparing(Total::key, Comparator.nullsLast(Comparator.naturalOrder())));
+        return totals;
+    }
+
+    private static long countUpTo(Connection conn, long lineId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM INVOICE_ITEMS WHERE INVOICE_LINE_ID <= ?")) {
+            ps.setLong(1, lineId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    /** Suma un rango de filas; divide por la mitad hasta {@link #LEAF_ROWS}. */
+    private static final class GroupSum extends RecursiveTask<long[][]> {
+        private final Columns c;
+        private final int[] keys;
+        private final int buckets;
+        private final int offset;
+        private final int from;
+        private final int to;
+
+        GroupSum(Columns c, int[] keys, int buckets, int offset, int from, int to) {
+            this.c = c;
+            this.keys = keys;
+            this.buckets = buckets;
+            this.offset = offset;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (to - from <= LEAF_ROWS) {
+                long[] revenue = new long[buckets];
+                long[] quantity = new long[buckets];
+                long[] lines = new long[buckets];
+                long[] price = c.priceCents;
+                int[] qty = c.quantity;
+                boolean single = buckets == 1;
+                for (int i = from; i < to; i++) {
+                    int k = single ? 0 : keys[i] == 0 ? 0 : keys[i] - offset;
+                    revenue[k] += price[i] * qty[i];
+                    quantity[k] += qty[i];
+                    lines[k]++;
+                }
+                return new long[][]{revenue, quantity, lines};
+            }
+            int mid = (from + to) >>> 1;
+            GroupSum left = new GroupSum(c, keys, buckets, offset, from, mid);
+            left.fork();
+            long[][] right = new GroupSum(c, keys, buckets, offset, mid, to).compute();
+            long[][] sums = left.join();
+            for (int a = 0; a < 3; a++) {
+                long[] into = sums[a];
+                long[] part = right[a];
+                for (int k = 0; k < buckets; k++) {
+                    into[k] += part[k];
+                }
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Columnas de las líneas [0, size). Los IDs nulos (género, artista) son 0; país 0 = sin país;
+     * mes = año * 12 + (mes - 1), 0 = sin fecha.
+     */
+    private static final class Columns {
+        int size;
+        long lastLineId;
+        int[] track;
+        int[] genre;
+        int[] artist;
+        int[] country;
+        int[] month;
+        long[] priceCents;
+        int[] quantity;
+        String[] countries;
+        Map<String, Integer> countryIndex;
+        int maxTrack;
+        int maxGenre;
+        int maxArtist;
+        int minMonth = Integer.MAX_VALUE;
+        int maxMonth = Integer.MIN_VALUE;
+
+        static Columns empty() {
+            Columns c = new Columns();
+            c.track = new int[0];
+            c.genre = new int[0];
+            c.artist = new int[0];
+            c.country = new int[0];
+            c.month = new int[0];
+            c.priceCents = new long[0];
+            c.quantity = new int[0];
+            c.countries = new String[]{null};
+            c.countryIndex = new HashMap<>();
+            return c;
+        }
+
+        /** Foto nueva que comparte los arrays (se escribe solo después de {@code size}). */
+        Columns copyForAppend() {
+            Columns c = new Columns();
+            c.size = size;
+            c.lastLineId = lastLineId;
+            c.track = track;
+            c.genre = genre;
+            c.artist = artist;
+            c.country = country;
+            c.month = month;
+            c.priceCents = priceCents;
+            c.quantity = quantity;
+            c.countries = countries;
+            c.countryIndex = new HashMap<>(countryIndex);
+            c.maxTrack = maxTrack;
+            c.maxGenre = maxGenre;
+            c.maxArtist = maxArtist;
+            c.minMonth = minMonth;
+            c.maxMonth = maxMonth;
+            return c;
+        }
+
+        int append(Connection conn) throws SQLException {
+            int before = size;
+            List<String> newCountries = new ArrayList<>(Arrays.asList(countries));
+            try (PreparedStatement ps = conn.prepareStatement(LINES_SELECT)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setLong(1, lastLineId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (size == track.length) {
+                            grow();
+                        }
+                        int i = size;
+                        lastLineId = rs.getLong(1);
+                        track[i] = rs.getInt(2);
+                        genre[i] = rs.getInt(3); // NULL → 0
+                        artist[i] = rs.getInt(4);
+                        Date date = rs.getDate(5);
+                        if (date != null) {
+                            LocalDate day = date.toLocalDate();
+                            month[i] = day.getYear() * 12 + day.getMonthValue() - 1;
+                            minMonth = Math.min(minMonth, month[i]);
+                            maxMonth = Math.max(maxMonth, month[i]);
+                        } else {
+                            month[i] = 0;
+                        }
+                        String billingCountry = rs.getString(6);
+                        country[i] = billingCountry == null ? 0 : countryIndex.computeIfAbsent(billingCountry, name -> {
+                            newCountries.add(name);
+                            return newCountries.size() - 1;
+                        });
+                        BigDecimal price = rs.getBigDecimal(7);
+                        priceCents[i] = price == null ? 0 : price.movePointRight(2).longValueExact();
+                        quantity[i] = rs.getInt(8);
+                        maxTrack = Math.max(maxTrack, track[i]);
+                        maxGenre = Math.max(maxGenre, genre[i]);
+                        maxArtist = Math.max(maxArtist, artist[i]);
+                        size++;
+                    }
+                }
+            }
+            countries = newCountries.toArray(new String[0]);
+            return size - before;
+        }
+
+        private void grow() {
+            int capacity = Math.max(1024, track.length * 2);
+            track = Arrays.copyOf(track, capacity);
+            genre = Arrays.copyOf(genre, capacity);
+            artist = Arrays.copyOf(artist, capacity);
+            country = Arrays.copyOf(country, capacity);
+            month = Arrays.copyOf(month, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+        }
+    }
+}
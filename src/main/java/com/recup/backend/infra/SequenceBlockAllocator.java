@@ -0,0 +1,70 @@
+package com.recup.backend.infra;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Asigna IDs desde una secuencia SEQ_* por bloques, con la misma semántica que el optimizador
+ * "pooled" de Hibernate: el valor v devuelto por la secuencia reserva los IDs (v - incremento, v].
+ * Así los loaders JDBC y JPA pueden convivir sobre las mismas secuencias sin pisarse IDs.
+ * El incremento se lee de la base (INFORMATION_SCHEMA), no se asume.
+ *
+ * No es thread-safe: una instancia por hilo / conexión.
+ */
+public class SequenceBlockAllocator {
+    private final Connection conn;
+    private final String sequenceName;
+    private final int increment;
+    private long next = 1;
+    private long hi = 0;
+
+    public SequenceBlockAllocator(Connection conn, String sequenceName) throws SQLException {
+        this.conn = conn;
+        this.sequenceName = sequenceName;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?")) {
+            ps.setString(1, sequenceName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Secuencia inexistente: " + sequenceName);
+                }
+                this.increment = rs.getInt(1);
+            }
+        }
+    }
+
+    public long next() throws SQLException {
+        if (next > hi) {
+            long value = nextSequenceValue();
+            if (value == 1) {
+                // Primer valor de la secuencia: igual que Hibernate, el bloque llega hasta la siguiente llamada
+                next = 1;
+                hi = nextSequenceValue();
+            } else {
+                next = value - increment + 1;
+                hi = value;
+            }
+        }
+        return next++;
+    }
+
+    /** Los próximos {@code count} IDs, en orden (ej: para asignarlos a las filas de un INSERT ... SELECT). */
+    public Long[] next(int count) throws SQLException {
+        Long[] ids = new Long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = next();
+        }
+        return ids;
+    }
+
+    private long nextSequenceValue() throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT NEXT VALUE FOR " + sequenceName)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
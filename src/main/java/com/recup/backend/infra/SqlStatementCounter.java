@@ -0,0 +1,52 @@
+package com.recup.backend.infra;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta los statements SQL que prepara Hibernate, separando las llamadas a secuencias.
+ * Con batching cada INSERT se prepara una vez por lote, así que el total se aproxima
+ * a los round trips contra la base. Registrado en {@link LocalEntityManagerProvider}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final LongAdder sequenceCalls = new LongAdder();
+    private static final LongAdder inserts = new LongAdder();
+    private static final LongAdder selects = new LongAdder();
+    private static final LongAdder others = new LongAdder();
+
+    @Override
+    public String inspect(String sql) {
+        String head = sql.stripLeading().toLowerCase();
+        if (head.startsWith("insert")) {
+            inserts.increment();
+        } else if (head.contains("next value for") || head.contains("nextval")) {
+            sequenceCalls.increment();
+        } else if (head.startsWith("select")) {
+            selects.increment();
+        } else {
+            others.increment();
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        sequenceCalls.reset();
+        inserts.reset();
+        selects.reset();
+        others.reset();
+    }
+
+    public static long sequenceCalls() {
+        return sequenceCalls.sum();
+    }
+
+    public static long total() {
+        return sequenceCalls.sum() + inserts.sum() + selects.sum() + others.sum();
+    }
+
+    public static void print() {
+        System.out.println("   Statements SQL: " + total() + " (secuencias=" + sequenceCalls.sum()
+                + ", inserts=" + inserts.sum() + ", selects=" + selects.sum() + ", otros=" + others.sum() + ")");
+    }
+}
@@ -0,0 +1,261 @@
+package com.recup.backend.infra;
+
+import jakarta.persistence.EntityManager;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de importación de playlists.csv del lado de la base: SQL por conjuntos en lugar de fila por fila.
+ *
+ * - CSVREAD carga el archivo completo en una tabla temporal (STAGING_PLAYLISTS) con un solo
+ *   INSERT ... SELECT: campos recortados, vacíos como NULL, número de línea y si la línea está completa.
+ * - Cada tabla se completa con un INSERT ... SELECT de las claves que todavía no existen (NOT EXISTS sobre
+ *   los mismos índices que UQ_ARTISTS_NAME, UQ_ALBUMS_TITLE_ARTIST, UQ_TRACKS_NAME_ALBUM, ...), agrupadas
+ *   y en orden de primera aparición. Los IDs salen de la secuencia por bloques
+ *   ({@link SequenceBlockAllocator}) y se pasan como array, indexado por el orden de primera aparición.
+ * - PLAYLIST_STATS / PLAYLIST_GENRE_STATS se actualizan con un MERGE ({@link PlaylistStatsDelta#applyInserted})
+ *   y se indexan para la búsqueda los tracks nuevos.
+ *
+ * Todo en una transacción, sin caches en memoria. Mismas reglas de duplicados (álbum por título, con el
+ * artista de su primera línea; track por nombre + título de álbum, con los datos de su primera línea),
+ * líneas omitidas y contadores que {@link CsvPlaylistLoader}.
+ */
+public class StagingPlaylistLoader {
+
+    /** Columnas del CSV, en el orden de {@link PlaylistCsvRow}. */
+    private static final String[] FIELDS = {"PLAYLIST_NAME", "TRACK_NAME", "COMPOSER", "MILLISECONDS", "BYTES",
+            "UNIT_PRICE", "ALBUM_TITLE", "ARTIST_NAME", "GENRE_NAME", "MEDIA_TYPE_NAME"};
+
+    private static final String STAGING = "STAGING_PLAYLISTS";
+    /** Líneas completas (el encabezado, línea 1, nunca lo está). */
+    private static final String COMPLETE_LINES = "SELECT * FROM " + STAGING + " WHERE COMPLETE";
+    /**
+     * Si hubiera dos álbumes con el mismo título (creados por otro camino), se usa el de menor ID: en los
+     * tracks y en las relaciones, así cada línea resuelve un solo álbum (y un solo track), como en JPA.
+     */
+    private static final String FIRST_ALBUM_WITH_TITLE =
+            "NOT EXISTS (SELECT 1 FROM ALBUMS other WHERE other.TITLE = al.TITLE AND other.ALBUM_ID < al.ALBUM_ID)";
+
+    /** @return true si la importación terminó (false: no se encontró el archivo, estaba vacío o falló) */
+    public static boolean load(EntityManager em, String resourcePath) {
+        String location = csvLocation(resourcePath);
+        if (location == null) {
+            System.out.println("❌ Archivo / recurso no encontrado: " + resourcePath);
+            return false;
+        }
+
+        ImportSummary summary = new ImportSummary("staging");
+        try (Connection conn = DataSourceProvider.getDataSource().getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            JfrEvents.ImportBatch batch = summary.startBatch();
+            try {
+                if (!stage(conn, location, summary)) {
+                    System.out.println("⚠️ Archivo vacío");
+                    conn.rollback();
+                    return false;
+                }
+                summary.newPlaylists.set(insertNew(conn, "PLAYLISTS", "PLAYLIST_ID", "SEQ_PLAYLIST_ID", "NAME",
+                        newNames("PLAYLISTS", "PLAYLIST_NAME")).length);
+                summary.newArtists.set(insertNew(conn, "ARTISTS", "ARTIST_ID", "SEQ_ARTIST_ID", "NAME",
+                        newNames("ARTISTS", "ARTIST_NAME")).length);
+                summary.newGenres.set(insertNew(conn, "GENRES", "GENRE_ID", "SEQ_GENRE_ID", "NAME",
+                        newNames("GENRES", "GENRE_NAME")).length);
+                summary.newMediaTypes.set(insertNew(conn, "MEDIA_TYPES", "MEDIA_TYPE_ID", "SEQ_MEDIA_TYPE_ID", "NAME",
+                        newNames("MEDIA_TYPES", "MEDIA_TYPE_NAME")).length);
+                summary.newAlbums.set(insertNew(conn, "ALBUMS", "ALBUM_ID", "SEQ_ALBUM_ID", "TITLE, ARTIST_ID",
+                        "SELECT s.ALBUM_TITLE AS TITLE, a.ARTIST_ID, s.LINE_NO AS FIRST_LINE FROM " + STAGING + " s "
+                                + "JOIN ARTISTS a ON a.NAME = s.ARTIST_NAME "
+                                + "WHERE s.LINE_NO IN (SELECT MIN(LINE_NO) FROM " + STAGING + " WHERE COMPLETE GROUP BY ALBUM_TITLE) "
+                                + "AND NOT EXISTS (SELECT 1 FROM ALBUMS al WHERE al.TITLE = s.ALBUM_TITLE)").length);
+
+                Long[] newTracks = insertNew(conn, "TRACKS", "TRACK_ID", "SEQ_TRACK_ID",
+                        "NAME, ALBUM_ID, MEDIA_TYPE_ID, GENRE_ID, COMPOSER, MILLISECONDS, BYTES, UNIT_PRICE",
+                        "SELECT s.TRACK_NAME AS NAME, al.ALBUM_ID, m.MEDIA_TYPE_ID, g.GENRE_ID, s.COMPOSER, "
+                                + integerOrNull("s.MILLISECONDS") + " AS MILLISECONDS, "
+                                + integerOrNull("s.BYTES") + " AS BYTES, "
+                                + decimalOrNull("s.UNIT_PRICE") + " AS UNIT_PRICE, s.LINE_NO AS FIRST_LINE "
+                                + "FROM " + STAGING + " s "
+                                + "JOIN ALBUMS al ON al.TITLE = s.ALBUM_TITLE AND " + FIRST_ALBUM_WITH_TITLE + " "
+                                + "JOIN GENRES g ON g.NAME = s.GENRE_NAME "
+                                + "JOIN MEDIA_TYPES m ON m.NAME = s.MEDIA_TYPE_NAME "
+                                + "WHERE s.LINE_NO IN (SELECT MIN(LINE_NO) FROM " + STAGING + " WHERE COMPLETE "
+                                + "GROUP BY TRACK_NAME, ALBUM_TITLE) "
+                                + "AND NOT EXISTS (SELECT 1 FROM TRACKS t WHERE t.NAME = s.TRACK_NAME AND t.ALBUM_ID = al.ALBUM_ID)");
+                summary.newTracks.set(newTracks.length);
+
+                Long[] newRelations = insertNew(conn, "PLAYLIST_TRACK", "PLAYLIST_TRACK_ID", "SEQ_PLAYLIST_TRACK_ID",
+                        "PLAYLIST_ID, TRACK_ID",
+                        "SELECT p.PLAYLIST_ID, t.TRACK_ID, MIN(s.LINE_NO) AS FIRST_LINE FROM " + STAGING + " s "
+                                + "JOIN PLAYLISTS p ON p.NAME = s.PLAYLIST_NAME "
+                                + "JOIN ALBUMS al ON al.TITLE = s.ALBUM_TITLE AND " + FIRST_ALBUM_WITH_TITLE + " "
+                                + "JOIN TRACKS t ON t.NAME = s.TRACK_NAME AND t.ALBUM_ID = al.ALBUM_ID "
+                                + "WHERE s.COMPLETE AND NOT EXISTS (SELECT 1 FROM PLAYLIST_TRACK pt "
+                                + "WHERE pt.PLAYLIST_ID = p.PLAYLIST_ID AND pt.TRACK_ID = t.TRACK_ID) "
+                                + "GROUP BY p.PLAYLIST_ID, t.TRACK_ID");
+                summary.newRelations.set(newRelations.length);
+
+                PlaylistStatsDelta.applyInserted(conn, newRelations);
+                TrackSearchIndex.reindexTracks(conn, newTracks);
+                summary.timeCommit(batch, summary.processed.get(), conn::commit);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                dropStagingTables(conn);
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Error procesando CSV: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        // Todo se insertó sin pasar por Hibernate
+        LocalEntityManagerProvider.evictCaches(em.getEntityManagerFactory());
+        summary.print("playlists.csv (staging)");
+        CsvPlaylistLoader.mostrarResultados(em);
+        return true;
+    }
+
+    /**
+     * Carga el CSV en la tabla temporal (de la sesión, se borra al terminar) y cuenta las líneas
+     * procesadas y omitidas. CSVREAD ya saltea las líneas en blanco, igual que {@link CsvTokenizer}.
+     * @return false si el archivo no tiene ni el encabezado
+     */
+    private static boolean stage(Connection conn, String location, ImportSummary summary) throws SQLException {
+        String columns = Arrays.stream(FIELDS).map(f -> f + " VARCHAR").collect(Collectors.joining(", "));
+        String trimmed = Arrays.stream(FIELDS).map(f -> "NULLIF(TRIM(" + f + "), '') AS " + f).collect(Collectors.joining(", "));
+        String complete = Arrays.stream(FIELDS).map(f -> f + " IS NOT NULL").collect(Collectors.joining(" AND "));
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE LOCAL TEMPORARY TABLE " + STAGING + " (LINE_NO INTEGER PRIMARY KEY, " + columns
+                    + ", COMPLETE BOOLEAN NOT NULL) TRANSACTIONAL");
+        }
+        long start = System.nanoTime();
+        int lines;
+        // CSVREAD abre el archivo al preparar el statement (para conocer las columnas): la ruta va como literal
+        try (Statement load = conn.createStatement()) {
+            lines = load.executeUpdate("INSERT INTO " + STAGING + " SELECT c.*, LINE_NO > 1 AND " + complete
+                    + " FROM (SELECT ROWNUM() AS LINE_NO, " + trimmed + " FROM CSVREAD(" + literal(location) + ", "
+                    + literal(String.join(",", FIELDS)) + ", 'charset=UTF-8')) c");
+        }
+        if (lines == 0) {
+            return false;
+        }
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FILTER (WHERE COMPLETE), COUNT(*) FILTER (WHERE NOT COMPLETE) "
+                     + "FROM " + STAGING + " WHERE LINE_NO > 1")) {
+            rs.next();
+            summary.processed.set(rs.getInt(1));
+            summary.skipped.set(rs.getInt(2));
+        }
+        System.out.println("   ✓ " + (lines - 1) + " líneas cargadas en " + STAGING + " ("
+                + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        return true;
+    }
+
+    /** Nombres de {@code field} (líneas completas) que no están en {@code table}, con su primera línea. */
+    private static String newNames(String table, String field) {
+        return "SELECT s." + field + " AS NAME, MIN(s.LINE_NO) AS FIRST_LINE FROM (" + COMPLETE_LINES + ") s "
+                + "WHERE NOT EXISTS (SELECT 1 FROM " + table + " x WHERE x.NAME = s." + field + ") GROUP BY s." + field;
+    }
+
+    /**
+     * Inserta en {@code table} las filas de {@code newRows} (las columnas de {@code columns} más FIRST_LINE),
+     * con IDs de {@code sequence} asignados en el orden de FIRST_LINE: el mismo orden en que los crea el
+     * camino fila por fila. Las filas nuevas se materializan primero en STAGING_PLAYLISTS_NEW_&lt;tabla&gt; (la consulta
+     * corre una vez: de ahí salen la cantidad de IDs a pedir y las filas del INSERT).
+     * @return los IDs asignados
+     */
+    private static Long[] insertNew(Connection conn, String table, String idColumn, String sequence, String columns,
+                                    String newRows) throws SQLException {
+        long start = System.nanoTime();
+        String newTable = STAGING + "_NEW_" + table;
+        int count;
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE LOCAL TEMPORARY TABLE " + newTable + " TRANSACTIONAL AS SELECT n.*, "
+                    + "ROW_NUMBER() OVER (ORDER BY FIRST_LINE) AS RN FROM (" + newRows + ") n");
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + newTable)) {
+                rs.next();
+                count = rs.getInt(1);
+            }
+        }
+        Long[] ids = new SequenceBlockAllocator(conn, sequence).next(count);
+        if (count > 0) {
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO " + table + " (" + idColumn + ", " + columns + ") "
+                    + "SELECT CAST(? AS BIGINT ARRAY)[RN], " + columns + " FROM " + newTable)) {
+                Array array = conn.createArrayOf("BIGINT", ids);
+                insert.setArray(1, array);
+                insert.executeUpdate();
+                array.free();
+            }
+        }
+        System.out.println("   ✓ " + table + ": " + count + " filas nuevas (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        return ids;
+    }
+
+    /** Borra las tablas temporales de la importación (DROP confirma la transacción: va después del commit / rollback). */
+    private static void dropStagingTables(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                     + "WHERE TABLE_TYPE = 'LOCAL TEMPORARY' AND TABLE_NAME LIKE '" + STAGING + "%'")) {
+            List<String> tables = new ArrayList<>();
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+            for (String table : tables) {
+                st.execute("DROP TABLE " + table);
+            }
+        }
+    }
+
+    /** Entero del texto o NULL, con las reglas de {@link CsvTokenizer#isInt}. */
+    private static String integerOrNull(String column) {
+        return "CASE WHEN REGEXP_LIKE(" + column + ", '^[+-]?[0-9]{1,10}$') AND CAST(" + column
+                + " AS BIGINT) BETWEEN -2147483648 AND 2147483647 THEN CAST(" + column + " AS INTEGER) END";
+    }
+
+    /** Decimal del texto o NULL, con las reglas de {@link PlaylistCsvRow#parseDecimal} (BigDecimal). */
+    private static String decimalOrNull(String column) {
+        return "CASE WHEN REGEXP_LIKE(" + column + ", '^[+-]?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)([eE][+-]?[0-9]+)?$') THEN CAST("
+                + column + " AS DECIMAL(10,2)) END";
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    /** Ruta para CSVREAD: el archivo en disco, o el recurso del classpath ("classpath:" si está en un jar). */
+    private static String csvLocation(String resourcePath) {
+        Path file = Paths.get(resourcePath);
+        if (Files.isRegularFile(file)) {
+            return file.toAbsolutePath().toString();
+        }
+        URL url = StagingPlaylistLoader.class.getClassLoader().getResource(resourcePath);
+        if (url == null) {
+            return null;
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return Paths.get(url.toURI()).toString();
+            } catch (URISyntaxException e) {
+                // se lee como recurso
+            }
+        }
+        return "classpath:" + resourcePath;
+    }
+}
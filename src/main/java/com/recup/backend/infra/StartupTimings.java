@@ -0,0 +1,51 @@
+package com.recup.backend.infra;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tiempos de las fases del arranque (DDL, EntityManagerFactory, importación, ...).
+ *
+ * Cada {@link #phase(String)} registra el tiempo transcurrido desde la fase anterior (o desde
+ * {@link #start()}); {@link #print()} muestra la lista y el total.
+ */
+public final class StartupTimings {
+
+    private static final List<String> names = new ArrayList<>();
+    private static final List<Long> nanos = new ArrayList<>();
+    private static long start = System.nanoTime();
+    private static long last = start;
+
+    private StartupTimings() {
+    }
+
+    /** Reinicia la medición (inicio del proceso). */
+    public static synchronized void start() {
+        names.clear();
+        nanos.clear();
+        start = System.nanoTime();
+        last = start;
+    }
+
+    /** Cierra la fase {@code name}: el tiempo desde la fase anterior. */
+    public static synchronized void phase(String name) {
+        long now = System.nanoTime();
+        names.add(name);
+        nanos.add(now - last);
+        last = now;
+    }
+
+    /** Milisegundos desde {@link #start()}. */
+    public static synchronized double elapsedMillis() {
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    public static synchronized void print() {
+        System.out.println("⏱️ Fases de arranque:");
+        for (int i = 0; i < names.size(); i++) {
+            System.out.printf("   %-38s %8.1f ms%n", names.get(i), nanos.get(i) / 1e6);
+        }
+        System.out.printf("   %-38s %8.1f ms%n", "Total", (last - start) / 1e6);
+        System.out.println();
+    }
+}
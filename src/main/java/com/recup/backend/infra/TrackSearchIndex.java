@@ -0,0 +1,302 @@
+package com.recup.backend.infra;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de búsqueda de texto sobre los tracks (tabla TRACK_SEARCH): por cada término del nombre,
+ * el compositor, el título del álbum y el nombre del artista, una fila (término, track, peso).
+ *
+ * Los términos se normalizan igual al indexar y al buscar: minúsculas, sin acentos, cortando en todo lo que
+ * no sea letra o dígito ("Ação/Reação" → "acao", "reacao"). El peso de un término en un track es la suma de
+ * los pesos de los campos que lo contienen ({@link #NAME_WEIGHT}, {@link #ALBUM_WEIGHT}, ...).
+ *
+ * Como {@link PlaylistStatsDelta}, una instancia acumula los tracks nuevos o modificados y los reindexa
+ * juntos con {@link #apply(Connection)}: un DELETE, una consulta de los textos y un INSERT en batch.
+ * No es thread-safe; en el pipeline paralelo cada writer tiene la suya (cada track pertenece a un único
+ * writer, así que no hace falta lock).
+ */
+public final class TrackSearchIndex {
+
+    public static final int NAME_WEIGHT = 3;
+    public static final int ALBUM_WEIGHT = 2;
+    public static final int ARTIST_WEIGHT = 2;
+    public static final int COMPOSER_WEIGHT = 1;
+
+    /** Largo máximo de un término (TRACK_SEARCH.TERM); los más largos se recortan. */
+    public static final int MAX_TERM_LENGTH = 64;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final String TEXTS_SELECT =
+            "SELECT t.TRACK_ID, t.NAME, t.COMPOSER, al.TITLE, ar.NAME FROM TRACKS t "
+                    + "LEFT JOIN ALBUMS al ON al.ALBUM_ID = t.ALBUM_ID LEFT JOIN ARTISTS ar ON ar.ARTIST_ID = al.ARTIST_ID ";
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    /** Un resultado: el track y su puntaje (mayor = más relevante). */
+    public record Hit(long trackId, double score) {
+    }
+
+    /** Una página de resultados ordenados por puntaje, y la cantidad total de tracks que coinciden. */
+    public record Result(long total, List<Hit> hits) {
+        public static final Result EMPTY = new Result(0, List.of());
+    }
+
+    private long[] trackIds = new long[256];
+    private int size;
+
+    /** Registra un track nuevo o modificado (puede repetirse; se reindexa una vez). */
+    public void trackChanged(long trackId) {
+        if (size == trackIds.length) {
+            trackIds = Arrays.copyOf(trackIds, size * 2);
+        }
+        trackIds[size++] = trackId;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Reindexa los tracks registrados en la transacción de {@code conn} y vacía la lista.
+     * Las filas de TRACKS (y sus álbumes / artistas) ya tienen que estar escritas en esa conexión.
+     */
+    public void apply(Connection conn) throws SQLException {
+        if (size == 0) {
+            return;
+        }
+        reindexTracks(conn, Arrays.stream(trackIds, 0, size).distinct().boxed().toArray(Long[]::new));
+        size = 0;
+    }
+
+    /** Reindexa los tracks con esos IDs (sin repetidos). */
+    public static void reindexTracks(Connection conn, Long[] ids) throws SQLException {
+        if (ids.length == 0) {
+            return;
+        }
+        Array array = conn.createArrayOf("BIGINT", ids);
+        try {
+            reindex(conn, "t.TRACK_ID = ANY(?)", array);
+        } finally {
+            array.free();
+        }
+    }
+
+    /** Reindexa los tracks del álbum (ej: cambió su título o su artista). */
+    public static void reindexAlbum(Connection conn, long albumId) throws SQLException {
+        reindex(conn, "t.ALBUM_ID = ?", albumId);
+    }
+
+    /** Reindexa los tracks de los álbumes del artista (ej: cambió su nombre). */
+    public static void reindexArtist(Connection conn, long artistId) throws SQLException {
+        reindex(conn, "al.ARTIST_ID = ?", artistId);
+    }
+
+    /** Reconstruye TRACK_SEARCH completa desde TRACKS. */
+    public static void rebuild(Connection conn) throws SQLException {
+        reindex(conn, null, null);
+    }
+
+    /**
+     * Tracks que contienen todos los términos de {@code text}, del más relevante al menos relevante (a igual
+     * puntaje, por ID), salteando {@code offset} y devolviendo hasta {@code limit}.
+     *
+     * Un término que termina en '*' busca por prefijo ("zep*" encuentra "zeppelin"). El puntaje suma, por
+     * término, el peso del término en el track por su rareza: ln(1 + tracks / tracks con el término); así
+     * "led zeppelin" ordena primero los tracks de ese artista y no los que solo dicen "led".
+     * Usa el índice de la clave primaria (TERM, TRACK_ID) para cada término; no recorre TRACKS.
+     */
+    public static Result search(Connection conn, String text, int offset, int limit) throws SQLException {
+        List<String> query = queryTerms(text);
+        if (query.isEmpty() || limit <= 0) {
+            return Result.EMPTY;
+        }
+        double[] idf = inverseFrequencies(conn, query);
+        if (idf == null) { // algún término no aparece en ningún track
+            return Result.EMPTY;
+        }
+
+        StringBuilder matches = new StringBuilder();
+        for (String term : query) {
+            if (!matches.isEmpty()) {
+                matches.append(" UNION ALL ");
+            }
+            matches.append(isPrefix(term)
+                    ? "SELECT TRACK_ID, MAX(WEIGHT) * CAST(? AS DOUBLE PRECISION) AS S FROM TRACK_SEARCH WHERE TERM LIKE ? GROUP BY TRACK_ID"
+                    : "SELECT TRACK_ID, WEIGHT * CAST(? AS DOUBLE PRECISION) AS S FROM TRACK_SEARCH WHERE TERM = ?");
+        }
+        String ranked = "SELECT TRACK_ID, SUM(S) AS SCORE FROM (" + matches + ") GROUP BY TRACK_ID HAVING COUNT(*) = "
+                + query.size();
+
+        List<Hit> hits = new ArrayList<>(Math.min(limit, 1000));
+        long total = -1;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT TRACK_ID, SCORE, COUNT(*) OVER () FROM (" + ranked
+                + ") ORDER BY SCORE DESC, TRACK_ID OFFSET ? ROWS FETCH NEXT ? ROWS ONLY")) {
+            int index = setTerms(ps, query, idf);
+            ps.setInt(index++, Math.max(offset, 0));
+            ps.setInt(index, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new Hit(rs.getLong(1), rs.getDouble(2)));
+                    total = rs.getLong(3);
+                }
+            }
+        }
+        if (total < 0) { // página vacía: el total se cuenta aparte
+            try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM (" + ranked + ")")) {
+                setTerms(ps, query, idf);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    total = rs.getLong(1);
+                }
+            }
+        }
+        return new Result(total, hits);
+    }
+
+    /** Términos normalizados de un texto, en orden y sin repetir (null o vacío = ninguno). */
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String term : SEPARATORS.split(plain.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add(term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Términos de una búsqueda; los de prefijo conservan el '*' final. Una palabra con separadores
+     * ("ac/dc*") da varios términos y solo el último es de prefijo.
+     */
+    static List<String> queryTerms(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text == null) {
+            return List.of();
+        }
+        for (String word : text.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            List<String> terms = new ArrayList<>(terms(word));
+            for (int i = 0; i < terms.size(); i++) {
+                result.add(prefix && i == terms.size() - 1 ? terms.get(i) + "*" : terms.get(i));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static boolean isPrefix(String term) {
+        return term.endsWith("*");
+    }
+
+    /** ln(1 + N / df) de cada término, o null si alguno no aparece (df = 0). Una sola consulta. */
+    private static double[] inverseFrequencies(Connection conn, List<String> query) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT -1, COUNT(*) FROM TRACKS");
+        for (int i = 0; i < query.size(); i++) {
+            sql.append(" UNION ALL SELECT ").append(i).append(isPrefix(query.get(i))
+                    ? ", COUNT(DISTINCT TRACK_ID) FROM TRACK_SEARCH WHERE TERM LIKE ?"
+                    : ", COUNT(*) FROM TRACK_SEARCH WHERE TERM = ?");
+        }
+        long tracks = 0;
+        long[] df = new long[query.size()];
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < query.size(); i++) {
+                ps.setString(i + 1, pattern(query.get(i)));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int i = rs.getInt(1);
+                    if (i < 0) tracks = rs.getLong(2); else df[i] = rs.getLong(2);
+                }
+            }
+        }
+        double[] idf = new double[df.length];
+        for (int i = 0; i < df.length; i++) {
+            if (df[i] == 0) {
+                return null;
+            }
+            idf[i] = Math.log1p((double) tracks / df[i]);
+        }
+        return idf;
+    }
+
+    private static int setTerms(PreparedStatement ps, List<String> query, double[] idf) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < query.size(); i++) {
+            ps.setDouble(index++, idf[i]);
+            ps.setString(index++, pattern(query.get(i)));
+        }
+        return index;
+    }
+
+    // los términos son solo letras y dígitos: no hay '%' ni '_' que escapar
+    private static String pattern(String term) {
+        return isPrefix(term) ? term.substring(0, term.length() - 1) + "%" : term;
+    }
+
+    /** Borra y vuelve a generar los términos de los tracks que cumplen {@code condition} (null = todos). */
+    private static void reindex(Connection conn, String condition, Object parameter) throws SQLException {
+        String where = condition == null ? "" : "WHERE " + condition;
+        try (PreparedStatement delete = conn.prepareStatement(condition == null ? "DELETE FROM TRACK_SEARCH"
+                : "DELETE FROM TRACK_SEARCH WHERE TRACK_ID IN (SELECT t.TRACK_ID FROM TRACKS t "
+                        + "LEFT JOIN ALBUMS al ON al.ALBUM_ID = t.ALBUM_ID " + where + ")");
+             PreparedStatement select = conn.prepareStatement(TEXTS_SELECT + where);
+             PreparedStatement insert = conn.prepareStatement("INSERT INTO TRACK_SEARCH (TERM, TRACK_ID, WEIGHT) VALUES (?, ?, ?)")) {
+            if (parameter != null) {
+                delete.setObject(1, parameter);
+                select.setObject(1, parameter);
+            }
+            delete.executeUpdate();
+            int pending = 0;
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    long trackId = rs.getLong(1);
+                    for (Map.Entry<String, Integer> posting : weights(rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)).entrySet()) {
+                        insert.setString(1, posting.getKey());
+                        insert.setLong(2, trackId);
+                        insert.setInt(3, posting.getValue());
+                        insert.addBatch();
+                        if (++pending == INSERT_BATCH_SIZE) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    // término → suma de los pesos de los campos en que aparece
+    private static Map<String, Integer> weights(String name, String composer, String album, String artist) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String term : terms(name)) weights.merge(term, NAME_WEIGHT, Integer::sum);
+        for (String term : terms(album)) weights.merge(term, ALBUM_WEIGHT, Integer::sum);
+        for (String term : terms(artist)) weights.merge(term, ARTIST_WEIGHT, Integer::sum);
+        for (String term : terms(composer)) weights.merge(term, COMPOSER_WEIGHT, Integer::sum);
+        return weights;
+    }
+}
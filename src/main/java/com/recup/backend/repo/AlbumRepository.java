@@ -4,20 +4,29 @@ import com.recup.backend.domain.Album;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class AlbumRepository {
+    /** Álbum + artista. */
+    public static final FetchPlan<Album> WITH_ARTIST = FetchPlan.graph(Album.class, Album.GRAPH_ARTIST);
+
+    private static final QueryMetrics.Timer FIND_BY_TITLE_TIMER = QueryMetrics.timer("Album", "findByTitle");
+
     private final EntityManager em;
 
     public AlbumRepository(EntityManager em) {
         this.em = em;
     }
 
+    /** Al modificar un álbum existente se reindexan para la búsqueda sus tracks (puede haber cambiado su título o su artista). */
     public Album save(Album album) {
         if (album.getId() == null) {
             em.persist(album);
             return album;
         } else {
-            return em.merge(album);
+            Album merged = em.merge(album);
+            new TrackSearchRepository(em).reindexAlbum(merged.getId());
+            return merged;
         }
     }
 
@@ -25,15 +34,51 @@ public class AlbumRepository {
         return Optional.ofNullable(em.find(Album.class, id));
     }
 
+    /** Busca un álbum cargando sus asociaciones según {@code plan} (las demás quedan LAZY). */
+    public Optional<Album> findById(Long id, FetchPlan<Album> plan) {
+        return Finders.find(em, plan, id);
+    }
+
     public List<Album> findAll() {
         return em.createQuery("SELECT a FROM Album a", Album.class).getResultList();
     }
 
+    public List<Album> findAll(FetchPlan<Album> plan) {
+        return Finders.all(em, plan);
+    }
+
+    /** Página de álbumes por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Album> findPage(Long afterId, int limit) {
+        return Finders.page(em, Album.class, afterId, limit);
+    }
+
+    /** Como {@link #findPage(Long, int)} cargando las asociaciones de {@code plan}. */
+    public List<Album> findPage(Long afterId, int limit, FetchPlan<Album> plan) {
+        return Finders.page(em, plan, afterId, limit);
+    }
+
+    /**
+     * Recorre todos los álbumes por ID con un cursor ({@link Finders#stream}). El artista es lazy y las tandas
+     * ya recorridas quedan detached: si se lo va a leer, usar {@link #streamAll(int, FetchPlan)} con
+     * {@link #WITH_ARTIST}. Cerrar el stream.
+     */
+    public Stream<Album> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Album> streamAll(int fetchSize) {
+        return Finders.stream(em, Album.class, fetchSize);
+    }
+
+    /** Como {@link #streamAll(int)} cargando las asociaciones a uno de {@code plan}. */
+    public Stream<Album> streamAll(int fetchSize, FetchPlan<Album> plan) {
+        return Finders.stream(em, plan, fetchSize);
+    }
+
     public Optional<Album> findByTitle(String title) {
-        return em.createQuery("SELECT a FROM Album a WHERE a.title = :title", Album.class)
-                .setParameter("title", title)
-                .getResultStream()
-                .findFirst();
+        return FIND_BY_TITLE_TIMER.time(() ->
+                Finders.firstCached(em.createQuery("SELECT a FROM Album a WHERE a.title = :title", Album.class)
+                        .setParameter("title", title)));
     }
 
     public void delete(Album album) {
@@ -4,20 +4,26 @@ import com.recup.backend.domain.Artist;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class ArtistRepository {
+    private static final QueryMetrics.Timer FIND_BY_NAME_TIMER = QueryMetrics.timer("Artist", "findByName");
+
     private final EntityManager em;
 
     public ArtistRepository(EntityManager em) {
         this.em = em;
     }
 
+    /** Al modificar un artista existente se reindexan para la búsqueda sus tracks (puede haber cambiado su nombre). */
     public Artist save(Artist artist) {
         if (artist.getId() == null) {
             em.persist(artist);
             return artist;
         } else {
-            return em.merge(artist);
+            Artist merged = em.merge(artist);
+            new TrackSearchRepository(em).reindexArtist(merged.getId());
+            return merged;
         }
     }
 
@@ -29,11 +35,24 @@ public class ArtistRepository {
         return em.createQuery("SELECT a FROM Artist a", Artist.class).getResultList();
     }
 
+    /** Página de artistas por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Artist> findPage(Long afterId, int limit) {
+        return Finders.page(em, Artist.class, afterId, limit);
+    }
+
+    /** Recorre todos los artistas por ID con un cursor ({@link Finders#stream}); no carga sus álbumes. Cerrar el stream. */
+    public Stream<Artist> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Artist> streamAll(int fetchSize) {
+        return Finders.stream(em, Artist.class, fetchSize);
+    }
+
     public Optional<Artist> findByName(String name) {
-        return em.createQuery("SELECT a FROM Artist a WHERE a.name = :name", Artist.class)
-                .setParameter("name", name)
-                .getResultStream()
-                .findFirst();
+        return FIND_BY_NAME_TIMER.time(() ->
+                Finders.firstCached(em.createQuery("SELECT a FROM Artist a WHERE a.name = :name", Artist.class)
+                        .setParameter("name", name)));
     }
 
     public void delete(Artist artist) {
@@ -0,0 +1,121 @@
+package com.recup.backend.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Reportes del catálogo (los de mostrarResultados y listados de tracks) como records de solo lectura:
+ * cada llamada usa su propia StatelessSession ({@link ReadOnlySessions}) y proyecta con {@code SELECT new},
+ * así que no carga entidades, no hace flush y solo reserva lo que devuelve. Lee lo confirmado en la base
+ * (no ve cambios pendientes de un EntityManager).
+ */
+public class CatalogReports {
+
+    /** Totales de las tablas principales. */
+    public record Counts(long tracks, long playlists, long albums) {
+    }
+
+    /** Una playlist con su costo por minuto (de PLAYLIST_STATS). */
+    public record PlaylistCost(Long playlistId, String name, Double costPerMinute) {
+    }
+
+    /** Un track con los nombres de su álbum, artista y género (null si no tiene). */
+    public record TrackRow(Long id, String name, String album, String artist, String genre,
+                           Integer milliseconds, BigDecimal unitPrice) {
+    }
+
+    private static final String COUNTS = "SELECT new " + Counts.class.getName()
+            + "((SELECT COUNT(t) FROM Track t), (SELECT COUNT(p) FROM Playlist p), (SELECT COUNT(a) FROM Album a))";
+
+    private static final String TOP_BY_COST = "SELECT new " + PlaylistCost.class.getName()
+            + "(s.playlistId, p.name, s.costPerMinute) FROM PlaylistStats s JOIN s.playlist p "
+            + "WHERE s.costPerMinute IS NOT NULL ORDER BY s.costPerMinute DESC";
+
+    private static final String TRACKS = "SELECT new " + TrackRow.class.getName()
+            + "(t.id, t.name, al.title, ar.name, g.name, t.milliseconds, t.unitPrice) "
+            + "FROM Track t LEFT JOIN t.album al LEFT JOIN al.artist ar LEFT JOIN t.genre g ";
+
+    private static final QueryMetrics.Timer COUNTS_TIMER = QueryMetrics.timer("CatalogReports", "counts");
+    private static final QueryMetrics.Timer TOP_BY_COST_PER_MINUTE_TIMER =
+            QueryMetrics.timer("CatalogReports", "topByCostPerMinute");
+    private static final QueryMetrics.Timer FIND_GENRE_ID_TIMER = QueryMetrics.timer("CatalogReports", "findGenreId");
+    private static final QueryMetrics.Timer COUNT_PLAYLISTS_WITH_ONLY_GENRE_TIMER =
+            QueryMetrics.timer("CatalogReports", "countPlaylistsWithOnlyGenre");
+    private static final QueryMetrics.Timer FIND_TRACKS_TIMER = QueryMetrics.timer("CatalogReports", "findTracks");
+    private static final QueryMetrics.Timer FIND_TRACKS_OF_PLAYLIST_TIMER =
+            QueryMetrics.timer("CatalogReports", "findTracksOfPlaylist");
+
+    private final SessionFactory factory;
+
+    public CatalogReports(EntityManagerFactory emf) {
+        this.factory = ReadOnlySessions.sessionFactory(emf);
+    }
+
+    private <R> R read(QueryMetrics.Timer timer, Function<StatelessSession, R> work) {
+        return timer.time(() -> ReadOnlySessions.read(factory, work));
+    }
+
+    public Counts counts() {
+        return read(COUNTS_TIMER, session -> ReadOnlySessions.select(session, COUNTS, Counts.class).getSingleResult());
+    }
+
+    /** Top-N por costo/minuto, resuelto con el índice IDX_PLAYLIST_STATS_COST. */
+    public List<PlaylistCost> topByCostPerMinute(int limit) {
+        return read(TOP_BY_COST_PER_MINUTE_TIMER, session ->
+                ReadOnlySessions.select(session, TOP_BY_COST, PlaylistCost.class)
+                        .setMaxResults(limit)
+                        .getResultList());
+    }
+
+    /** ID del género con ese nombre, sin distinguir mayúsculas. */
+    public Optional<Long> findGenreId(String name) {
+        return read(FIND_GENRE_ID_TIMER, session ->
+                ReadOnlySessions.select(session,
+                                "SELECT g.id FROM Genre g WHERE LOWER(g.name) = LOWER(:name) ORDER BY g.id", Long.class)
+                        .setParameter("name", name)
+                        .setMaxResults(1)
+                        .getResultList()
+                        .stream()
+                        .findFirst());
+    }
+
+    /**
+     * Cantidad de playlists (con al menos un track) cuyos tracks son todos del género indicado, desde
+     * PLAYLIST_GENRE_STATS / PLAYLIST_STATS (como {@link PlaylistRepository#countWithOnlyGenre}).
+     */
+    public long countPlaylistsWithOnlyGenre(Long genreId) {
+        return read(COUNT_PLAYLISTS_WITH_ONLY_GENRE_TIMER, session ->
+                ReadOnlySessions.select(session, "SELECT COUNT(g) FROM PlaylistGenreStats g, PlaylistStats s "
+                                + "WHERE g.genreId = :genreId AND s.playlistId = g.playlistId "
+                                + "AND g.trackCount = s.trackCount AND s.trackCount > 0", Long.class)
+                        .setParameter("genreId", genreId)
+                        .getSingleResult());
+    }
+
+    /**
+     * Paginación por clave de los tracks con álbum, artista y género: hasta {@code limit} con ID mayor a
+     * {@code afterId} (null = desde el principio), por ID.
+     */
+    public List<TrackRow> findTracks(Long afterId, int limit) {
+        return read(FIND_TRACKS_TIMER, session ->
+                ReadOnlySessions.select(session, TRACKS + "WHERE t.id > :afterId ORDER BY t.id", TrackRow.class)
+                        .setParameter("afterId", afterId != null ? afterId : Long.MIN_VALUE)
+                        .setMaxResults(limit)
+                        .getResultList());
+    }
+
+    /** Los tracks de una playlist con álbum, artista y género, por ID de track. */
+    public List<TrackRow> findTracksOfPlaylist(Long playlistId) {
+        return read(FIND_TRACKS_OF_PLAYLIST_TIMER, session ->
+                ReadOnlySessions.select(session, TRACKS + "WHERE t.id IN (SELECT pt.track.id FROM PlaylistTrack pt "
+                                + "WHERE pt.playlist.id = :playlistId) ORDER BY t.id", TrackRow.class)
+                        .setParameter("playlistId", playlistId)
+                        .getResultList());
+    }
+}
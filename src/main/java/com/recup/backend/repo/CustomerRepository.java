@@ -1,11 +1,26 @@
 package com.recup.backend.repo;
 
 import com.recup.backend.domain.Customer;
+import com.recup.backend.domain.Employee;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class CustomerRepository {
+    /** Cliente + empleado de soporte. */
+    public static final FetchPlan<Customer> WITH_SUPPORT_REP = FetchPlan.graph(Customer.class, Customer.GRAPH_SUPPORT_REP);
+
+    private static final String SUPPORT_REP_SUBTREE_QUERY =
+            "SELECT %s FROM EmployeeHierarchy h, Customer c WHERE h.ancestorId = :managerId AND c.supportRep.id = h.descendantId";
+
+    private static final QueryMetrics.Timer FIND_BY_SUPPORT_REP_SUBTREE_TIMER =
+            QueryMetrics.timer("Customer", "findBySupportRepSubtree");
+    private static final QueryMetrics.Timer COUNT_BY_SUPPORT_REP_SUBTREE_TIMER =
+            QueryMetrics.timer("Customer", "countBySupportRepSubtree");
+    private static final QueryMetrics.Timer FIND_SUPPORT_REP_CHAIN_TIMER =
+            QueryMetrics.timer("Customer", "findSupportRepChain");
+
     private final EntityManager em;
 
     public CustomerRepository(EntityManager em) {
@@ -25,10 +40,73 @@ public class CustomerRepository {
         return Optional.ofNullable(em.find(Customer.class, id));
     }
 
+    /** Busca un cliente cargando sus asociaciones según {@code plan} (las demás quedan LAZY). */
+    public Optional<Customer> findById(Long id, FetchPlan<Customer> plan) {
+        return Finders.find(em, plan, id);
+    }
+
     public List<Customer> findAll() {
         return em.createQuery("SELECT c FROM Customer c", Customer.class).getResultList();
     }
 
+    public List<Customer> findAll(FetchPlan<Customer> plan) {
+        return Finders.all(em, plan);
+    }
+
+    /** Página de clientes por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Customer> findPage(Long afterId, int limit) {
+        return Finders.page(em, Customer.class, afterId, limit);
+    }
+
+    /** Como {@link #findPage(Long, int)} cargando las asociaciones de {@code plan}. */
+    public List<Customer> findPage(Long afterId, int limit, FetchPlan<Customer> plan) {
+        return Finders.page(em, plan, afterId, limit);
+    }
+
+    /**
+     * Recorre todos los clientes por ID con un cursor ({@link Finders#stream}), ej. para exportarlos. Para
+     * leer el representante de soporte usar {@link #WITH_SUPPORT_REP}. Cerrar el stream.
+     */
+    public Stream<Customer> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Customer> streamAll(int fetchSize) {
+        return Finders.stream(em, Customer.class, fetchSize);
+    }
+
+    /** Como {@link #streamAll(int)} cargando las asociaciones a uno de {@code plan}. */
+    public Stream<Customer> streamAll(int fetchSize, FetchPlan<Customer> plan) {
+        return Finders.stream(em, plan, fetchSize);
+    }
+
+    /**
+     * Clientes atendidos por {@code managerId} o por cualquier empleado que dependa de él, por ID: un join
+     * de EMPLOYEE_HIERARCHY (subárbol del jefe) con CUSTOMERS por SUPPORT_REP_ID.
+     */
+    public List<Customer> findBySupportRepSubtree(Long managerId) {
+        return FIND_BY_SUPPORT_REP_SUBTREE_TIMER.time(() ->
+                em.createQuery(SUPPORT_REP_SUBTREE_QUERY.formatted("c") + " ORDER BY c.id", Customer.class)
+                        .setParameter("managerId", managerId)
+                        .getResultList());
+    }
+
+    public long countBySupportRepSubtree(Long managerId) {
+        return COUNT_BY_SUPPORT_REP_SUBTREE_TIMER.time(() ->
+                em.createQuery(SUPPORT_REP_SUBTREE_QUERY.formatted("COUNT(c)"), Long.class)
+                        .setParameter("managerId", managerId)
+                        .getSingleResult());
+    }
+
+    /** El empleado de soporte del cliente y sus jefes, del más cercano al más alto (vacía si no tiene). */
+    public List<Employee> findSupportRepChain(Long customerId) {
+        return FIND_SUPPORT_REP_CHAIN_TIMER.time(() ->
+                em.createQuery("SELECT e FROM Customer c, EmployeeHierarchy h JOIN h.ancestor e "
+                                + "WHERE c.id = :customerId AND h.descendantId = c.supportRep.id ORDER BY h.depth", Employee.class)
+                        .setParameter("customerId", customerId)
+                        .getResultList());
+    }
+
     public void delete(Customer customer) {
         em.remove(em.contains(customer) ? customer : em.merge(customer));
     }
@@ -1,34 +1,153 @@
 package com.recup.backend.repo;
 
 import com.recup.backend.domain.Employee;
+import com.recup.backend.infra.EmployeeClosure;
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Cada alta / cambio de jefe también actualiza EMPLOYEE_HIERARCHY (la clausura de REPORTS_TO, ver
+ * {@link EmployeeClosure}) por JDBC en la transacción actual: un cambio de {@code reportsTo} que no pasa
+ * por {@link #save} no se refleja hasta {@link #rebuildHierarchy()}.
+ */
 public class EmployeeRepository {
+    /** Empleado + jefe directo. */
+    public static final FetchPlan<Employee> WITH_REPORTS_TO = FetchPlan.graph(Employee.class, Employee.GRAPH_REPORTS_TO);
+
+    private static final QueryMetrics.Timer FIND_SUBORDINATES_TIMER =
+            QueryMetrics.timer("Employee", "findSubordinates");
+    private static final QueryMetrics.Timer COUNT_SUBORDINATES_TIMER =
+            QueryMetrics.timer("Employee", "countSubordinates");
+    private static final QueryMetrics.Timer FIND_MANAGERS_TIMER = QueryMetrics.timer("Employee", "findManagers");
+    private static final QueryMetrics.Timer IS_UNDER_TIMER = QueryMetrics.timer("Employee", "isUnder");
+
     private final EntityManager em;
 
     public EmployeeRepository(EntityManager em) {
         this.em = em;
     }
 
+    /**
+     * Si el empleado es nuevo o cambió de jefe se actualiza EMPLOYEE_HIERARCHY (moviendo su subárbol).
+     * @throws IllegalArgumentException si el jefe nuevo depende del propio empleado
+     */
     public Employee save(Employee employee) {
+        Employee saved;
         if (employee.getId() == null) {
             em.persist(employee);
-            return employee;
+            saved = employee;
         } else {
-            return em.merge(employee);
+            Employee manager = employee.getReportsTo();
+            if (manager != null && manager.getId() != null && isUnder(manager.getId(), employee.getId())) {
+                throw new IllegalArgumentException("El empleado " + employee.getId() + " no puede depender de "
+                        + manager.getId() + ": " + manager.getId() + " ya depende de él");
+            }
+            saved = em.merge(employee);
         }
+        em.flush();
+        em.unwrap(Session.class).doWork(conn -> EmployeeClosure.sync(conn, saved.getId()));
+        return saved;
     }
 
     public Optional<Employee> findById(Long id) {
         return Optional.ofNullable(em.find(Employee.class, id));
     }
 
+    /** Busca un empleado cargando sus asociaciones según {@code plan} (las demás quedan LAZY). */
+    public Optional<Employee> findById(Long id, FetchPlan<Employee> plan) {
+        return Finders.find(em, plan, id);
+    }
+
     public List<Employee> findAll() {
         return em.createQuery("SELECT e FROM Employee e", Employee.class).getResultList();
     }
 
+    public List<Employee> findAll(FetchPlan<Employee> plan) {
+        return Finders.all(em, plan);
+    }
+
+    /** Página de empleados por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Employee> findPage(Long afterId, int limit) {
+        return Finders.page(em, Employee.class, afterId, limit);
+    }
+
+    /** Como {@link #findPage(Long, int)} cargando las asociaciones de {@code plan}. */
+    public List<Employee> findPage(Long afterId, int limit, FetchPlan<Employee> plan) {
+        return Finders.page(em, plan, afterId, limit);
+    }
+
+    /**
+     * Recorre todos los empleados por ID con un cursor ({@link Finders#stream}). El jefe ({@code reportsTo})
+     * no se carga salvo con {@link #WITH_REPORTS_TO}. Cerrar el stream.
+     */
+    public Stream<Employee> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Employee> streamAll(int fetchSize) {
+        return Finders.stream(em, Employee.class, fetchSize);
+    }
+
+    /** Como {@link #streamAll(int)} cargando las asociaciones a uno de {@code plan}. */
+    public Stream<Employee> streamAll(int fetchSize, FetchPlan<Employee> plan) {
+        return Finders.stream(em, plan, fetchSize);
+    }
+
+    /**
+     * Todos los empleados que dependen de {@code managerId}, directa o indirectamente (sin él), por nivel y ID.
+     * Un join por la PK de EMPLOYEE_HIERARCHY.
+     */
+    public List<Employee> findSubordinates(Long managerId) {
+        return findSubordinates(managerId, Integer.MAX_VALUE);
+    }
+
+    /** Como {@link #findSubordinates(Long)} hasta {@code maxDepth} niveles por debajo (1 = reportes directos). */
+    public List<Employee> findSubordinates(Long managerId, int maxDepth) {
+        return FIND_SUBORDINATES_TIMER.time(() ->
+                em.createQuery("SELECT e FROM EmployeeHierarchy h JOIN h.descendant e "
+                                + "WHERE h.ancestorId = :managerId AND h.depth BETWEEN 1 AND :maxDepth ORDER BY h.depth, e.id",
+                                Employee.class)
+                        .setParameter("managerId", managerId)
+                        .setParameter("maxDepth", maxDepth)
+                        .getResultList());
+    }
+
+    public long countSubordinates(Long managerId) {
+        return COUNT_SUBORDINATES_TIMER.time(() ->
+                em.createQuery("SELECT COUNT(h) FROM EmployeeHierarchy h WHERE h.ancestorId = :managerId AND h.depth > 0",
+                                Long.class)
+                        .setParameter("managerId", managerId)
+                        .getSingleResult());
+    }
+
+    /** Los jefes de {@code employeeId}, del directo al más alto (IDX_EMPLOYEE_HIERARCHY_DESCENDANT). */
+    public List<Employee> findManagers(Long employeeId) {
+        return FIND_MANAGERS_TIMER.time(() ->
+                em.createQuery("SELECT e FROM EmployeeHierarchy h JOIN h.ancestor e "
+                                + "WHERE h.descendantId = :employeeId AND h.depth > 0 ORDER BY h.depth", Employee.class)
+                        .setParameter("employeeId", employeeId)
+                        .getResultList());
+    }
+
+    /** true si {@code employeeId} depende de {@code managerId}, directa o indirectamente, o es el mismo. */
+    public boolean isUnder(Long employeeId, Long managerId) {
+        return IS_UNDER_TIMER.time(() ->
+                em.createQuery("SELECT COUNT(h) FROM EmployeeHierarchy h "
+                                + "WHERE h.ancestorId = :managerId AND h.descendantId = :employeeId", Long.class)
+                        .setParameter("managerId", managerId)
+                        .setParameter("employeeId", employeeId)
+                        .getSingleResult() > 0);
+    }
+
+    /** Reconstruye EMPLOYEE_HIERARCHY completa desde REPORTS_TO. */
+    public void rebuildHierarchy() {
+        em.flush();
+        em.unwrap(Session.class).doWork(EmployeeClosure::rebuild);
+    }
+
     public void delete(Employee employee) {
         em.remove(em.contains(employee) ? employee : em.merge(employee));
     }
@@ -0,0 +1,98 @@
+package com.recup.backend.repo;
+
+import jakarta.persistence.AttributeNode;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Qué asociaciones cargar junto con una entidad.
+ *
+ * Todas las @ManyToOne del dominio son LAZY: sin plan ({@link #lazy}) se lee solo la fila de la entidad y
+ * cada asociación es un proxy que se inicializa (una consulta más) al usarla. Un plan con entity graph
+ * ({@link #graph}) trae en la misma consulta los atributos del graph (fetch graph de JPA: lo que no está en
+ * el graph queda LAZY). Los repositorios exponen los planes habituales como constantes, por ejemplo
+ * {@link TrackRepository#ALBUM_ARTIST} o {@link InvoiceRepository#ITEMS_TRACKS}.
+ *
+ * @param <T> entidad raíz
+ */
+public final class FetchPlan<T> {
+
+    /** Hint estándar de JPA: el graph reemplaza a los fetch declarados en el mapeo. */
+    static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
+
+    private final Class<T> type;
+    private final String graphName;
+
+    private FetchPlan(Class<T> type, String graphName) {
+        this.type = type;
+        this.graphName = graphName;
+    }
+
+    /** Solo la entidad; las asociaciones se cargan al usarlas (dentro del EntityManager que la leyó). */
+    public static <T> FetchPlan<T> lazy(Class<T> type) {
+        return new FetchPlan<>(type, null);
+    }
+
+    /** La entidad más los atributos del {@code @NamedEntityGraph} indicado. */
+    public static <T> FetchPlan<T> graph(Class<T> type, String graphName) {
+        return new FetchPlan<>(type, graphName);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /** Nombre del entity graph, o null si el plan es {@link #lazy}. */
+    public String graphName() {
+        return graphName;
+    }
+
+    /** Hints para {@code em.find(type, id, hints)}. */
+    Map<String, Object> hints(EntityManager em) {
+        return graphName == null ? Map.of() : Map.of(FETCH_GRAPH_HINT, em.getEntityGraph(graphName));
+    }
+
+    /** Aplica el plan a una consulta cuya raíz es {@code T}. */
+    <R> TypedQuery<R> apply(EntityManager em, TypedQuery<R> query) {
+        return graphName == null ? query : query.setHint(FETCH_GRAPH_HINT, em.getEntityGraph(graphName));
+    }
+
+    /**
+     * true si el graph trae alguna colección (@OneToMany): el resultado tiene una fila por elemento, así que
+     * no se puede paginar con LIMIT ni recorrer con un cursor tal cual.
+     */
+    boolean fetchesCollection(EntityManager em) {
+        if (graphName == null) {
+            return false;
+        }
+        EntityGraph<?> graph = em.getEntityGraph(graphName);
+        return fetchesCollection(em.getMetamodel(), type, graph.getAttributeNodes());
+    }
+
+    private static boolean fetchesCollection(Metamodel metamodel, Class<?> type, List<AttributeNode<?>> nodes) {
+        ManagedType<?> managed = metamodel.managedType(type);
+        for (AttributeNode<?> node : nodes) {
+            if (managed.getAttribute(node.getAttributeName()).isCollection()) {
+                return true;
+            }
+            for (Subgraph<?> sub : node.getSubgraphs().values()) {
+                if (fetchesCollection(metamodel, sub.getClassType(), sub.getAttributeNodes())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return type.getSimpleName() + (graphName == null ? " (lazy)" : " [" + graphName + "]");
+    }
+}
@@ -0,0 +1,256 @@
+package com.recup.backend.repo;
+
+import com.recup.backend.infra.DataSourceProvider;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.SelectionQuery;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Consultas de recorrido compartidas por los repositorios (entidades con PK {@code id} numérica).
+ *
+ * - {@link #page}: paginación por clave (keyset): {@code WHERE id > :afterId ORDER BY id}, usa el índice de
+ *   la PK y cuesta lo mismo en la primera página que en la última (a diferencia de OFFSET).
+ * - {@link #stream}: cursor forward-only de solo lectura con fetch size; cada {@code fetchSize} filas se
+ *   limpia el contexto de persistencia, así recorrer una tabla grande usa memoria acotada.
+ */
+final class Finders {
+
+    /** Fetch size por defecto de los streams. */
+    static final int DEFAULT_FETCH_SIZE = 500;
+
+    /** Métricas de los recorridos de cada entidad, resueltas la primera vez. */
+    private static final ClassValue<Timers> TIMERS = new ClassValue<>() {
+        @Override
+        protected Timers computeValue(Class<?> type) {
+            String entity = type.getSimpleName();
+            return new Timers(QueryMetrics.timer(entity, "page"), QueryMetrics.timer(entity, "all"),
+                    QueryMetrics.timer(entity, "byIds"), QueryMetrics.timer(entity, "find"));
+        }
+    };
+
+    private record Timers(QueryMetrics.Timer page, QueryMetrics.Timer all, QueryMetrics.Timer byIds,
+                          QueryMetrics.Timer find) {
+    }
+
+    private Finders() {
+    }
+
+    /**
+     * Paginación por clave: hasta {@code limit} entidades con ID mayor a {@code afterId}, ordenadas por ID.
+     * Con {@code afterId} null se empieza desde el principio; la página siguiente se pide con el ID de la
+     * última entidad devuelta, y una página con menos de {@code limit} entidades es la última. Las altas y
+     * bajas entre una página y otra no hacen repetir ni saltear filas ya recorridas.
+     */
+    static <T> List<T> page(EntityManager em, Class<T> type, Long afterId, int limit) {
+        return page(em, FetchPlan.lazy(type), afterId, limit);
+    }
+
+    /**
+     * Como {@link #page(EntityManager, Class, Long, int)}, cargando lo que indica {@code plan}. Si el plan
+     * trae una colección, LIMIT cortaría filas del JOIN (Hibernate terminaría paginando en memoria): se
+     * piden primero los IDs de la página y después las entidades de esos IDs con el graph.
+     */
+    static <T> List<T> page(EntityManager em, FetchPlan<T> plan, Long afterId, int limit) {
+        return TIMERS.get(plan.type()).page().time(() -> pageOf(em, plan, afterId, limit));
+    }
+
+    private static <T> List<T> pageOf(EntityManager em, FetchPlan<T> plan, Long afterId, int limit) {
+        String entity = plan.type().getSimpleName();
+        long after = afterId != null ? afterId : Long.MIN_VALUE;
+        if (!plan.fetchesCollection(em)) {
+            return plan.apply(em, em.createQuery("SELECT e FROM " + entity + " e WHERE e.id > :afterId ORDER BY e.id", plan.type()))
+                    .setParameter("afterId", after)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        List<Long> ids = em.createQuery("SELECT e.id FROM " + entity + " e WHERE e.id > :afterId ORDER BY e.id", Long.class)
+                .setParameter("afterId", after)
+                .setMaxResults(limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return plan.apply(em, em.createQuery("SELECT e FROM " + entity + " e WHERE e.id IN :ids ORDER BY e.id", plan.type()))
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /** Todas las entidades de la raíz de {@code plan}, cargando lo que indica el plan. */
+    static <T> List<T> all(EntityManager em, FetchPlan<T> plan) {
+        return TIMERS.get(plan.type()).all().time(() ->
+                plan.apply(em, em.createQuery("SELECT e FROM " + plan.type().getSimpleName() + " e", plan.type()))
+                        .getResultList());
+    }
+
+    /**
+     * Las entidades de esos IDs en el mismo orden (ej: un ranking calculado aparte), con una consulta
+     * {@code IN}; los IDs que no existen se omiten.
+     */
+    static <T> List<T> byIds(EntityManager em, FetchPlan<T> plan, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return TIMERS.get(plan.type()).byIds().time(() -> byIdsOf(em, plan, ids));
+    }
+
+    private static <T> List<T> byIdsOf(EntityManager em, FetchPlan<T> plan, List<Long> ids) {
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, T> byId = new HashMap<>(ids.size() * 2);
+        plan.apply(em, em.createQuery("SELECT e FROM " + plan.type().getSimpleName() + " e WHERE e.id IN :ids", plan.type()))
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(e -> byId.put(util.getIdentifier(e), e));
+        List<T> ordered = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    /** La entidad con ese ID, cargando lo que indica {@code plan}. */
+    static <T> Optional<T> find(EntityManager em, FetchPlan<T> plan, Long id) {
+        return TIMERS.get(plan.type()).find().time(() ->
+                Optional.ofNullable(em.find(plan.type(), id, plan.hints(em))));
+    }
+
+    /**
+     * Marca la consulta como cacheable: el cache de consultas de Hibernate guarda los IDs del resultado y las
+     * entidades salen del cache de segundo nivel (solo las {@code @Cacheable}: datos de referencia). Se
+     * invalida sola cuando Hibernate modifica alguna de sus tablas.
+     */
+    static <T> TypedQuery<T> cached(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_CACHEABLE, true);
+    }
+
+    /** Primer resultado de una consulta cacheable ({@code getResultStream()} no pasa por el cache). */
+    static <T> Optional<T> firstCached(TypedQuery<T> query) {
+        return cached(query).setMaxResults(1).getResultList().stream().findFirst();
+    }
+
+    /**
+     * Todas las entidades de {@code type} en orden de ID, leídas con un cursor forward-only.
+     *
+     * Cada {@code fetchSize} filas se ejecuta {@code em.clear()}: las entidades ya entregadas quedan
+     * detached por tandas, pero las de la última tanda (hasta {@code fetchSize}) siguen administradas por
+     * {@code em} hasta el próximo clear() o el cierre del EntityManager; cerrar el stream no las desasocia.
+     * El clear() también descarta cualquier otra entidad administrada por {@code em}, así que conviene un
+     * EntityManager dedicado al recorrido. Las entidades son de solo lectura: sus cambios no se guardan.
+     *
+     * Mientras se recorre, la conexión usa ejecución lazy de H2 (las filas se producen a medida que se leen,
+     * sin materializar el resultado completo). Se vuelve a apagar al llegar al final del cursor o al cerrar
+     * el stream; si no pasa ninguna de las dos, el pool la apaga al devolver la conexión
+     * ({@link com.recup.backend.infra.ConnectionPool#resetOnReturn}). Hay que cerrar el stream
+     * (try-with-resources).
+     */
+    static <T> Stream<T> stream(EntityManager em, Class<T> type, int fetchSize) {
+        return stream(em, FetchPlan.lazy(type), fetchSize);
+    }
+
+    /**
+     * Como {@link #stream(EntityManager, Class, int)}, cargando lo que indica {@code plan} (solo asociaciones
+     * a uno: un graph con colecciones repetiría la entidad en varias filas del cursor).
+     */
+    static <T> Stream<T> stream(EntityManager em, FetchPlan<T> plan, int fetchSize) {
+        if (plan.fetchesCollection(em)) {
+            throw new IllegalArgumentException("No se puede recorrer con un cursor un plan con colecciones: " + plan);
+        }
+        Class<T> type = plan.type();
+        Session session = em.unwrap(Session.class);
+        setLazyExecution(session, true);
+        ScrollableResults<T> results;
+        try {
+            SelectionQuery<T> query = session.createSelectionQuery("SELECT e FROM " + type.getSimpleName() + " e ORDER BY e.id", type)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true);
+            if (plan.graphName() != null) {
+                query.setHint(FetchPlan.FETCH_GRAPH_HINT, em.getEntityGraph(plan.graphName()));
+            }
+            results = query.scroll(ScrollMode.FORWARD_ONLY);
+        } catch (RuntimeException e) {
+            setLazyExecution(session, false);
+            throw e;
+        }
+        Cursor<T> rows = new Cursor<>(session, results, fetchSize);
+        return StreamSupport.stream(rows, false).onClose(rows::close);
+    }
+
+    /** Filas del cursor; al terminarlas (o al cerrar el stream) libera el cursor y apaga la ejecución lazy. */
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Session session;
+        private final ScrollableResults<T> results;
+        private final int fetchSize;
+        private int sinceClear;
+        private boolean closed;
+
+        Cursor(Session session, ScrollableResults<T> results, int fetchSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.session = session;
+            this.results = results;
+            this.fetchSize = fetchSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            if (++sinceClear > fetchSize) {
+                session.clear(); // las filas anteriores ya se entregaron
+                sinceClear = 1;
+            }
+            if (!results.next()) {
+                close();
+                return false;
+            }
+            action.accept(results.get());
+            return true;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                results.close();
+            } finally {
+                if (session.isOpen()) {
+                    setLazyExecution(session, false);
+                }
+            }
+        }
+    }
+
+    // SET LAZY_QUERY_EXECUTION es por sesión de H2: se vuelve a apagar al terminar el recorrido y, por si el
+    // stream no se cierra, el pool lo apaga al devolver la conexión
+    private static void setLazyExecution(Session session, boolean lazy) {
+        session.doWork(conn -> {
+            try (Statement st = conn.createStatement()) {
+                st.execute("SET LAZY_QUERY_EXECUTION " + (lazy ? "TRUE" : "FALSE"));
+            }
+            if (lazy) {
+                DataSourceProvider.pool().resetOnReturn(conn, "SET LAZY_QUERY_EXECUTION FALSE");
+            }
+        });
+    }
+}
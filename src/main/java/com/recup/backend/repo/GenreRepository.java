@@ -4,8 +4,11 @@ import com.recup.backend.domain.Genre;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class GenreRepository {
+    private static final QueryMetrics.Timer FIND_BY_NAME_TIMER = QueryMetrics.timer("Genre", "findByName");
+
     private final EntityManager em;
 
     public GenreRepository(EntityManager em) {
@@ -26,14 +29,27 @@ public class GenreRepository {
     }
 
     public List<Genre> findAll() {
-        return em.createQuery("SELECT g FROM Genre g", Genre.class).getResultList();
+        return Finders.cached(em.createQuery("SELECT g FROM Genre g", Genre.class)).getResultList();
+    }
+
+    /** Página de géneros por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Genre> findPage(Long afterId, int limit) {
+        return Finders.page(em, Genre.class, afterId, limit);
+    }
+
+    /** Recorre todos los géneros por ID con un cursor ({@link Finders#stream}). Cerrar el stream. */
+    public Stream<Genre> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Genre> streamAll(int fetchSize) {
+        return Finders.stream(em, Genre.class, fetchSize);
     }
 
     public Optional<Genre> findByName(String name) {
-        return em.createQuery("SELECT g FROM Genre g WHERE g.name = :name", Genre.class)
-                .setParameter("name", name)
-                .getResultStream()
-                .findFirst();
+        return FIND_BY_NAME_TIMER.time(() ->
+                Finders.firstCached(em.createQuery("SELECT g FROM Genre g WHERE g.name = :name", Genre.class)
+                        .setParameter("name", name)));
     }
 
     public void delete(Genre genre) {
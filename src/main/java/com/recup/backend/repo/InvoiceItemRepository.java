@@ -4,8 +4,12 @@ import com.recup.backend.domain.InvoiceItem;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class InvoiceItemRepository {
+    /** Línea de factura + track. */
+    public static final FetchPlan<InvoiceItem> WITH_TRACK = FetchPlan.graph(InvoiceItem.class, InvoiceItem.GRAPH_TRACK);
+
     private final EntityManager em;
 
     public InvoiceItemRepository(EntityManager em) {
@@ -25,10 +29,47 @@ public class InvoiceItemRepository {
         return Optional.ofNullable(em.find(InvoiceItem.class, id));
     }
 
+    /** Busca una línea cargando sus asociaciones según {@code plan} (las demás quedan LAZY). */
+    public Optional<InvoiceItem> findById(Long id, FetchPlan<InvoiceItem> plan) {
+        return Finders.find(em, plan, id);
+    }
+
     public List<InvoiceItem> findAll() {
         return em.createQuery("SELECT ii FROM InvoiceItem ii", InvoiceItem.class).getResultList();
     }
 
+    public List<InvoiceItem> findAll(FetchPlan<InvoiceItem> plan) {
+        return Finders.all(em, plan);
+    }
+
+    /** Página de líneas de factura por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<InvoiceItem> findPage(Long afterId, int limit) {
+        return Finders.page(em, InvoiceItem.class, afterId, limit);
+    }
+
+    /** Como {@link #findPage(Long, int)} cargando las asociaciones de {@code plan}. */
+    public List<InvoiceItem> findPage(Long afterId, int limit, FetchPlan<InvoiceItem> plan) {
+        return Finders.page(em, plan, afterId, limit);
+    }
+
+    /**
+     * Recorre todas las líneas de factura por ID con un cursor ({@link Finders#stream}): es la tabla más grande
+     * junto con PLAYLIST_TRACK. Factura y track son lazy; para leer el track usar {@link #WITH_TRACK}. Para
+     * totales conviene {@link SalesReports}, que no carga entidades. Cerrar el stream.
+     */
+    public Stream<InvoiceItem> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<InvoiceItem> streamAll(int fetchSize) {
+        return Finders.stream(em, InvoiceItem.class, fetchSize);
+    }
+
+    /** Como {@link #streamAll(int)} cargando las asociaciones a uno de {@code plan}. */
+    public Stream<InvoiceItem> streamAll(int fetchSize, FetchPlan<InvoiceItem> plan) {
+        return Finders.stream(em, plan, fetchSize);
+    }
+
     public void delete(InvoiceItem invoiceItem) {
         em.remove(em.contains(invoiceItem) ? invoiceItem : em.merge(invoiceItem));
     }
@@ -1,17 +1,25 @@
 package com.recup.backend.repo;
 
 import com.recup.backend.domain.Invoice;
+import com.recup.backend.infra.InvoiceBulkIngestor;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class InvoiceRepository {
+    /** Factura + cliente. */
+    public static final FetchPlan<Invoice> WITH_CUSTOMER = FetchPlan.graph(Invoice.class, Invoice.GRAPH_CUSTOMER);
+    /** Factura + líneas + track de cada línea (no se puede usar con {@link #streamAll(int, FetchPlan)}). */
+    public static final FetchPlan<Invoice> ITEMS_TRACKS = FetchPlan.graph(Invoice.class, Invoice.GRAPH_ITEMS_TRACKS);
+
     private final EntityManager em;
 
     public InvoiceRepository(EntityManager em) {
         this.em = em;
     }
 
+    /** Una factura con sus líneas (cascade). Para cargas masivas, {@link InvoiceBulkIngestor}. */
     public Invoice save(Invoice invoice) {
         if (invoice.getId() == null) {
             em.persist(invoice);
@@ -25,10 +33,47 @@ public class InvoiceRepository {
         return Optional.ofNullable(em.find(Invoice.class, id));
     }
 
+    /** Busca una factura cargando sus asociaciones según {@code plan} (las demás quedan LAZY). */
+    public Optional<Invoice> findById(Long id, FetchPlan<Invoice> plan) {
+        return Finders.find(em, plan, id);
+    }
+
     public List<Invoice> findAll() {
         return em.createQuery("SELECT i FROM Invoice i", Invoice.class).getResultList();
     }
 
+    public List<Invoice> findAll(FetchPlan<Invoice> plan) {
+        return Finders.all(em, plan);
+    }
+
+    /** Página de facturas por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Invoice> findPage(Long afterId, int limit) {
+        return Finders.page(em, Invoice.class, afterId, limit);
+    }
+
+    /** Como {@link #findPage(Long, int)} cargando las asociaciones de {@code plan}. */
+    public List<Invoice> findPage(Long afterId, int limit, FetchPlan<Invoice> plan) {
+        return Finders.page(em, plan, afterId, limit);
+    }
+
+    /**
+     * Recorre todas las facturas por ID con un cursor ({@link Finders#stream}); no carga las líneas.
+     * Con plan solo sirve {@link #WITH_CUSTOMER}: un fetch de colección no es compatible con el cursor.
+     * Cerrar el stream.
+     */
+    public Stream<Invoice> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Invoice> streamAll(int fetchSize) {
+        return Finders.stream(em, Invoice.class, fetchSize);
+    }
+
+    /** Como {@link #streamAll(int)} cargando las asociaciones a uno de {@code plan}. */
+    public Stream<Invoice> streamAll(int fetchSize, FetchPlan<Invoice> plan) {
+        return Finders.stream(em, plan, fetchSize);
+    }
+
     public void delete(Invoice invoice) {
         em.remove(em.contains(invoice) ? invoice : em.merge(invoice));
     }
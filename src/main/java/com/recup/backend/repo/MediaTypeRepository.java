@@ -4,8 +4,11 @@ import com.recup.backend.domain.MediaType;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class MediaTypeRepository {
+    private static final QueryMetrics.Timer FIND_BY_NAME_TIMER = QueryMetrics.timer("MediaType", "findByName");
+
     private final EntityManager em;
 
     public MediaTypeRepository(EntityManager em) {
@@ -26,14 +29,27 @@ public class MediaTypeRepository {
     }
 
     public List<MediaType> findAll() {
-        return em.createQuery("SELECT m FROM MediaType m", MediaType.class).getResultList();
+        return Finders.cached(em.createQuery("SELECT m FROM MediaType m", MediaType.class)).getResultList();
+    }
+
+    /** Página de tipos de medio por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<MediaType> findPage(Long afterId, int limit) {
+        return Finders.page(em, MediaType.class, afterId, limit);
+    }
+
+    /** Recorre todos los tipos de medio por ID con un cursor ({@link Finders#stream}). Cerrar el stream. */
+    public Stream<MediaType> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<MediaType> streamAll(int fetchSize) {
+        return Finders.stream(em, MediaType.class, fetchSize);
     }
 
     public Optional<MediaType> findByName(String name) {
-        return em.createQuery("SELECT m FROM MediaType m WHERE m.name = :name", MediaType.class)
-                .setParameter("name", name)
-                .getResultStream()
-                .findFirst();
+        return FIND_BY_NAME_TIMER.time(() ->
+                Finders.firstCached(em.createQuery("SELECT m FROM MediaType m WHERE m.name = :name", MediaType.class)
+                        .setParameter("name", name)));
     }
 
     public void delete(MediaType mediaType) {
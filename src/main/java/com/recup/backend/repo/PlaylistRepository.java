@@ -4,8 +4,20 @@ import com.recup.backend.domain.Playlist;
 import jakarta.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class PlaylistRepository {
+    private static final String ONLY_GENRE_QUERY =
+            "SELECT %s FROM PlaylistGenreStats g, PlaylistStats s, Playlist p "
+                    + "WHERE g.genreId = :genreId AND s.playlistId = g.playlistId AND p.id = g.playlistId "
+                    + "AND g.trackCount = s.trackCount AND s.trackCount > 0";
+
+    private static final QueryMetrics.Timer FIND_BY_NAME_TIMER = QueryMetrics.timer("Playlist", "findByName");
+    private static final QueryMetrics.Timer FIND_ALL_WITH_ONLY_GENRE_TIMER =
+            QueryMetrics.timer("Playlist", "findAllWithOnlyGenre");
+    private static final QueryMetrics.Timer COUNT_WITH_ONLY_GENRE_TIMER =
+            QueryMetrics.timer("Playlist", "countWithOnlyGenre");
+
     private final EntityManager em;
 
     public PlaylistRepository(EntityManager em) {
@@ -29,11 +41,48 @@ public class PlaylistRepository {
         return em.createQuery("SELECT p FROM Playlist p", Playlist.class).getResultList();
     }
 
+    /** Página de playlists por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Playlist> findPage(Long afterId, int limit) {
+        return Finders.page(em, Playlist.class, afterId, limit);
+    }
+
+    /**
+     * Recorre todas las playlists por ID con un cursor ({@link Finders#stream}); no carga sus tracks (para eso
+     * {@link PlaylistTrackRepository#streamAll()}). Cerrar el stream.
+     */
+    public Stream<Playlist> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Playlist> streamAll(int fetchSize) {
+        return Finders.stream(em, Playlist.class, fetchSize);
+    }
+
     public Optional<Playlist> findByName(String name) {
-        return em.createQuery("SELECT p FROM Playlist p WHERE p.name = :name", Playlist.class)
-                .setParameter("name", name)
-                .getResultStream()
-                .findFirst();
+        return FIND_BY_NAME_TIMER.time(() ->
+                em.createQuery("SELECT p FROM Playlist p WHERE p.name = :name", Playlist.class)
+                        .setParameter("name", name)
+                        .getResultStream()
+                        .findFirst());
+    }
+
+    /**
+     * Playlists (con al menos un track) cuyos tracks son todos del género indicado.
+     * Se resuelve con los agregados PLAYLIST_GENRE_STATS / PLAYLIST_STATS: la cantidad de tracks del
+     * género tiene que ser igual al total de la playlist (los tracks sin género nunca cuentan).
+     */
+    public List<Playlist> findAllWithOnlyGenre(Long genreId) {
+        return FIND_ALL_WITH_ONLY_GENRE_TIMER.time(() ->
+                em.createQuery(ONLY_GENRE_QUERY.formatted("p"), Playlist.class)
+                        .setParameter("genreId", genreId)
+                        .getResultList());
+    }
+
+    public long countWithOnlyGenre(Long genreId) {
+        return COUNT_WITH_ONLY_GENRE_TIMER.time(() ->
+                em.createQuery(ONLY_GENRE_QUERY.formatted("COUNT(p)"), Long.class)
+                        .setParameter("genreId", genreId)
+                        .getSingleResult());
     }
 
     public void delete(Playlist playlist) {
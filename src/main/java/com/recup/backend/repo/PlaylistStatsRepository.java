@@ -0,0 +1,59 @@
+package com.recup.backend.repo;
+
+import com.recup.backend.domain.PlaylistStats;
+import com.recup.backend.infra.PlaylistStatsDelta;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lectura y mantenimiento de los agregados PLAYLIST_STATS y PLAYLIST_GENRE_STATS.
+ * Las escrituras van por JDBC en la transacción actual; las entidades PlaylistStats ya cargadas
+ * en el contexto de persistencia no se refrescan solas.
+ */
+public class PlaylistStatsRepository {
+    private static final QueryMetrics.Timer FIND_TOP_BY_COST_PER_MINUTE_TIMER =
+            QueryMetrics.timer("PlaylistStats", "findTopByCostPerMinute");
+
+    private final EntityManager em;
+
+    public PlaylistStatsRepository(EntityManager em) {
+        this.em = em;
+    }
+
+    public Optional<PlaylistStats> findById(Long playlistId) {
+        return Optional.ofNullable(em.find(PlaylistStats.class, playlistId));
+    }
+
+    /** Top-N por costo/minuto, resuelto con el índice IDX_PLAYLIST_STATS_COST. */
+    public List<PlaylistStats> findTopByCostPerMinute(int limit) {
+        return FIND_TOP_BY_COST_PER_MINUTE_TIMER.time(() ->
+                em.createQuery(
+                        "SELECT s FROM PlaylistStats s JOIN FETCH s.playlist "
+                                + "WHERE s.costPerMinute IS NOT NULL ORDER BY s.costPerMinute DESC", PlaylistStats.class)
+                        .setMaxResults(limit)
+                        .getResultList());
+    }
+
+    /** Aplica (y vacía) los cambios acumulados; antes sincroniza el contexto para que las filas existan. */
+    public void apply(PlaylistStatsDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        em.flush();
+        em.unwrap(Session.class).doWork(delta::apply);
+    }
+
+    /** Recalcula las playlists que contienen el track (cambió su precio o duración). */
+    public void refreshPlaylistsOfTrack(Long trackId) {
+        em.flush();
+        em.unwrap(Session.class).doWork(conn -> PlaylistStatsDelta.refreshPlaylistsOfTrack(conn, trackId));
+    }
+
+    /** Reconstruye los agregados completos desde PLAYLIST_TRACK. */
+    public void rebuild() {
+        em.flush();
+        em.unwrap(Session.class).doWork(PlaylistStatsDelta::rebuild);
+    }
+}
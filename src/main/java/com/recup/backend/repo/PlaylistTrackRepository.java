@@ -1,24 +1,56 @@
 package com.recup.backend.repo;
 
 import com.recup.backend.domain.PlaylistTrack;
+import com.recup.backend.infra.PlaylistStatsDelta;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Cada alta / baja de relación también actualiza PLAYLIST_STATS: en el momento, o acumulando en el
+ * {@link PlaylistStatsDelta} recibido, que aplica quien maneja la transacción (ej: la importación por lotes).
+ */
 public class PlaylistTrackRepository {
+    private static final QueryMetrics.Timer EXISTS_BY_PLAYLIST_AND_TRACK_TIMER =
+            QueryMetrics.timer("PlaylistTrack", "existsByPlaylistAndTrack");
+
     private final EntityManager em;
+    private final PlaylistStatsRepository stats;
+    private final PlaylistStatsDelta batch;
 
     public PlaylistTrackRepository(EntityManager em) {
+        this(em, null);
+    }
+
+    public PlaylistTrackRepository(EntityManager em, PlaylistStatsDelta batch) {
         this.em = em;
+        this.stats = new PlaylistStatsRepository(em);
+        this.batch = batch;
     }
 
     public PlaylistTrack save(PlaylistTrack playlistTrack) {
+        PlaylistStatsDelta delta = batch != null ? batch : new PlaylistStatsDelta();
+        PlaylistTrack saved;
         if (playlistTrack.getId() == null) {
             em.persist(playlistTrack);
-            return playlistTrack;
+            saved = playlistTrack;
         } else {
-            return em.merge(playlistTrack);
+            // Valores en la base (no en el contexto) para saber si cambió la playlist o el track
+            em.createQuery("SELECT pt.playlist.id, pt.track.id FROM PlaylistTrack pt WHERE pt.id = :id", Object[].class)
+                    .setFlushMode(FlushModeType.COMMIT)
+                    .setParameter("id", playlistTrack.getId())
+                    .getResultStream()
+                    .findFirst()
+                    .ifPresent(old -> delta.trackRemoved((Long) old[0], (Long) old[1]));
+            saved = em.merge(playlistTrack);
         }
+        delta.trackAdded(saved.getPlaylist().getId(), saved.getTrack().getId());
+        if (batch == null) {
+            stats.apply(delta);
+        }
+        return saved;
     }
 
     public Optional<PlaylistTrack> findById(Long id) {
@@ -29,17 +61,41 @@ public class PlaylistTrackRepository {
         return em.createQuery("SELECT pt FROM PlaylistTrack pt", PlaylistTrack.class).getResultList();
     }
 
+    /** Página de relaciones playlist-track por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<PlaylistTrack> findPage(Long afterId, int limit) {
+        return Finders.page(em, PlaylistTrack.class, afterId, limit);
+    }
+
+    /**
+     * Recorre todas las relaciones playlist-track por ID con un cursor ({@link Finders#stream}). Playlist y
+     * track quedan como proxies sin inicializar: leer solo sus IDs, o consultar aparte. Es de solo lectura,
+     * no toca PLAYLIST_STATS. Cerrar el stream.
+     */
+    public Stream<PlaylistTrack> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<PlaylistTrack> streamAll(int fetchSize) {
+        return Finders.stream(em, PlaylistTrack.class, fetchSize);
+    }
+
     public boolean existsByPlaylistAndTrack(Long playlistId, Long trackId) {
-        Long count = em.createQuery(
+        Long count = EXISTS_BY_PLAYLIST_AND_TRACK_TIMER.time(() -> em.createQuery(
                 "SELECT COUNT(pt) FROM PlaylistTrack pt WHERE pt.playlist.id = :pid AND pt.track.id = :tid",
                 Long.class)
                 .setParameter("pid", playlistId)
                 .setParameter("tid", trackId)
-                .getSingleResult();
+                .getSingleResult());
         return count != null && count > 0;
     }
 
     public void delete(PlaylistTrack playlistTrack) {
-        em.remove(em.contains(playlistTrack) ? playlistTrack : em.merge(playlistTrack));
+        PlaylistTrack managed = em.contains(playlistTrack) ? playlistTrack : em.merge(playlistTrack);
+        PlaylistStatsDelta delta = batch != null ? batch : new PlaylistStatsDelta();
+        delta.trackRemoved(managed.getPlaylist().getId(), managed.getTrack().getId());
+        em.remove(managed);
+        if (batch == null) {
+            stats.apply(delta);
+        }
     }
 }
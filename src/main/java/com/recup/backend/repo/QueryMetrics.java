@@ -0,0 +1,105 @@
+package com.recup.backend.repo;
+
+import com.recup.backend.infra.JfrEvents;
+import com.recup.backend.infra.LatencyHistogram;
+import com.recup.backend.infra.Metrics;
+import com.recup.backend.infra.TrackSearchIndex;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Latencia de las consultas de los repositorios: métrica {@code recup_repository_query_seconds} con las
+ * etiquetas {@code repository} (la entidad, ej. "Track") y {@code query} (el método, ej. "search"; "page",
+ * "all", "byIds" o "find" para los recorridos de {@link Finders}). Incluye lo que tarda Hibernate en armar
+ * las entidades, no solo el SQL. Los streams no se miden (su duración depende de quien los consume).
+ *
+ * Cada consulta también se graba como evento de JFR ({@link JfrEvents.Query}) con las filas devueltas y los
+ * bytes reservados.
+ *
+ * Cada consulta medida es un {@link Timer} que resuelve su histograma una vez (los repositorios lo guardan
+ * en un campo estático). Solo se mide la consulta de más afuera: las que corren dentro de otra medida en el
+ * mismo hilo (ej: {@code TrackSearch.search} y {@code byIds} dentro de {@code Track.search}) ya cuentan en
+ * la de afuera y no se registran aparte, así la suma de latencias no cuenta dos veces el mismo tiempo.
+ */
+final class QueryMetrics {
+
+    private static final String METRIC = "recup_repository_query_seconds";
+    private static final String HELP = "Duración de las consultas de los repositorios";
+
+    /** Si el hilo está dentro de una consulta medida. */
+    private static final ThreadLocal<boolean[]> TIMING = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private QueryMetrics() {
+    }
+
+    static Timer timer(String repository, String query) {
+        return new Timer(repository, query, Metrics.histogram(METRIC, HELP, "repository", repository, "query", query));
+    }
+
+    /** Una consulta medida: repositorio, nombre e histograma ya resuelto. */
+    static final class Timer {
+        private final String repository;
+        private final String query;
+        private final LatencyHistogram histogram;
+
+        private Timer(String repository, String query, LatencyHistogram histogram) {
+            this.repository = repository;
+            this.query = query;
+            this.histogram = histogram;
+        }
+
+        <T> T time(Supplier<T> body) {
+            boolean[] timing = TIMING.get();
+            if (timing[0]) {
+                return body.get();
+            }
+            timing[0] = true;
+            try {
+                return measure(body);
+            } finally {
+                timing[0] = false;
+            }
+        }
+
+        private <T> T measure(Supplier<T> body) {
+            JfrEvents.Query event = new JfrEvents.Query();
+            boolean recording = event.isEnabled();
+            long allocatedAtStart = recording ? JfrEvents.allocatedBytes() : 0;
+            event.begin();
+            long start = System.nanoTime();
+            T result;
+            try {
+                result = body.get();
+            } finally {
+                histogram.recordSince(start);
+                event.end();
+            }
+            if (recording && event.shouldCommit()) {
+                event.repository = repository;
+                event.query = query;
+                event.rows = rows(result);
+                event.allocated = JfrEvents.allocatedBytes() - allocatedAtStart;
+                event.commit();
+            }
+            return result;
+        }
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof TrackRepository.SearchPage page) {
+            return page.hits().size();
+        }
+        if (result instanceof TrackSearchIndex.Result page) {
+            return page.hits().size();
+        }
+        return result != null ? 1 : 0;
+    }
+}
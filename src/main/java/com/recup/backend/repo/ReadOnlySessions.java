@@ -0,0 +1,43 @@
+package com.recup.backend.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+
+import java.util.function.Function;
+
+/**
+ * Sesiones de solo lectura para los reportes ({@link CatalogReports}, {@link SalesReports}).
+ *
+ * Cada lectura abre una {@link StatelessSession}: sin contexto de persistencia no hay snapshots de las
+ * entidades para el dirty checking, ni flush antes de las consultas, ni cache de primer nivel que crezca.
+ * Los reportes además proyectan a records con {@code SELECT new ...}: Hibernate arma directamente el
+ * resultado, sin entidades intermedias. Las consultas se piden con fetch size y en modo read-only.
+ */
+final class ReadOnlySessions {
+
+    /** Filas por viaje al leer el resultado (JDBC fetch size). */
+    static final int DEFAULT_FETCH_SIZE = Finders.DEFAULT_FETCH_SIZE;
+
+    private ReadOnlySessions() {
+    }
+
+    static SessionFactory sessionFactory(EntityManagerFactory emf) {
+        return emf.unwrap(SessionFactory.class);
+    }
+
+    /** Ejecuta {@code work} en una StatelessSession nueva (la conexión vuelve al pool al terminar). */
+    static <R> R read(SessionFactory factory, Function<StatelessSession, R> work) {
+        try (StatelessSession session = factory.openStatelessSession()) {
+            return work.apply(session);
+        }
+    }
+
+    /** Consulta de solo lectura con el fetch size por defecto. */
+    static <T> SelectionQuery<T> select(StatelessSession session, String hql, Class<T> type) {
+        return session.createSelectionQuery(hql, type)
+                .setFetchSize(DEFAULT_FETCH_SIZE)
+                .setReadOnly(true);
+    }
+}
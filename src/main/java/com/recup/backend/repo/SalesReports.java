@@ -0,0 +1,116 @@
+package com.recup.backend.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reportes de ventas (facturación por género, artista, país y mes; tracks más vendidos) como GROUP BY en la
+ * base, proyectados a records en una StatelessSession ({@link ReadOnlySessions}): solo se reservan las filas
+ * del resultado, nunca las facturas ni sus líneas.
+ *
+ * Los totales coinciden con los de {@link com.recup.backend.infra.SalesAnalytics} (precios y cantidades nulos
+ * suman 0); conviene esta clase para consultas sueltas y SalesAnalytics para reportes repetidos sobre la
+ * misma copia en memoria.
+ */
+public class SalesReports {
+
+    /**
+     * Total de un grupo: facturación, unidades y cantidad de líneas.
+     * @param id ID del grupo (género, artista o track); null para las líneas sin ese dato
+     */
+    public record Total(Long id, String name, BigDecimal revenue, Long quantity, Long lines) {
+    }
+
+    /** Total de un país de facturación. */
+    public record CountryTotal(String country, BigDecimal revenue, Long quantity, Long lines) {
+    }
+
+    /** Total de un mes; year y month son null para las facturas sin fecha. */
+    public record MonthTotal(Integer year, Integer month, BigDecimal revenue, Long quantity, Long lines) {
+        public YearMonth yearMonth() {
+            return year == null ? null : YearMonth.of(year, month);
+        }
+    }
+
+    private static final String REVENUE = "SUM(COALESCE(ii.unitPrice, 0) * COALESCE(ii.quantity, 0))";
+    private static final String SUMS = REVENUE + ", SUM(COALESCE(ii.quantity, 0)), COUNT(ii)) ";
+    private static final String LINES = "FROM InvoiceItem ii JOIN ii.track t ";
+
+    private static final String BY_GENRE = "SELECT new " + Total.class.getName() + "(g.id, g.name, " + SUMS
+            + LINES + "LEFT JOIN t.genre g GROUP BY g.id, g.name ORDER BY " + REVENUE + " DESC, g.id NULLS LAST";
+
+    private static final String BY_ARTIST = "SELECT new " + Total.class.getName() + "(ar.id, ar.name, " + SUMS
+            + LINES + "LEFT JOIN t.album al LEFT JOIN al.artist ar GROUP BY ar.id, ar.name "
+            + "ORDER BY " + REVENUE + " DESC, ar.id NULLS LAST";
+
+    private static final String BY_COUNTRY = "SELECT new " + CountryTotal.class.getName()
+            + "(i.billingCountry, " + SUMS + "FROM InvoiceItem ii JOIN ii.invoice i "
+            + "GROUP BY i.billingCountry ORDER BY " + REVENUE + " DESC, i.billingCountry NULLS LAST";
+
+    private static final String BY_MONTH = "SELECT new " + MonthTotal.class.getName()
+            + "(YEAR(i.invoiceDate), MONTH(i.invoiceDate), " + SUMS + "FROM InvoiceItem ii JOIN ii.invoice i "
+            + "GROUP BY YEAR(i.invoiceDate), MONTH(i.invoiceDate) "
+            + "ORDER BY YEAR(i.invoiceDate) NULLS LAST, MONTH(i.invoiceDate)";
+
+    private static final String TOP_TRACKS = "SELECT new " + Total.class.getName() + "(t.id, t.name, " + SUMS
+            + LINES + "GROUP BY t.id, t.name "
+            + "ORDER BY SUM(COALESCE(ii.quantity, 0)) DESC, " + REVENUE + " DESC, t.id";
+
+    private static final QueryMetrics.Timer REVENUE_BY_GENRE_TIMER =
+            QueryMetrics.timer("SalesReports", "revenueByGenre");
+    private static final QueryMetrics.Timer REVENUE_BY_ARTIST_TIMER =
+            QueryMetrics.timer("SalesReports", "revenueByArtist");
+    private static final QueryMetrics.Timer REVENUE_BY_COUNTRY_TIMER =
+            QueryMetrics.timer("SalesReports", "revenueByCountry");
+    private static final QueryMetrics.Timer REVENUE_BY_MONTH_TIMER =
+            QueryMetrics.timer("SalesReports", "revenueByMonth");
+    private static final QueryMetrics.Timer TOP_TRACKS_TIMER = QueryMetrics.timer("SalesReports", "topTracks");
+
+    private final SessionFactory factory;
+
+    public SalesReports(EntityManagerFactory emf) {
+        this.factory = ReadOnlySessions.sessionFactory(emf);
+    }
+
+    private <R> R read(QueryMetrics.Timer timer, Function<StatelessSession, R> work) {
+        return timer.time(() -> ReadOnlySessions.read(factory, work));
+    }
+
+    /** Facturación por género, de mayor a menor. */
+    public List<Total> revenueByGenre() {
+        return read(REVENUE_BY_GENRE_TIMER, session ->
+                ReadOnlySessions.select(session, BY_GENRE, Total.class).getResultList());
+    }
+
+    /** Facturación por artista (del álbum del track), de mayor a menor. */
+    public List<Total> revenueByArtist() {
+        return read(REVENUE_BY_ARTIST_TIMER, session ->
+                ReadOnlySessions.select(session, BY_ARTIST, Total.class).getResultList());
+    }
+
+    /** Facturación por país de facturación, de mayor a menor. */
+    public List<CountryTotal> revenueByCountry() {
+        return read(REVENUE_BY_COUNTRY_TIMER, session ->
+                ReadOnlySessions.select(session, BY_COUNTRY, CountryTotal.class).getResultList());
+    }
+
+    /** Facturación por mes de la factura, en orden cronológico (las facturas sin fecha al final). */
+    public List<MonthTotal> revenueByMonth() {
+        return read(REVENUE_BY_MONTH_TIMER, session ->
+                ReadOnlySessions.select(session, BY_MONTH, MonthTotal.class).getResultList());
+    }
+
+    /** Los {@code limit} tracks más vendidos: por unidades, a igualdad por facturación y después por ID. */
+    public List<Total> topTracks(int limit) {
+        return read(TOP_TRACKS_TIMER, session ->
+                ReadOnlySessions.select(session, TOP_TRACKS, Total.class)
+                        .setMaxResults(limit)
+                        .getResultList());
+    }
+}
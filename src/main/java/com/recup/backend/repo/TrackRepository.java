@@ -1,47 +1,151 @@
 package com.recup.backend.repo;
 
 import com.recup.backend.domain.Track;
+import com.recup.backend.infra.TrackSearchIndex;
 import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Cada alta / modificación también actualiza el índice de búsqueda (TRACK_SEARCH): en el momento, o
+ * acumulando en el {@link TrackSearchIndex} recibido, que aplica quien maneja la transacción (ej: la
+ * importación por lotes).
+ */
 public class TrackRepository {
+    /** Track + álbum + artista (p. ej. para listar "tema - álbum - artista"). */
+    public static final FetchPlan<Track> ALBUM_ARTIST = FetchPlan.graph(Track.class, Track.GRAPH_ALBUM_ARTIST);
+    /** Track + álbum + artista + género + tipo de medio. */
+    public static final FetchPlan<Track> DETAIL = FetchPlan.graph(Track.class, Track.GRAPH_DETAIL);
+
+    /** Un track encontrado por {@link #search} y su puntaje (mayor = más relevante). */
+    public record SearchHit(Track track, double score) {
+    }
+
+    /** Una página de {@link #search}: los tracks de la página y cuántos coinciden en total. */
+    public record SearchPage(long total, List<SearchHit> hits) {
+    }
+
+    private static final QueryMetrics.Timer SEARCH_TIMER = QueryMetrics.timer("Track", "search");
+    private static final QueryMetrics.Timer FIND_BY_NAME_TIMER = QueryMetrics.timer("Track", "findByName");
+    private static final QueryMetrics.Timer FIND_BY_NAME_AND_ALBUM_TIMER =
+            QueryMetrics.timer("Track", "findByNameAndAlbum");
+
     private final EntityManager em;
+    private final TrackSearchRepository search;
+    private final TrackSearchIndex batch;
 
     public TrackRepository(EntityManager em) {
+        this(em, null);
+    }
+
+    public TrackRepository(EntityManager em, TrackSearchIndex batch) {
         this.em = em;
+        this.search = new TrackSearchRepository(em);
+        this.batch = batch;
     }
 
+    /** Al modificar un track existente se recalcula PLAYLIST_STATS de las playlists que lo contienen. */
     public Track save(Track track) {
+        Track saved;
         if (track.getId() == null) {
             em.persist(track);
-            return track;
+            saved = track;
         } else {
-            return em.merge(track);
+            saved = em.merge(track);
+            new PlaylistStatsRepository(em).refreshPlaylistsOfTrack(saved.getId());
+        }
+        if (batch != null) {
+            batch.trackChanged(saved.getId());
+        } else {
+            search.reindexTrack(saved.getId());
+        }
+        return saved;
+    }
+
+    /**
+     * Búsqueda de texto en el nombre, el compositor, el álbum y el artista de los tracks (todas las palabras,
+     * "palabra*" por prefijo; sin distinguir mayúsculas ni acentos), ordenada por relevancia. Devuelve hasta
+     * {@code limit} tracks desde la posición {@code offset}, con álbum y artista cargados.
+     */
+    public SearchPage search(String text, int offset, int limit) {
+        return SEARCH_TIMER.time(() -> searchPage(text, offset, limit));
+    }
+
+    private SearchPage searchPage(String text, int offset, int limit) {
+        TrackSearchIndex.Result result = search.search(text, offset, limit);
+        List<Long> ids = result.hits().stream().map(TrackSearchIndex.Hit::trackId).toList();
+        List<Track> tracks = Finders.byIds(em, ALBUM_ARTIST, ids);
+        List<SearchHit> hits = new ArrayList<>(tracks.size());
+        int i = 0;
+        for (TrackSearchIndex.Hit hit : result.hits()) {
+            if (i < tracks.size() && tracks.get(i).getId() == hit.trackId()) {
+                hits.add(new SearchHit(tracks.get(i++), hit.score()));
+            }
         }
+        return new SearchPage(result.total(), hits);
     }
 
     public Optional<Track> findById(Long id) {
         return Optional.ofNullable(em.find(Track.class, id));
     }
 
+    /** Busca un track cargando sus asociaciones según {@code plan} (las demás quedan LAZY). */
+    public Optional<Track> findById(Long id, FetchPlan<Track> plan) {
+        return Finders.find(em, plan, id);
+    }
+
     public List<Track> findAll() {
         return em.createQuery("SELECT t FROM Track t", Track.class).getResultList();
     }
 
+    public List<Track> findAll(FetchPlan<Track> plan) {
+        return Finders.all(em, plan);
+    }
+
+    /** Página de tracks por ID (paginación por clave, ver {@link Finders#page}). */
+    public List<Track> findPage(Long afterId, int limit) {
+        return Finders.page(em, Track.class, afterId, limit);
+    }
+
+    /** Como {@link #findPage(Long, int)} cargando las asociaciones de {@code plan}. */
+    public List<Track> findPage(Long afterId, int limit, FetchPlan<Track> plan) {
+        return Finders.page(em, plan, afterId, limit);
+    }
+
+    /**
+     * Recorre todos los tracks por ID con un cursor ({@link Finders#stream}). Para leer álbum y artista sin
+     * una consulta por fila usar {@link #streamAll(int, FetchPlan)} con {@link #ALBUM_ARTIST}. Cerrar el stream.
+     */
+    public Stream<Track> streamAll() {
+        return streamAll(Finders.DEFAULT_FETCH_SIZE);
+    }
+
+    public Stream<Track> streamAll(int fetchSize) {
+        return Finders.stream(em, Track.class, fetchSize);
+    }
+
+    /** Como {@link #streamAll(int)} cargando las asociaciones a uno de {@code plan}. */
+    public Stream<Track> streamAll(int fetchSize, FetchPlan<Track> plan) {
+        return Finders.stream(em, plan, fetchSize);
+    }
+
     public Optional<Track> findByName(String name) {
-        return em.createQuery("SELECT t FROM Track t WHERE t.name = :name", Track.class)
-                .setParameter("name", name)
-                .getResultStream()
-                .findFirst();
+        return FIND_BY_NAME_TIMER.time(() ->
+                em.createQuery("SELECT t FROM Track t WHERE t.name = :name", Track.class)
+                        .setParameter("name", name)
+                        .getResultStream()
+                        .findFirst());
     }
 
     public Optional<Track> findByNameAndAlbum(String name, Long albumId) {
-        return em.createQuery("SELECT t FROM Track t WHERE t.name = :name AND t.album.id = :albumId", Track.class)
-                .setParameter("name", name)
-                .setParameter("albumId", albumId)
-                .getResultStream()
-                .findFirst();
+        return FIND_BY_NAME_AND_ALBUM_TIMER.time(() ->
+                em.createQuery("SELECT t FROM Track t WHERE t.name = :name AND t.album.id = :albumId", Track.class)
+                        .setParameter("name", name)
+                        .setParameter("albumId", albumId)
+                        .getResultStream()
+                        .findFirst());
     }
 
     public void delete(Track track) {
@@ -0,0 +1,62 @@
+package com.recup.backend.repo;
+
+import com.recup.backend.infra.TrackSearchIndex;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+/**
+ * Búsqueda de texto sobre los tracks y mantenimiento de su índice (TRACK_SEARCH).
+ * Las escrituras van por JDBC en la transacción actual, como en {@link PlaylistStatsRepository}.
+ */
+public class TrackSearchRepository {
+    private static final QueryMetrics.Timer SEARCH_TIMER = QueryMetrics.timer("TrackSearch", "search");
+
+    private final EntityManager em;
+
+    public TrackSearchRepository(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * IDs y puntajes de una página de resultados; ver {@link TrackSearchIndex#search}. Dentro de una transacción
+     * ve también los cambios todavía no sincronizados del contexto.
+     */
+    public TrackSearchIndex.Result search(String text, int offset, int limit) {
+        if (em.getTransaction().isActive()) {
+            em.flush();
+        }
+        return SEARCH_TIMER.time(() ->
+                em.unwrap(Session.class).doReturningWork(conn -> TrackSearchIndex.search(conn, text, offset, limit)));
+    }
+
+    /** Reindexa (y vacía) los tracks acumulados; antes sincroniza el contexto para que las filas existan. */
+    public void apply(TrackSearchIndex delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        em.flush();
+        em.unwrap(Session.class).doWork(delta::apply);
+    }
+
+    public void reindexTrack(Long trackId) {
+        TrackSearchIndex delta = new TrackSearchIndex();
+        delta.trackChanged(trackId);
+        apply(delta);
+    }
+
+    public void reindexAlbum(Long albumId) {
+        em.flush();
+        em.unwrap(Session.class).doWork(conn -> TrackSearchIndex.reindexAlbum(conn, albumId));
+    }
+
+    public void reindexArtist(Long artistId) {
+        em.flush();
+        em.unwrap(Session.class).doWork(conn -> TrackSearchIndex.reindexArtist(conn, artistId));
+    }
+
+    /** Reconstruye el índice completo desde TRACKS. */
+    public void rebuild() {
+        em.flush();
+        em.unwrap(Session.class).doWork(TrackSearchIndex::rebuild);
+    }
+}
@@ -3,20 +3,24 @@
 -- =========================================================
 -- Convención: Tablas y columnas en MAYÚSCULAS con SNAKE_CASE
 -- Cada tabla con clave primaria numérica usa su propia secuencia
+-- Secuencias con INCREMENT BY 50 = allocationSize de las entidades (optimizador
+-- "pooled" de Hibernate: una llamada a la secuencia reserva un bloque de 50 IDs).
+-- DbInitializer reemplaza el incremento si se define -Did.block.size=N (solo al crear la base).
+-- Al cambiar tablas, columnas, índices o secuencias, subir DdlScript.SCHEMA_VERSION.
 -- =========================================================
 
 -- Secuencias para claves primarias
-CREATE SEQUENCE IF NOT EXISTS SEQ_ARTIST_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_ALBUM_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_GENRE_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_MEDIA_TYPE_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_TRACK_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_PLAYLIST_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_PLAYLIST_TRACK_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_EMPLOYEE_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_CUSTOMER_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_INVOICE_ID START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE IF NOT EXISTS SEQ_INVOICE_LINE_ID START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS SEQ_ARTIST_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_ALBUM_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_GENRE_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_MEDIA_TYPE_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_TRACK_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_PLAYLIST_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_PLAYLIST_TRACK_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_EMPLOYEE_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_CUSTOMER_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_INVOICE_ID START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS SEQ_INVOICE_LINE_ID START WITH 1 INCREMENT BY 50;
 
 -- Tabla: ARTISTS
 CREATE TABLE IF NOT EXISTS ARTISTS (
@@ -95,28 +99,78 @@ CREATE TABLE IF NOT EXISTS PLAYLISTS (
 );
 
 CREATE INDEX IF NOT EXISTS IDX_PLAYLISTS_NAME ON PLAYLISTS(NAME);
+
+-- Tabla: PLAYLIST_TRACK (relación N:N con PK propia)
+CREATE TABLE IF NOT EXISTS PLAYLIST_TRACK (
+    PLAYLIST_TRACK_ID INTEGER NOT NULL DEFAULT NEXT VALUE FOR SEQ_PLAYLIST_TRACK_ID,
+    PLAYLIST_ID INTEGER NOT NULL,
+    TRACK_ID INTEGER NOT NULL,
+    PRIMARY KEY (PLAYLIST_TRACK_ID),
+    FOREIGN KEY (PLAYLIST_ID) REFERENCES PLAYLISTS(PLAYLIST_ID),
+    FOREIGN KEY (TRACK_ID) REFERENCES TRACKS(TRACK_ID)
+);
+
+-- Índice compuesto para existencia de relación playlist-track
+CREATE INDEX IF NOT EXISTS IDX_PLAYLIST_TRACK_PLAYLIST_TRACK ON PLAYLIST_TRACK(PLAYLIST_ID, TRACK_ID);
+
+-- Tabla: PLAYLIST_STATS (agregado por playlist, mantenido por los importadores y los repositorios)
+-- Sumas de los tracks de la playlist; COST_PER_MINUTE = TOTAL_PRICE / (TOTAL_MILLISECONDS / 60000)
+CREATE TABLE IF NOT EXISTS PLAYLIST_STATS (
+    PLAYLIST_ID INTEGER NOT NULL,
+    TRACK_COUNT INTEGER NOT NULL,
+    TOTAL_PRICE DECIMAL(14,2) NOT NULL,
+    TOTAL_MILLISECONDS BIGINT NOT NULL,
+    COST_PER_MINUTE DOUBLE PRECISION GENERATED ALWAYS AS (
+        CASE WHEN TOTAL_MILLISECONDS > 0 THEN TOTAL_PRICE / (TOTAL_MILLISECONDS / 60000.0) END),
+    PRIMARY KEY (PLAYLIST_ID),
+    FOREIGN KEY (PLAYLIST_ID) REFERENCES PLAYLISTS(PLAYLIST_ID) ON DELETE CASCADE
+);
+
+-- Top-N por costo/minuto sin recorrer PLAYLIST_TRACK
+CREATE INDEX IF NOT EXISTS IDX_PLAYLIST_STATS_COST ON PLAYLIST_STATS(COST_PER_MINUTE DESC);
+
+-- Tabla: PLAYLIST_GENRE_STATS (cantidad de tracks de cada género en cada playlist, mantenida igual que PLAYLIST_STATS)
+-- Una playlist es "solo del género G" si su fila de G tiene TRACK_COUNT = PLAYLIST_STATS.TRACK_COUNT
+CREATE TABLE IF NOT EXISTS PLAYLIST_GENRE_STATS (
+    PLAYLIST_ID INTEGER NOT NULL,
+    GENRE_ID INTEGER NOT NULL,
+    TRACK_COUNT INTEGER NOT NULL,
+    PRIMARY KEY (PLAYLIST_ID, GENRE_ID),
+    FOREIGN KEY (PLAYLIST_ID) REFERENCES PLAYLISTS(PLAYLIST_ID) ON DELETE CASCADE,
+    FOREIGN KEY (GENRE_ID) REFERENCES GENRES(GENRE_ID)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_PLAYLIST_GENRE_STATS_GENRE ON PLAYLIST_GENRE_STATS(GENRE_ID);
+
+-- Tabla: TRACK_SEARCH (índice invertido de búsqueda de texto, mantenido por los importadores y los repositorios)
+-- Un término normalizado (minúsculas, sin acentos) por track en que aparece, en el nombre, el compositor,
+-- el título del álbum o el nombre del artista; WEIGHT = suma de los pesos de los campos que lo contienen
+CREATE TABLE IF NOT EXISTS TRACK_SEARCH (
+    TERM VARCHAR(64) NOT NULL,
+    TRACK_ID INTEGER NOT NULL,
+    WEIGHT INTEGER NOT NULL,
+    PRIMARY KEY (TERM, TRACK_ID),
+    FOREIGN KEY (TRACK_ID) REFERENCES TRACKS(TRACK_ID) ON DELETE CASCADE
+);
+
+-- Reindexar un track borra sus términos por TRACK_ID
+CREATE INDEX IF NOT EXISTS IDX_TRACK_SEARCH_TRACK ON TRACK_SEARCH(TRACK_ID);
+
 -- Unicidad lógica de nombre de artista
 CREATE UNIQUE INDEX IF NOT EXISTS UQ_ARTISTS_NAME ON ARTISTS(NAME);
--- Tabla: PLAYLIST_TRACK (relación N:N con PK propia)
 -- Unicidad de nombre de género
 CREATE UNIQUE INDEX IF NOT EXISTS UQ_GENRES_NAME ON GENRES(NAME);
-    PLAYLIST_TRACK_ID INTEGER NOT NULL DEFAULT NEXT VALUE FOR SEQ_PLAYLIST_TRACK_ID,
 -- Unicidad de nombre de media type
 CREATE UNIQUE INDEX IF NOT EXISTS UQ_MEDIA_TYPES_NAME ON MEDIA_TYPES(NAME);
-    TRACK_ID INTEGER NOT NULL,
 -- Unicidad de nombre de playlist
 CREATE UNIQUE INDEX IF NOT EXISTS UQ_PLAYLISTS_NAME ON PLAYLISTS(NAME);
-    FOREIGN KEY (PLAYLIST_ID) REFERENCES PLAYLISTS(PLAYLIST_ID),
-    FOREIGN KEY (TRACK_ID) REFERENCES TRACKS(TRACK_ID)
 -- Unicidad combinada título+artista (evita dos álbumes con mismo título para el mismo artista)
 CREATE UNIQUE INDEX IF NOT EXISTS UQ_ALBUMS_TITLE_ARTIST ON ALBUMS(TITLE, ARTIST_ID);
-
--- Índice compuesto para existencia de relación playlist-track
-CREATE INDEX IF NOT EXISTS IDX_PLAYLIST_TRACK_PLAYLIST_TRACK ON PLAYLIST_TRACK(PLAYLIST_ID, TRACK_ID);
-
-CREATE TABLE IF NOT EXISTS EMPLOYEES (
 -- Unicidad combinada track name + album (evita duplicados exactos de un track dentro de un álbum)
 CREATE UNIQUE INDEX IF NOT EXISTS UQ_TRACKS_NAME_ALBUM ON TRACKS(NAME, ALBUM_ID);
+
+-- Tabla: EMPLOYEES
+CREATE TABLE IF NOT EXISTS EMPLOYEES (
     EMPLOYEE_ID INTEGER NOT NULL DEFAULT NEXT VALUE FOR SEQ_EMPLOYEE_ID,
     LAST_NAME VARCHAR(20),
     FIRST_NAME VARCHAR(20),
@@ -136,6 +190,21 @@ CREATE UNIQUE INDEX IF NOT EXISTS UQ_TRACKS_NAME_ALBUM ON TRACKS(NAME, ALBUM_ID)
     FOREIGN KEY (REPORTS_TO) REFERENCES EMPLOYEES(EMPLOYEE_ID)
 );
 
+-- Tabla: EMPLOYEE_HIERARCHY (clausura de EMPLOYEES.REPORTS_TO, mantenida por EmployeeRepository)
+-- Una fila por cada jefe, directo o indirecto, de cada empleado, con la cantidad de niveles entre ambos;
+-- cada empleado es además su propio ancestro con DEPTH = 0. Subárbol: por ANCESTOR_ID (la PK)
+CREATE TABLE IF NOT EXISTS EMPLOYEE_HIERARCHY (
+    ANCESTOR_ID INTEGER NOT NULL,
+    DESCENDANT_ID INTEGER NOT NULL,
+    DEPTH INTEGER NOT NULL,
+    PRIMARY KEY (ANCESTOR_ID, DESCENDANT_ID),
+    FOREIGN KEY (ANCESTOR_ID) REFERENCES EMPLOYEES(EMPLOYEE_ID) ON DELETE CASCADE,
+    FOREIGN KEY (DESCENDANT_ID) REFERENCES EMPLOYEES(EMPLOYEE_ID) ON DELETE CASCADE
+);
+
+-- Cadena de jefes de un empleado, del más cercano al más alto
+CREATE INDEX IF NOT EXISTS IDX_EMPLOYEE_HIERARCHY_DESCENDANT ON EMPLOYEE_HIERARCHY(DESCENDANT_ID, DEPTH);
+
 -- Tabla: CUSTOMERS
 CREATE TABLE IF NOT EXISTS CUSTOMERS (
     CUSTOMER_ID INTEGER NOT NULL DEFAULT NEXT VALUE FOR SEQ_CUSTOMER_ID,
@@ -182,6 +251,28 @@ CREATE TABLE IF NOT EXISTS INVOICE_ITEMS (
     FOREIGN KEY (TRACK_ID) REFERENCES TRACKS(TRACK_ID)
 );
 
+-- Tabla: IMPORT_FILES (checksum por archivo importado, para el modo incremental)
+CREATE TABLE IF NOT EXISTS IMPORT_FILES (
+    SOURCE VARCHAR(500) NOT NULL,
+    FILE_CHECKSUM BIGINT NOT NULL,
+    RECORD_COUNT INTEGER NOT NULL,
+    CHUNK_SIZE INTEGER NOT NULL,
+    FILE_SIZE BIGINT,
+    FILE_MODIFIED BIGINT,
+    IMPORTED_AT TIMESTAMP,
+    PRIMARY KEY (SOURCE)
+);
+
+-- Tabla: IMPORT_CHUNKS (checksum por bloque de registros de cada archivo)
+CREATE TABLE IF NOT EXISTS IMPORT_CHUNKS (
+    SOURCE VARCHAR(500) NOT NULL,
+    CHUNK_NO INTEGER NOT NULL,
+    RECORD_COUNT INTEGER NOT NULL,
+    CHECKSUM BIGINT NOT NULL,
+    PRIMARY KEY (SOURCE, CHUNK_NO),
+    FOREIGN KEY (SOURCE) REFERENCES IMPORT_FILES(SOURCE)
+);
+
 -- =========================================================
 -- Fin del DDL
 -- =========================================================